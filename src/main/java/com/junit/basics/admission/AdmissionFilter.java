@@ -0,0 +1,182 @@
+package com.junit.basics.admission;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.PathContainer;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+//admission control in front of the employee endpoints: a request is matched to a route, takes a token from its
+//client's bucket for that route and then a permit of the route's bulkhead. Either one missing answers 429 with
+//Retry-After right away, before the request can wait on a Tomcat thread or a pooled connection. Requests matching no
+//route pass through. Counted as employee.admission.requests by bulkhead and outcome, with the current limit and
+//in flight count of every bulkhead as gauges
+public class AdmissionFilter extends OncePerRequestFilter {
+    public static final String REQUESTS = "employee.admission.requests";
+    public static final String LIMIT = "employee.admission.limit";
+    public static final String IN_FLIGHT = "employee.admission.in-flight";
+
+    private final List<Route> routes;
+    private final String clientHeader;
+    private final LongSupplier nanoTime;
+    private final Map<Bulkhead, Counter> admitted = new HashMap<>();
+    private final Map<Bulkhead, Counter> rateLimited = new HashMap<>();
+    private final Map<Bulkhead, Counter> shed = new HashMap<>();
+
+    public AdmissionFilter(List<Route> routes, String clientHeader, MeterRegistry meterRegistry,
+                           LongSupplier nanoTime) {
+        this.routes = routes;
+        this.clientHeader = clientHeader;
+        this.nanoTime = nanoTime;
+        for (Bulkhead bulkhead : getBulkheads()) {
+            admitted.put(bulkhead, counter(meterRegistry, bulkhead, "admitted"));
+            rateLimited.put(bulkhead, counter(meterRegistry, bulkhead, "rate_limited"));
+            shed.put(bulkhead, counter(meterRegistry, bulkhead, "shed"));
+            ConcurrencyLimit concurrencyLimit = bulkhead.concurrencyLimit();
+            Gauge.builder(LIMIT, concurrencyLimit, ConcurrencyLimit::getLimit)
+                    .tag("bulkhead", bulkhead.name()).register(meterRegistry);
+            Gauge.builder(IN_FLIGHT, concurrencyLimit, ConcurrencyLimit::getInFlight)
+                    .tag("bulkhead", bulkhead.name()).register(meterRegistry);
+        }
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Route route = match(request);
+        if(route == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+        Bulkhead bulkhead = route.bulkhead();
+        long start = nanoTime.getAsLong();
+        String bucketKey = clientKey(request) + " " + route;
+        long wait = bulkhead.rateLimiter().tryAcquire(bucketKey, start);
+        if(wait > 0) {
+            rateLimited.get(bulkhead).increment();
+            reject(response, wait, "Rate limit exceeded for " + route);
+            return;
+        }
+        ConcurrencyLimit concurrencyLimit = bulkhead.concurrencyLimit();
+        if(!concurrencyLimit.tryAcquire()) {
+            //the request was never served, the client keeps its token for the retry
+            bulkhead.rateLimiter().release(bucketKey);
+            shed.get(bulkhead).increment();
+            reject(response, TimeUnit.SECONDS.toNanos(1), "Too many concurrent " + bulkhead.name() + " requests");
+            return;
+        }
+        admitted.get(bulkhead).increment();
+        boolean async = false;
+        try {
+            chain.doFilter(request, response);
+            async = request.isAsyncStarted();
+        } finally {
+            if(async)
+                request.getAsyncContext().addListener(new ReleaseOnComplete(concurrencyLimit));
+            else
+                concurrencyLimit.release(nanoTime.getAsLong() - start);
+        }
+    }
+
+    public void evictFullBuckets() {
+        long now = nanoTime.getAsLong();
+        for (Bulkhead bulkhead : getBulkheads())
+            bulkhead.rateLimiter().evictFull(now);
+    }
+
+    public Set<Bulkhead> getBulkheads() {
+        Set<Bulkhead> bulkheads = new LinkedHashSet<>();
+        for (Route route : routes)
+            bulkheads.add(route.bulkhead());
+        return bulkheads;
+    }
+
+    //first route matching method, path and, where the route names one, the Accept header wins
+    private Route match(HttpServletRequest request) {
+        PathContainer path = PathContainer.parsePath(
+                request.getRequestURI().substring(request.getContextPath().length()));
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+        for (Route route : routes) {
+            if(route.method().equals(request.getMethod()) && route.pattern().matches(path)
+                    && (route.accept() == null || accept != null && accept.contains(route.accept())))
+                return route;
+        }
+        return null;
+    }
+
+    //the address of the client as the load balancer reported it (server.forward-headers-strategy), unless the gateway
+    //names the client in clientHeader. Without either every client behind the balancer would share one bucket
+    private String clientKey(HttpServletRequest request) {
+        String client = clientHeader == null ? null : request.getHeader(clientHeader);
+        return client == null || client.isEmpty() ? request.getRemoteAddr() : client;
+    }
+
+    private static void reject(HttpServletResponse response, long waitNanos, String message) throws IOException {
+        long seconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(seconds));
+        response.sendError(HttpStatus.TOO_MANY_REQUESTS.value(), message);
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, Bulkhead bulkhead, String outcome) {
+        return Counter.builder(REQUESTS)
+                .tag("bulkhead", bulkhead.name())
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    //accept tells apart handlers sharing a path, such as the JSON and the event stream variant of GET /changes
+    public record Route(String method, PathPattern pattern, String accept, Bulkhead bulkhead) {
+        public static Route of(String method, String pattern, Bulkhead bulkhead) {
+            return of(method, pattern, null, bulkhead);
+        }
+
+        public static Route of(String method, String pattern, String accept, Bulkhead bulkhead) {
+            return new Route(method, PathPatternParser.defaultInstance.parse(pattern), accept, bulkhead);
+        }
+
+        @Override
+        public String toString() {
+            return method + " " + pattern;
+        }
+    }
+
+    //a streamed response holds its permit until it is written out; onComplete also follows a timeout or an error.
+    //Its duration depends on the size of the result rather than on the pool, so it is not taken as a latency sample
+    private record ReleaseOnComplete(ConcurrencyLimit concurrencyLimit) implements AsyncListener {
+        @Override
+        public void onComplete(AsyncEvent event) {
+            concurrencyLimit.release();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+    }
+}
@@ -0,0 +1,6 @@
+package com.junit.basics.admission;
+
+//a class of endpoints with its own per client rate limit and its own concurrency limit, so one class running hot
+//cannot take the connections another class needs
+public record Bulkhead(String name, RateLimiter rateLimiter, ConcurrencyLimit concurrencyLimit) {
+}
@@ -0,0 +1,68 @@
+package com.junit.basics.admission;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+//bulkhead whose size follows the measured latency, after the gradient limiters derived from TCP Vegas. A fast moving
+//average of response times is compared with a slow one: once the recent responses take more than tolerance times
+//the long term average, requests are queueing for connections and the limit shrinks by a tenth; while they do not
+//and the permits are in use, it grows by one. The limit stays between 1 and maxLimit, which is sized to leave the
+//connection pool room, so excess requests are turned away instead of waiting on the pool
+public class ConcurrencyLimit {
+    private static final double RECENT_WEIGHT = 0.1;
+    private static final double BASELINE_WEIGHT = 0.01;
+
+    private final int maxLimit;
+    private final double tolerance;
+    private final AtomicInteger limit;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    //moving averages in nanos, stored as double bits, NaN until the first sample
+    private final AtomicLong recentLatency = new AtomicLong(Double.doubleToLongBits(Double.NaN));
+    private final AtomicLong baselineLatency = new AtomicLong(Double.doubleToLongBits(Double.NaN));
+
+    public ConcurrencyLimit(int maxLimit, double tolerance) {
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.limit = new AtomicInteger(maxLimit);
+    }
+
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if(current >= limit.get())
+                return false;
+            if(inFlight.compareAndSet(current, current + 1))
+                return true;
+        }
+    }
+
+    //for requests whose duration says nothing about the pool, e.g. streamed responses
+    public void release() {
+        inFlight.decrementAndGet();
+    }
+
+    public void release(long latencyNanos) {
+        int inFlightBefore = inFlight.getAndDecrement();
+        double recent = average(recentLatency, latencyNanos, RECENT_WEIGHT);
+        double baseline = average(baselineLatency, latencyNanos, BASELINE_WEIGHT);
+        if(recent > baseline * tolerance)
+            limit.updateAndGet(current -> Math.max(1, current - Math.max(1, current / 10)));
+        else if(inFlightBefore * 2 >= limit.get())
+            limit.updateAndGet(current -> Math.min(maxLimit, current + 1));
+    }
+
+    public int getLimit() {
+        return limit.get();
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    private static double average(AtomicLong average, long sample, double weight) {
+        return Double.longBitsToDouble(average.updateAndGet(bits -> {
+            double current = Double.longBitsToDouble(bits);
+            return Double.doubleToLongBits(Double.isNaN(current) ? sample : current + (sample - current) * weight);
+        }));
+    }
+}
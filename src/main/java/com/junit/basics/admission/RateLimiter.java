@@ -0,0 +1,38 @@
+package com.junit.basics.admission;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+//one token bucket per key, created on first use. Full buckets are dropped by evictFull, so the map only holds
+//clients that were active within the last burst / permitsPerSecond seconds
+public class RateLimiter {
+    private final double permitsPerSecond;
+    private final int burst;
+    private final ConcurrentMap<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+
+    public RateLimiter(double permitsPerSecond, int burst) {
+        this.permitsPerSecond = permitsPerSecond;
+        this.burst = burst;
+    }
+
+    //0 when admitted, otherwise the nanos until the key has a token again
+    public long tryAcquire(String key, long now) {
+        return buckets.computeIfAbsent(key, k -> new TokenBucket(permitsPerSecond, burst, now)).tryAcquire(now);
+    }
+
+    //returns the token of an admitted request that was shed further on. An evicted bucket was full, nothing to return
+    public void release(String key) {
+        TokenBucket bucket = buckets.get(key);
+        if(bucket != null)
+            bucket.release();
+    }
+
+    //a request racing the removal may take a token from the dropped bucket, it is admitted all the same
+    public void evictFull(long now) {
+        buckets.values().removeIf(bucket -> bucket.isFull(now));
+    }
+
+    public int size() {
+        return buckets.size();
+    }
+}
@@ -0,0 +1,41 @@
+package com.junit.basics.admission;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+//token bucket kept as a single theoretical arrival time (GCRA): every admitted request moves it one emission interval
+//further, and requests are admitted while it stays within burst intervals of now. One CAS per request, no lock and
+//no refill thread. Times are System.nanoTime() values
+public class TokenBucket {
+    private final long intervalNanos;
+    private final long burstNanos;
+    private final AtomicLong arrival;
+
+    public TokenBucket(double permitsPerSecond, int burst, long now) {
+        this.intervalNanos = Math.max(1, (long) (1_000_000_000 / permitsPerSecond));
+        this.burstNanos = intervalNanos * burst;
+        this.arrival = new AtomicLong(now);
+    }
+
+    //0 when a token was taken, otherwise the nanos until the next one
+    public long tryAcquire(long now) {
+        while (true) {
+            long current = arrival.get();
+            long next = Math.max(current, now) + intervalNanos;
+            if(next - now > burstNanos)
+                return next - now - burstNanos;
+            if(arrival.compareAndSet(current, next))
+                return 0;
+        }
+    }
+
+    //gives back a token taken by tryAcquire for a request that was turned away after all. Moving the arrival time
+    //before now only makes the bucket full, tryAcquire never counts from earlier than now
+    public void release() {
+        arrival.addAndGet(-intervalNanos);
+    }
+
+    //a full bucket holds no state a new one would not have
+    public boolean isFull(long now) {
+        return arrival.get() - now <= 0;
+    }
+}
@@ -0,0 +1,46 @@
+package com.junit.basics.cli;
+
+import com.junit.basics.model.EmployeeExportFormat;
+import com.junit.basics.service.EmployeeExportService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.stereotype.Component;
+
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+
+//CLI mode: exports to a file and exits instead of serving requests, e.g.
+//java -jar app.jar --spring.main.web-application-type=none --employee.export.file=employees.csv.gz
+//    --employee.export.format=csv
+@Component
+@ConditionalOnProperty(name = "employee.export.file")
+public class EmployeeExportRunner implements CommandLineRunner {
+
+    @Autowired
+    private EmployeeExportService employeeExportService;
+
+    @Autowired
+    private ConfigurableApplicationContext applicationContext;
+
+    @Value("${employee.export.file}")
+    private Path file;
+
+    @Value("${employee.export.format:csv}")
+    private String format;
+
+    @Override
+    public void run(String... args) throws Exception {
+        //gzip whenever the file name asks for it
+        boolean gzip = file.getFileName().toString().endsWith(".gz");
+        try (OutputStream out = Files.newOutputStream(file)) {
+            employeeExportService.export(EmployeeExportFormat.valueOf(format.toUpperCase(Locale.ROOT)), gzip, out);
+        }
+        System.exit(SpringApplication.exit(applicationContext));
+    }
+}
@@ -0,0 +1,86 @@
+package com.junit.basics.concurrent;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+//DataLoader style batching of single key lookups: keys requested by concurrent callers within window, or until
+//maxBatchSize distinct keys are waiting, are resolved by one call of the loader. A full batch is loaded on the
+//thread of the caller that filled it, a batch closed by the window on a virtual thread. Keys the loader leaves out
+//resolve to null
+public class MicroBatcher<K, V> implements AutoCloseable {
+    private final Function<Set<K>, Map<K, V>> loader;
+    private final int maxBatchSize;
+    private final long windowNanos;
+    private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("micro-batcher").daemon().factory());
+
+    //guarded by this
+    private Map<K, CompletableFuture<V>> current;
+
+    public MicroBatcher(Function<Set<K>, Map<K, V>> loader, int maxBatchSize, Duration window) {
+        this.loader = loader;
+        this.maxBatchSize = maxBatchSize;
+        this.windowNanos = window.toNanos();
+    }
+
+    public V load(K key) {
+        CompletableFuture<V> result;
+        Map<K, CompletableFuture<V>> full = null;
+        synchronized (this) {
+            if(current == null) {
+                Map<K, CompletableFuture<V>> batch = new HashMap<>();
+                current = batch;
+                timer.schedule(() -> windowClosed(batch), windowNanos, TimeUnit.NANOSECONDS);
+            }
+            //the same key twice in one batch shares its future
+            result = current.computeIfAbsent(key, k -> new CompletableFuture<>());
+            if(current.size() >= maxBatchSize) {
+                full = current;
+                current = null;
+            }
+        }
+        if(full != null)
+            dispatch(full);
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            if(e.getCause() instanceof RuntimeException cause)
+                throw cause;
+            if(e.getCause() instanceof Error cause)
+                throw cause;
+            throw e;
+        }
+    }
+
+    @Override
+    public void close() {
+        timer.shutdownNow();
+    }
+
+    //the window ended, unless the batch already went out full
+    private void windowClosed(Map<K, CompletableFuture<V>> batch) {
+        synchronized (this) {
+            if(current != batch)
+                return;
+            current = null;
+        }
+        Thread.startVirtualThread(() -> dispatch(batch));
+    }
+
+    private void dispatch(Map<K, CompletableFuture<V>> batch) {
+        try {
+            Map<K, V> values = loader.apply(batch.keySet());
+            batch.forEach((key, result) -> result.complete(values.get(key)));
+        } catch (RuntimeException | Error e) {
+            batch.values().forEach(result -> result.completeExceptionally(e));
+        }
+    }
+}
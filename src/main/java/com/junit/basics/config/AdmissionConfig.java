@@ -0,0 +1,75 @@
+package com.junit.basics.config;
+
+import com.junit.basics.admission.AdmissionFilter;
+import com.junit.basics.admission.AdmissionFilter.Route;
+import com.junit.basics.admission.Bulkhead;
+import com.junit.basics.admission.ConcurrencyLimit;
+import com.junit.basics.admission.RateLimiter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.http.MediaType;
+
+import java.util.List;
+
+//admission control of the /api/employees endpoints, on unless employee.admission.enabled is false. Point lookups,
+//list calls and writes are separate bulkheads, so a batch job pulling /allEmployees or /export, or posting to /create
+//or /import, is turned away with 429 while GET /{id} keeps its share of the connection pool. Open change streams
+//have a bulkhead of their own, they hold a connection only while catching up
+@Configuration
+@EnableConfigurationProperties(AdmissionProperties.class)
+@ConditionalOnProperty(name = "employee.admission.enabled", havingValue = "true", matchIfMissing = true)
+public class AdmissionConfig {
+    private static final String BASE = "/api/employees";
+
+    @Bean
+    public AdmissionFilter admissionFilter(AdmissionProperties properties, MeterRegistry meterRegistry) {
+        Bulkhead lookup = bulkhead("lookup", properties);
+        Bulkhead list = bulkhead("list", properties);
+        Bulkhead write = bulkhead("write", properties);
+        Bulkhead subscribe = bulkhead("subscribe", properties);
+        //the literal paths come before /{id}, which would match them too
+        List<Route> routes = List.of(
+                Route.of("GET", BASE + "/allEmployees", list),
+                Route.of("GET", BASE + "/allEmployees/stream", list),
+                Route.of("GET", BASE + "/page", list),
+                Route.of("GET", BASE + "/delta", list),
+                Route.of("GET", BASE + "/export", list),
+                Route.of("GET", BASE + "/changes", MediaType.TEXT_EVENT_STREAM_VALUE, subscribe),
+                Route.of("GET", BASE + "/changes", list),
+                Route.of("GET", BASE + "/byEmail", lookup),
+                Route.of("GET", BASE + "/byName", lookup),
+                Route.of("GET", BASE + "/search", lookup),
+                Route.of("GET", BASE + "/createAsync/{trackingId}", lookup),
+                Route.of("GET", BASE + "/{id}", lookup),
+                Route.of("POST", BASE + "/batchGet", lookup),
+                Route.of("POST", BASE + "/create", write),
+                Route.of("POST", BASE + "/createAsync", write),
+                Route.of("POST", BASE + "/import", write),
+                Route.of("POST", BASE + "/batchCreate", write),
+                Route.of("POST", BASE + "/batchDelete", write),
+                Route.of("PUT", BASE + "/{id}", write),
+                Route.of("DELETE", BASE + "/{id}", write));
+        return new AdmissionFilter(routes, properties.getClientHeader(), meterRegistry, System::nanoTime);
+    }
+
+    //runs ahead of the other filters, a rejected request should cost as little as possible
+    @Bean
+    public FilterRegistrationBean<AdmissionFilter> admissionFilterRegistration(AdmissionFilter admissionFilter) {
+        FilterRegistrationBean<AdmissionFilter> registration = new FilterRegistrationBean<>(admissionFilter);
+        registration.addUrlPatterns(BASE + "/*");
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
+    }
+
+    private static Bulkhead bulkhead(String name, AdmissionProperties properties) {
+        AdmissionProperties.Bulkhead settings = properties.getBulkheads()
+                .getOrDefault(name, new AdmissionProperties.Bulkhead());
+        return new Bulkhead(name, new RateLimiter(settings.getRate(), settings.getBurst()),
+                new ConcurrencyLimit(settings.getMaxConcurrency(), properties.getLatencyTolerance()));
+    }
+}
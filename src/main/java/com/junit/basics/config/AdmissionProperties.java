@@ -0,0 +1,34 @@
+package com.junit.basics.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+//employee.admission.*: rate and concurrency limits of the employee endpoints, see AdmissionConfig
+@Getter @Setter
+@ConfigurationProperties("employee.admission")
+public class AdmissionProperties {
+    //lookup, list, write and subscribe, bulkheads missing here use the defaults below
+    private Map<String, Bulkhead> bulkheads = new LinkedHashMap<>();
+
+    //how far the recent latency may rise above the long term average before the concurrency limits shrink
+    private double latencyTolerance = 2.0;
+
+    //header the gateway sets to identify the client, such as X-Client-Id. Unset, or missing on a request, the
+    //client is the remote address, taken from X-Forwarded-For behind a proxy (server.forward-headers-strategy)
+    private String clientHeader;
+
+    @Getter @Setter
+    public static class Bulkhead {
+        //requests per second each client may send to each endpoint, with bursts of up to burst requests
+        private double rate = 100;
+
+        private int burst = 200;
+
+        //upper bound of the adaptive concurrency limit, the bulkheads together should stay below the pool size
+        private int maxConcurrency = 10;
+    }
+}
@@ -0,0 +1,10 @@
+package com.junit.basics.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
+
+//fills Employee.createdAt/updatedAt, kept off the application class so web slice tests do not need JPA
+@Configuration
+@EnableJpaAuditing
+public class AuditingConfig {
+}
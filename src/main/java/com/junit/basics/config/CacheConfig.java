@@ -0,0 +1,31 @@
+package com.junit.basics.config;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+//caches are Caffeine backed, size/TTL come from spring.cache.caffeine.spec in application.properties
+@Configuration
+@EnableCaching
+public class CacheConfig {
+    public static final String EMPLOYEES_BY_ID = "employeesById";
+    public static final String EMPLOYEES_BY_EMAIL = "employeesByEmail";
+
+    //evictions and puts made inside a transaction wait for its commit. Evicting before it would let a concurrent
+    //lookup cache the row as it was before the write, until the TTL runs out. Wrapping whatever manager Boot builds
+    //keeps spring.cache.* working, including spring.cache.type=none
+    @Bean
+    public static BeanPostProcessor transactionAwareCacheManager() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if(bean instanceof CacheManager cacheManager && !(bean instanceof TransactionAwareCacheManagerProxy))
+                    return new TransactionAwareCacheManagerProxy(cacheManager);
+                return bean;
+            }
+        };
+    }
+}
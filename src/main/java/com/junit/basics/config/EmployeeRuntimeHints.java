@@ -0,0 +1,18 @@
+package com.junit.basics.config;
+
+import com.junit.basics.model.EmployeeDeltaEntry;
+import com.junit.basics.model.EmployeeView;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+
+//reflection the native image cannot discover on its own: Hibernate instantiates EmployeeView and EmployeeDeltaEntry
+//through the constructors named in EmployeeRepository.VIEW and EmployeeRepository.DELTA
+public class EmployeeRuntimeHints implements RuntimeHintsRegistrar {
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        hints.reflection().registerType(EmployeeView.class, MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+        hints.reflection().registerType(EmployeeDeltaEntry.class, MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+    }
+}
@@ -0,0 +1,57 @@
+package com.junit.basics.config;
+
+import com.junit.basics.datasource.ReplicaRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.ReactiveTransactionManager;
+import org.springframework.transaction.reactive.TransactionalOperator;
+
+import javax.sql.DataSource;
+
+//JPA and R2DBC run side by side. Boot treats them as alternatives: the JDBC DataSource is no longer
+//auto-configured once an R2DBC ConnectionFactory exists, and R2DBC adds a second transaction manager.
+//The DataSource is therefore declared here from spring.datasource.*, JPA stays the default transaction
+//manager for @Transactional, and the reactive service demarcates its transactions through the operator below
+@Configuration
+@EnableConfigurationProperties(DataSourceProperties.class)
+@ImportRuntimeHints(EmployeeRuntimeHints.class)
+public class PersistenceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    //with replicas configured (ReplicaRoutingConfig) JPA gets the routing data source. The lazy proxy defers
+    //fetching the connection to the first statement, when the transaction's read only flag is already known
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource,
+                                 ObjectProvider<ReplicaRoutingDataSource> replicaRoutingDataSource) {
+        ReplicaRoutingDataSource routing = replicaRoutingDataSource.getIfAvailable();
+        return routing == null ? primaryDataSource : new LazyConnectionDataSourceProxy(routing);
+    }
+
+    @Bean
+    @Primary
+    public PlatformTransactionManager transactionManager(EntityManagerFactory entityManagerFactory) {
+        return new JpaTransactionManager(entityManagerFactory);
+    }
+
+    @Bean
+    public TransactionalOperator reactiveTransactionalOperator(ReactiveTransactionManager reactiveTransactionManager) {
+        return TransactionalOperator.create(reactiveTransactionManager);
+    }
+}
@@ -0,0 +1,29 @@
+package com.junit.basics.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+//employee.datasource.*: read replicas behind the primary spring.datasource, see ReplicaRoutingConfig
+@Getter @Setter
+@ConfigurationProperties("employee.datasource")
+public class ReplicaProperties {
+    private List<Replica> replicas = new ArrayList<>();
+
+    //how long a client reads from the primary after its last write, should cover the usual replication lag
+    private Duration stickyWindow = Duration.ofSeconds(2);
+
+    //username and password default to the primary's
+    @Getter @Setter
+    public static class Replica {
+        private String url;
+
+        private String username;
+
+        private String password;
+    }
+}
@@ -0,0 +1,59 @@
+package com.junit.basics.config;
+
+import com.junit.basics.datasource.ReadYourWritesFilter;
+import com.junit.basics.datasource.ReplicaRoutingDataSource;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.time.Clock;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+//opt-in: active once employee.datasource.replicas[0].url is set. Read only transactions then go to the replicas,
+//PersistenceConfig puts the routing data source in front of JPA
+@Configuration
+@EnableConfigurationProperties(ReplicaProperties.class)
+@ConditionalOnProperty(name = "employee.datasource.replicas[0].url")
+public class ReplicaRoutingConfig {
+    //a dead replica should fail over quickly instead of holding the read for the primary's full timeout
+    private static final long REPLICA_CONNECTION_TIMEOUT_MS = 1000;
+
+    //replica pools copy the primary's spring.datasource.hikari.* tuning. They start without connecting,
+    //so a replica that is down at startup is only taken out of the rotation instead of failing the application
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(HikariDataSource primaryDataSource,
+                                                             ReplicaProperties properties) {
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        List<ReplicaProperties.Replica> configured = properties.getReplicas();
+        for (int i = 0; i < configured.size(); i++) {
+            ReplicaProperties.Replica replica = configured.get(i);
+            HikariConfig config = new HikariConfig();
+            primaryDataSource.copyStateTo(config);
+            config.setPoolName("replica-" + i);
+            config.setJdbcUrl(replica.getUrl());
+            if(replica.getUsername() != null)
+                config.setUsername(replica.getUsername());
+            if(replica.getPassword() != null)
+                config.setPassword(replica.getPassword());
+            config.setConnectionTimeout(Math.min(config.getConnectionTimeout(), REPLICA_CONNECTION_TIMEOUT_MS));
+            config.setInitializationFailTimeout(-1);
+            replicas.put(config.getPoolName(), new HikariDataSource(config));
+        }
+        return new ReplicaRoutingDataSource(primaryDataSource, replicas);
+    }
+
+    @Bean
+    public FilterRegistrationBean<ReadYourWritesFilter> readYourWritesFilter(ReplicaProperties properties) {
+        FilterRegistrationBean<ReadYourWritesFilter> registration = new FilterRegistrationBean<>(
+                new ReadYourWritesFilter(properties.getStickyWindow(), Clock.systemUTC()));
+        registration.addUrlPatterns("/api/*");
+        return registration;
+    }
+}
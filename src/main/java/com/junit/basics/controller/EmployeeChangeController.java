@@ -0,0 +1,47 @@
+package com.junit.basics.controller;
+
+import com.junit.basics.event.EmployeeChangeFeed;
+import com.junit.basics.model.EmployeeChange;
+import com.junit.basics.service.EmployeeChangeService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/employees")
+public class EmployeeChangeController {
+    private static final String CHANGE_EVENT = "employee-change";
+
+    @Autowired
+    private EmployeeChangeService employeeChangeService;
+
+    @Autowired
+    private EmployeeChangeFeed employeeChangeFeed;
+
+    //polling: the next relayed changes after since, continue from the last seq returned
+    @GetMapping(value = "/changes", produces = MediaType.APPLICATION_JSON_VALUE)
+    public List<EmployeeChange> getChanges(@RequestParam long since,
+                                           @RequestParam(defaultValue = "500") int limit){
+        return employeeChangeService.getChangesAfter(since, limit);
+    }
+
+    //Server-Sent Events, one event per change with the seq as event id. A reconnecting EventSource resumes from
+    //its Last-Event-ID, without since or Last-Event-ID only changes from now on are sent
+    @GetMapping(value = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamChanges(@RequestParam(required = false) Long since,
+                                    @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId){
+        long from = lastEventId != null ? lastEventId
+                : since != null ? since : employeeChangeService.getLatestSeq();
+        SseEmitter emitter = new SseEmitter();
+        EmployeeChangeFeed.Subscription subscription = employeeChangeFeed.subscribe(from, change ->
+                emitter.send(SseEmitter.event().id(String.valueOf(change.getSeq())).name(CHANGE_EVENT)
+                        .data(change, MediaType.APPLICATION_JSON)));
+        emitter.onCompletion(subscription::close);
+        emitter.onTimeout(subscription::close);
+        emitter.onError(e -> subscription.close());
+        return emitter;
+    }
+}
@@ -1,56 +1,167 @@
 package com.junit.basics.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.junit.basics.exceptions.PreconditionFailedException;
 import com.junit.basics.model.Employee;
+import com.junit.basics.model.EmployeeCreateResult;
+import com.junit.basics.model.EmployeeDelta;
+import com.junit.basics.model.EmployeePage;
+import com.junit.basics.model.EmployeeView;
 import com.junit.basics.service.EmployeeService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.Instant;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/employees")
 public class EmployeeController {
+    private static final int STREAM_CHUNK_SIZE = 500;
 
     @Autowired
     private EmployeeService employeeService;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
     @PostMapping("/create")
     @ResponseStatus(HttpStatus.CREATED)
     public Employee createEmployee(@RequestBody Employee employee){
         return employeeService.saveEmployee(employee);
     }
 
+    @PostMapping("/batchCreate")
+    public List<EmployeeCreateResult> createEmployees(@RequestBody List<Employee> employees){
+        return employeeService.saveEmployees(employees);
+    }
+
+    //resolves a list of ids with one query instead of one GET per id
+    @PostMapping("/batchGet")
+    public List<EmployeeView> getEmployeesByIds(@RequestBody List<Integer> ids){
+        return employeeService.getEmployeesByIds(ids);
+    }
+
     @GetMapping("/allEmployees")
-    public List<Employee> getAllEmployee(){
+    public List<EmployeeView> getAllEmployee(){
         return employeeService.getAllEmployee();
     }
 
+    @GetMapping("/page")
+    public EmployeePage getEmployeePage(@RequestParam(required = false) String cursor,
+                                        @RequestParam(defaultValue = "50") int size){
+        return employeeService.getEmployeePage(cursor, size);
+    }
+
+    //incremental sync: since is the watermark of the previous sync, then follow nextCursor until it is null and
+    //keep the returned watermark for next time. Deleted employees come back as tombstones with deleted=true
+    @GetMapping("/delta")
+    public EmployeeDelta getEmployeeDelta(@RequestParam(required = false) Instant since,
+                                          @RequestParam(required = false) String cursor,
+                                          @RequestParam(defaultValue = "500") int size){
+        return employeeService.getEmployeeDelta(since, cursor, size);
+    }
+
+    //writes the whole table as a JSON array, reading and flushing it chunk by chunk so memory stays flat
+    @GetMapping("/allEmployees/stream")
+    public ResponseEntity<StreamingResponseBody> streamAllEmployees(){
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator json = objectMapper.getFactory().createGenerator(out)) {
+                json.writeStartArray();
+                int afterId = 0;
+                List<EmployeeView> chunk;
+                do {
+                    chunk = employeeService.getEmployeesAfter(afterId, STREAM_CHUNK_SIZE);
+                    for (EmployeeView employee : chunk)
+                        json.writeObject(employee);
+                    json.flush();
+                    if(!chunk.isEmpty())
+                        afterId = chunk.get(chunk.size() - 1).getId();
+                } while (chunk.size() == STREAM_CHUNK_SIZE);
+                json.writeEndArray();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    //the version is the ETag, Spring answers a matching If-None-Match with 304 before the body is serialised
     @GetMapping("/{id}")
-    public ResponseEntity<Employee> getEmployeeById(@PathVariable int id){
+    public ResponseEntity<EmployeeView> getEmployeeById(@PathVariable int id){
         return employeeService.getEmployeeById(id)
-                .map(ResponseEntity::ok)
+                .map(employee -> withETag(employee.getVersion()).body(employee))
                 .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
-    @PutMapping("/{id}")
-    public ResponseEntity<Employee> updateEmployee(@PathVariable int id, @RequestBody Employee employee){
-        return employeeService.getEmployeeById(id)
-                .map(savedEmp -> {
-                    savedEmp.setFirstName(employee.getFirstName());
-                    savedEmp.setLastName(employee.getLastName());
-                    savedEmp.setEmail(employee.getEmail());
-                    Employee emp = employeeService.updateEmployee(savedEmp);
-                    return new ResponseEntity<>(emp, HttpStatus.OK);
-                })
+    @GetMapping("/byEmail")
+    public ResponseEntity<EmployeeView> getEmployeeByEmail(@RequestParam String email){
+        return employeeService.getEmployeeByEmail(email)
+                .map(employee -> withETag(employee.getVersion()).body(employee))
                 .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
+    @GetMapping("/byName")
+    public List<EmployeeView> getEmployeesByName(@RequestParam String firstName, @RequestParam String lastName){
+        return employeeService.getEmployeesByName(firstName, lastName);
+    }
+
+    //If-Match (or a version in the body) turns the update into a compare and set, a stale version gets 412.
+    //Only such a conditional update answers with the new version as ETag, an unconditional one stays a single
+    //statement and does not know it. A missing employee has no current representation for If-Match to match,
+    //"*" included, so with the header it is 412 as well (RFC 9110 13.1.1) and 404 only without it
+    @PutMapping("/{id}")
+    public ResponseEntity<Employee> updateEmployee(@PathVariable int id, @RequestBody Employee employee,
+                                                   @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch){
+        employee.setId(id);
+        if(ifMatch != null)
+            employee.setVersion(parseIfMatch(ifMatch));
+        return employeeService.updateEmployee(employee)
+                .map(updated -> withETag(updated.getVersion()).body(updated))
+                .orElseGet(() -> {
+                    if(ifMatch != null)
+                        throw new PreconditionFailedException("If-Match "+ifMatch+" does not match, employee "
+                                +id+" does not exist");
+                    return ResponseEntity.notFound().build();
+                });
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<String> deleteEmployee(@PathVariable int id){
-        employeeService.deleteById(id);
+        if(!employeeService.deleteById(id))
+            return ResponseEntity.notFound().build();
         return ResponseEntity.ok("Employee deleted successfully");
     }
+
+    @PostMapping("/batchDelete")
+    public Map<String, Integer> deleteEmployees(@RequestBody List<Integer> ids){
+        return Map.of("deleted", employeeService.deleteEmployees(ids));
+    }
+
+    private static ResponseEntity.BodyBuilder withETag(Integer version) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        return version == null ? response : response.eTag(String.valueOf(version));
+    }
+
+    //"*" matches any existing employee, so the update stays unconditional. Weak or unknown tags can never
+    //match the strong version ETag
+    private static Integer parseIfMatch(String ifMatch) {
+        String tag = ifMatch.trim();
+        if(tag.equals("*"))
+            return null;
+        if(tag.length() > 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+            try {
+                return Integer.valueOf(tag.substring(1, tag.length() - 1));
+            } catch (NumberFormatException e) {
+                //falls through to the precondition failure
+            }
+        }
+        throw new PreconditionFailedException("If-Match "+ifMatch+" does not match the current version");
+    }
 }
@@ -0,0 +1,41 @@
+package com.junit.basics.controller;
+
+import com.junit.basics.exceptions.BadRequestException;
+import com.junit.basics.model.EmployeeExportFormat;
+import com.junit.basics.service.EmployeeExportService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.Locale;
+
+@RestController
+@RequestMapping("/api/employees")
+public class EmployeeExportController {
+
+    @Autowired
+    private EmployeeExportService employeeExportService;
+
+    //the whole table as a download, written while it is read; with gzip=true the body is sent gzip encoded
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportEmployees(@RequestParam(defaultValue = "csv") String format,
+                                                                 @RequestParam(defaultValue = "false") boolean gzip){
+        EmployeeExportFormat exportFormat;
+        try {
+            exportFormat = EmployeeExportFormat.valueOf(format.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Unknown export format "+format, e);
+        }
+        StreamingResponseBody body = out -> employeeExportService.export(exportFormat, gzip, out);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getMediaType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"employees." + exportFormat.getExtension() + "\"");
+        if(gzip)
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        return response.body(body);
+    }
+}
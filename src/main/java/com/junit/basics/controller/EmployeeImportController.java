@@ -0,0 +1,32 @@
+package com.junit.basics.controller;
+
+import com.junit.basics.model.EmployeeImportReport;
+import com.junit.basics.service.EmployeeImportService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+
+//bulk loads read the raw request stream, the body is parsed as it arrives and never buffered as a whole
+@RestController
+@RequestMapping("/api/employees")
+public class EmployeeImportController {
+    public static final String TEXT_CSV = "text/csv";
+    public static final String APPLICATION_NDJSON = "application/x-ndjson";
+
+    @Autowired
+    private EmployeeImportService employeeImportService;
+
+    @PostMapping(value = "/import", consumes = TEXT_CSV)
+    public EmployeeImportReport importCsv(InputStream body) throws IOException {
+        return employeeImportService.importCsv(new InputStreamReader(body, StandardCharsets.UTF_8));
+    }
+
+    @PostMapping(value = "/import", consumes = APPLICATION_NDJSON)
+    public EmployeeImportReport importNdjson(InputStream body) throws IOException {
+        return employeeImportService.importNdjson(new InputStreamReader(body, StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,25 @@
+package com.junit.basics.controller;
+
+import com.junit.basics.model.EmployeeSearchHit;
+import com.junit.basics.service.EmployeeSearchService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/employees")
+@ConditionalOnProperty(name = "employee.search.enabled", havingValue = "true", matchIfMissing = true)
+public class EmployeeSearchController {
+
+    @Autowired
+    private EmployeeSearchService employeeSearchService;
+
+    //type-ahead search over first name, last name and email, served from memory
+    @GetMapping("/search")
+    public List<EmployeeSearchHit> searchEmployees(@RequestParam String q,
+                                                   @RequestParam(defaultValue = "20") int limit){
+        return employeeSearchService.search(q, limit);
+    }
+}
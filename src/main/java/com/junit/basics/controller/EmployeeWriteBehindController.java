@@ -0,0 +1,36 @@
+package com.junit.basics.controller;
+
+import com.junit.basics.model.Employee;
+import com.junit.basics.model.EmployeeCreateTicket;
+import com.junit.basics.service.EmployeeWriteBehindService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+@RestController
+@RequestMapping("/api/employees")
+@ConditionalOnProperty(name = "employee.write-behind.enabled", havingValue = "true")
+public class EmployeeWriteBehindController {
+
+    @Autowired
+    private EmployeeWriteBehindService writeBehindService;
+
+    //202 with a tracking id, the Location header points at the status endpoint
+    @PostMapping("/createAsync")
+    public ResponseEntity<EmployeeCreateTicket> createEmployeeAsync(@RequestBody Employee employee){
+        EmployeeCreateTicket ticket = writeBehindService.submit(employee);
+        return ResponseEntity.accepted()
+                .location(ServletUriComponentsBuilder.fromCurrentRequest()
+                        .path("/{trackingId}").buildAndExpand(ticket.getTrackingId()).toUri())
+                .body(ticket);
+    }
+
+    @GetMapping("/createAsync/{trackingId}")
+    public ResponseEntity<EmployeeCreateTicket> getCreateStatus(@PathVariable String trackingId){
+        return writeBehindService.getTicket(trackingId)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+}
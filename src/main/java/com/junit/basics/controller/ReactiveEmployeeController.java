@@ -0,0 +1,55 @@
+package com.junit.basics.controller;
+
+import com.junit.basics.model.Employee;
+import com.junit.basics.service.ReactiveEmployeeService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+//same contract as EmployeeController, but handlers return Mono/Flux and never block on the database
+@RestController
+@RequestMapping("/api/reactive/employees")
+public class ReactiveEmployeeController {
+
+    @Autowired
+    private ReactiveEmployeeService reactiveEmployeeService;
+
+    @PostMapping("/create")
+    @ResponseStatus(HttpStatus.CREATED)
+    public Mono<Employee> createEmployee(@RequestBody Employee employee){
+        return reactiveEmployeeService.saveEmployee(employee);
+    }
+
+    //newline delimited JSON is written row by row as it arrives; a JSON array would be collected first
+    @GetMapping(value = "/allEmployees", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<Employee> getAllEmployee(){
+        return reactiveEmployeeService.getAllEmployee();
+    }
+
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<Employee>> getEmployeeById(@PathVariable int id){
+        return reactiveEmployeeService.getEmployeeById(id)
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    @PutMapping("/{id}")
+    public Mono<ResponseEntity<Employee>> updateEmployee(@PathVariable int id, @RequestBody Employee employee){
+        employee.setId(id);
+        return reactiveEmployeeService.updateEmployee(employee)
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    @DeleteMapping("/{id}")
+    public Mono<ResponseEntity<String>> deleteEmployee(@PathVariable int id){
+        return reactiveEmployeeService.deleteById(id)
+                .map(deleted -> deleted
+                        ? ResponseEntity.ok("Employee deleted successfully")
+                        : ResponseEntity.notFound().<String>build());
+    }
+}
@@ -0,0 +1,22 @@
+package com.junit.basics.datasource;
+
+//pins the current thread's reads to the primary, so a client that has just written does not read a replica
+//that has not caught up yet. Set per request by ReadYourWritesFilter
+public final class ReadYourWrites {
+    private static final ThreadLocal<Boolean> PINNED = new ThreadLocal<>();
+
+    private ReadYourWrites() {
+    }
+
+    public static boolean isPinnedToPrimary() {
+        return Boolean.TRUE.equals(PINNED.get());
+    }
+
+    public static void pinToPrimary() {
+        PINNED.set(Boolean.TRUE);
+    }
+
+    public static void unpin() {
+        PINNED.remove();
+    }
+}
@@ -0,0 +1,69 @@
+package com.junit.basics.datasource;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Set;
+
+//read-your-writes stickiness without server side state: a write request hands the client a cookie holding the
+//end of the sticky window, and requests carrying an unexpired cookie read from the primary. The cookie is set
+//before the handler runs because the response may already be committed once it returns
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+    public static final String COOKIE_NAME = "employee-primary-until";
+    private static final Set<String> SAFE_METHODS = Set.of("GET", "HEAD", "OPTIONS");
+
+    private final Duration stickyWindow;
+    private final Clock clock;
+
+    public ReadYourWritesFilter(Duration stickyWindow, Clock clock) {
+        this.stickyWindow = stickyWindow;
+        this.clock = clock;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long now = clock.millis();
+        boolean write = !SAFE_METHODS.contains(request.getMethod());
+        if(write) {
+            Cookie cookie = new Cookie(COOKIE_NAME, Long.toString(now + stickyWindow.toMillis()));
+            cookie.setPath("/");
+            cookie.setHttpOnly(true);
+            cookie.setMaxAge((int) Math.max(1, (stickyWindow.toMillis() + 999) / 1000));
+            response.addCookie(cookie);
+        }
+        if(!write && !isSticky(request, now)) {
+            chain.doFilter(request, response);
+            return;
+        }
+        ReadYourWrites.pinToPrimary();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            ReadYourWrites.unpin();
+        }
+    }
+
+    private static boolean isSticky(HttpServletRequest request, long now) {
+        Cookie[] cookies = request.getCookies();
+        if(cookies == null)
+            return false;
+        for (Cookie cookie : cookies) {
+            if(!COOKIE_NAME.equals(cookie.getName()))
+                continue;
+            try {
+                return Long.parseLong(cookie.getValue()) > now;
+            } catch (NumberFormatException e) {
+                return false;
+            }
+        }
+        return false;
+    }
+}
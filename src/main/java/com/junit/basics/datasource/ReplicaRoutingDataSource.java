@@ -0,0 +1,122 @@
+package com.junit.basics.datasource;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.ConnectException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLNonTransientConnectionException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+//sends read only transactions to the replicas round robin and everything else to the primary. The read only flag
+//is only known once the transaction has started, so this has to sit behind a LazyConnectionDataSourceProxy.
+//A replica that cannot be connected to leaves the rotation until checkReplicas() sees it healthy again,
+//with no healthy replica left reads fall back to the primary
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements Closeable {
+    public static final String PRIMARY = "primary";
+    private static final int VALIDATION_TIMEOUT_SECONDS = 1;
+
+    private final Map<String, DataSource> replicas;
+    private final AtomicInteger next = new AtomicInteger();
+    private volatile List<String> healthyReplicas;
+
+    public ReplicaRoutingDataSource(DataSource primary, Map<String, DataSource> replicas) {
+        this.replicas = new LinkedHashMap<>(replicas);
+        this.healthyReplicas = List.copyOf(replicas.keySet());
+        Map<Object, Object> targets = new HashMap<>(replicas);
+        targets.put(PRIMARY, primary);
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if(!TransactionSynchronizationManager.isCurrentTransactionReadOnly() || ReadYourWrites.isPinnedToPrimary())
+            return PRIMARY;
+        List<String> healthy = healthyReplicas;
+        if(healthy.isEmpty())
+            return PRIMARY;
+        return healthy.get(Math.floorMod(next.getAndIncrement(), healthy.size()));
+    }
+
+    //a read whose replica refuses the connection is retried on the next healthy one, and finally on the primary.
+    //Any other failure is thrown as it is, a replica pool that ran out of connections included
+    @Override
+    public Connection getConnection() throws SQLException {
+        while (true) {
+            String key = (String) determineCurrentLookupKey();
+            try {
+                return getResolvedDataSources().get(key).getConnection();
+            } catch (SQLException e) {
+                if(PRIMARY.equals(key) || !isConnectionFailure(e))
+                    throw e;
+                markDown(key, e);
+            }
+        }
+    }
+
+    public List<String> getHealthyReplicas() {
+        return healthyReplicas;
+    }
+
+    //validates every replica, bringing recovered ones back into the rotation
+    public synchronized void checkReplicas() {
+        List<String> healthy = new ArrayList<>(replicas.size());
+        for (Map.Entry<String, DataSource> replica : replicas.entrySet()) {
+            try (Connection connection = replica.getValue().getConnection()) {
+                if(connection.isValid(VALIDATION_TIMEOUT_SECONDS))
+                    healthy.add(replica.getKey());
+                else
+                    log.warn("Replica {} failed validation", replica.getKey());
+            } catch (SQLException e) {
+                log.warn("Replica {} is unreachable: {}", replica.getKey(), e.getMessage());
+            }
+        }
+        if(!healthy.equals(healthyReplicas))
+            log.info("Healthy replicas changed from {} to {}", healthyReplicas, healthy);
+        healthyReplicas = List.copyOf(healthy);
+    }
+
+    //the replica could not be reached: SQLState class 08 or the driver's connection exception, possibly as the cause
+    //of the pool's timeout. Hikari timing out because all of its own connections are in use throws a
+    //SQLTransientConnectionException without a cause, that says nothing about the replica
+    static boolean isConnectionFailure(SQLException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if(cause instanceof SQLNonTransientConnectionException || cause instanceof ConnectException)
+                return true;
+            if(cause instanceof SQLException sql && sql.getSQLState() != null && sql.getSQLState().startsWith("08"))
+                return true;
+        }
+        return false;
+    }
+
+    private synchronized void markDown(String key, SQLException e) {
+        List<String> healthy = new ArrayList<>(healthyReplicas);
+        if(healthy.remove(key)) {
+            log.warn("Taking replica {} out of rotation: {}", key, e.getMessage());
+            healthyReplicas = List.copyOf(healthy);
+        }
+    }
+
+    //the primary is a bean of its own and closed by the context, the replica pools are owned here
+    @Override
+    public void close() throws IOException {
+        for (DataSource replica : replicas.values()) {
+            if(replica instanceof Closeable closeable)
+                closeable.close();
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package com.junit.basics.event;
+
+import com.junit.basics.model.EmployeeChange;
+import com.junit.basics.service.EmployeeChangeService;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+//fans relayed outbox rows out to the subscribers of this instance, GET /changes streams and in-process consumers.
+//Every subscriber receives each seq exactly once and in order. The feed keeps the latest window-size changes in
+//memory: the relay's own batches are appended as they are published, batches relayed by another instance are read
+//from the outbox once, by the relay thread, and every subscriber is served from that same list. Only a subscriber
+//that is behind the window, because it subscribed with an older seq or could not keep up, reads the outbox itself,
+//page by page until it reaches the window. A sink that throws, or takes longer than send-timeout for one change, is
+//unsubscribed. Deliveries run on their own virtual threads so a slow client never holds up the relay. They take a
+//ReentrantLock rather than a monitor: a virtual thread blocked on JDBC or a socket write inside synchronized would
+//pin its carrier thread
+@Component
+public class EmployeeChangeFeed {
+    private static final int CATCH_UP_PAGE_SIZE = 500;
+
+    @FunctionalInterface
+    public interface Sink {
+        void accept(EmployeeChange change) throws Exception;
+    }
+
+    private EmployeeChangeService employeeChangeService;
+    private Duration sendTimeout;
+    private int windowSize;
+    private final Set<Subscription> subscriptions = ConcurrentHashMap.newKeySet();
+    private final ExecutorService deliveries = Executors.newVirtualThreadPerTaskExecutor();
+    //consecutive seqs, replaced rather than modified so deliveries can read it without the lock
+    private volatile List<EmployeeChange> window = List.of();
+    private final ReentrantLock windowLock = new ReentrantLock();
+
+    @Autowired
+    public EmployeeChangeFeed(EmployeeChangeService employeeChangeService,
+                              @Value("${employee.changes.send-timeout:PT10S}") Duration sendTimeout,
+                              @Value("${employee.changes.window-size:10000}") int windowSize) {
+        this.employeeChangeService = employeeChangeService;
+        this.sendTimeout = sendTimeout;
+        this.windowSize = windowSize;
+    }
+
+    //changes after seq are replayed from the outbox first, then the live ones follow
+    public Subscription subscribe(long seq, Sink sink) {
+        Subscription subscription = new Subscription(seq, sink);
+        subscriptions.add(subscription);
+        deliveries.execute(subscription::deliver);
+        return subscription;
+    }
+
+    //called by the relay after the batch has committed
+    public void publish(List<EmployeeChange> changes) {
+        windowLock.lock();
+        try {
+            //whatever another instance relayed since the last batch comes first
+            if(!window.isEmpty())
+                readUpTo(changes.get(0).getSeq() - 1);
+            append(changes);
+        } finally {
+            windowLock.unlock();
+        }
+        notifySubscribers();
+    }
+
+    //the latest seq in the outbox, catches subscribers up on batches relayed elsewhere
+    public void catchUp(long latestSeq) {
+        windowLock.lock();
+        try {
+            readUpTo(latestSeq);
+        } finally {
+            windowLock.unlock();
+        }
+        notifySubscribers();
+    }
+
+    @PreDestroy
+    public void stop() {
+        deliveries.shutdownNow();
+    }
+
+    public int getSubscriberCount() {
+        return subscriptions.size();
+    }
+
+    private void notifySubscribers() {
+        long windowEnd = end(window);
+        for (Subscription subscription : subscriptions)
+            if(subscription.lastSeq < windowEnd)
+                deliveries.execute(subscription::deliver);
+    }
+
+    //an empty window starts at the latest window-size changes; the read may come from a lagging replica and stop
+    //short, the rest is read on the next call
+    private void readUpTo(long seq) {
+        long from = window.isEmpty() ? Math.max(0, seq - windowSize) : end(window);
+        while (from < seq) {
+            List<EmployeeChange> missed = employeeChangeService.getChangesAfter(from,
+                    (int) Math.min(seq - from, CATCH_UP_PAGE_SIZE));
+            append(missed);
+            if(missed.isEmpty() || end(window) == from)
+                break;
+            from = end(window);
+        }
+    }
+
+    //a batch that does not follow on from the window, because the read before it stopped short, starts it over;
+    //subscribers left behind read the outbox until they reach it
+    private void append(List<EmployeeChange> changes) {
+        if(changes.isEmpty())
+            return;
+        List<EmployeeChange> next = new ArrayList<>(window.size() + changes.size());
+        long first = changes.get(0).getSeq();
+        if(!window.isEmpty() && first >= window.get(0).getSeq() && first <= end(window) + 1)
+            next.addAll(window);
+        for (EmployeeChange change : changes)
+            if(next.isEmpty() || change.getSeq() > end(next))
+                next.add(change);
+        window = List.copyOf(next.subList(Math.max(0, next.size() - windowSize), next.size()));
+    }
+
+    private static long end(List<EmployeeChange> changes) {
+        return changes.isEmpty() ? 0 : changes.get(changes.size() - 1).getSeq();
+    }
+
+    public class Subscription implements AutoCloseable {
+        private volatile long lastSeq;
+        private final Sink sink;
+        private final ReentrantLock lock = new ReentrantLock();
+        private volatile boolean closed;
+
+        private Subscription(long lastSeq, Sink sink) {
+            this.lastSeq = lastSeq;
+            this.sink = sink;
+        }
+
+        private void deliver() {
+            lock.lock();
+            try {
+                if(closed)
+                    return;
+                List<EmployeeChange> changes = window;
+                long windowStart = changes.isEmpty() ? Long.MAX_VALUE : changes.get(0).getSeq();
+                while (lastSeq + 1 < windowStart) {
+                    List<EmployeeChange> missed = employeeChangeService.getChangesAfter(lastSeq, CATCH_UP_PAGE_SIZE);
+                    send(missed);
+                    if(missed.size() < CATCH_UP_PAGE_SIZE)
+                        break;
+                }
+                //the outbox read may come from a lagging replica, the window waits for the next delivery then
+                if(lastSeq + 1 >= windowStart)
+                    send(changes.subList((int) Math.min(lastSeq + 1 - windowStart, changes.size()), changes.size()));
+            } catch (Exception e) {
+                close();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void send(List<EmployeeChange> changes) throws Exception {
+            for (EmployeeChange change : changes) {
+                if(change.getSeq() <= lastSeq)
+                    continue;
+                accept(change);
+                lastSeq = change.getSeq();
+            }
+        }
+
+        //the write runs on a thread of its own so a client that stopped reading cannot hold the delivery forever;
+        //interrupting it is best effort, the subscription is closed either way
+        private void accept(EmployeeChange change) throws Exception {
+            Future<?> write = deliveries.submit(() -> {
+                sink.accept(change);
+                return null;
+            });
+            try {
+                write.get(sendTimeout.toNanos(), TimeUnit.NANOSECONDS);
+            } catch (ExecutionException e) {
+                throw e.getCause() instanceof Exception cause ? cause : e;
+            } finally {
+                write.cancel(true);
+            }
+        }
+
+        public long getLastSeq() {
+            return lastSeq;
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+            subscriptions.remove(this);
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.junit.basics.event;
+
+import com.junit.basics.model.EmployeeView;
+import lombok.*;
+
+import java.util.Collection;
+import java.util.List;
+
+//published by the employee services after every write, listeners that keep derived state (the search index)
+//consume it once the write has committed
+@Getter @AllArgsConstructor
+public class EmployeeChangedEvent {
+    //created or updated employees with their current values
+    private List<EmployeeView> upserted;
+
+    private Collection<Integer> deletedIds;
+
+    public static EmployeeChangedEvent upserted(List<EmployeeView> employees) {
+        return new EmployeeChangedEvent(employees, List.of());
+    }
+
+    public static EmployeeChangedEvent deleted(Collection<Integer> ids) {
+        return new EmployeeChangedEvent(List.of(), ids);
+    }
+}
@@ -0,0 +1,55 @@
+package com.junit.basics.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+
+//times every EmployeeService call as employee.service, tagged by operation and outcome, with a percentile
+//histogram so latency quantiles can be aggregated across instances. The timer count doubles as the call counter
+//per outcome. Repository calls are timed by Spring Boot as spring.data.repository.invocations
+@Aspect
+@Component
+public class EmployeeServiceMetricsAspect {
+    public static final String TIMER = "employee.service";
+
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    public EmployeeServiceMetricsAspect(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Around("execution(* com.junit.basics.service.EmployeeService.*(..))")
+    public Object time(ProceedingJoinPoint joinPoint) throws Throwable {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
+        String exception = "none";
+        try {
+            Object result = joinPoint.proceed();
+            outcome = isMiss(result) ? "not_found" : "success";
+            return result;
+        } catch (Throwable e) {
+            exception = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            sample.stop(Timer.builder(TIMER)
+                    .tag("operation", joinPoint.getSignature().getName())
+                    .tag("outcome", outcome)
+                    .tag("exception", exception)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+        }
+    }
+
+    //lookups and deletes report a missing employee through an empty Optional or false
+    private static boolean isMiss(Object result) {
+        return result instanceof Optional<?> optional && optional.isEmpty()
+                || Boolean.FALSE.equals(result);
+    }
+}
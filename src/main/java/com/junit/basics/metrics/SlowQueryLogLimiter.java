@@ -0,0 +1,65 @@
+package com.junit.basics.metrics;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import com.junit.basics.admission.TokenBucket;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.LoggerFactory;
+import org.slf4j.Marker;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+//hibernate.log_slow_query logs every statement over the threshold, which under load can be most of them. This lets
+//through at most rate lines per second from org.hibernate.SQL_SLOW, with bursts up to burst lines, and counts the
+//dropped ones as hibernate.slow_query.suppressed so the slow statements still show up in the metrics
+@Component
+public class SlowQueryLogLimiter extends TurboFilter {
+    public static final String LOGGER = "org.hibernate.SQL_SLOW";
+    public static final String SUPPRESSED = "hibernate.slow_query.suppressed";
+
+    private final TokenBucket bucket;
+    private final Counter suppressed;
+
+    @Autowired
+    public SlowQueryLogLimiter(MeterRegistry meterRegistry,
+                               @Value("${employee.slow-query-log.rate:1}") double rate,
+                               @Value("${employee.slow-query-log.burst:20}") int burst) {
+        this.bucket = new TokenBucket(rate, burst, System.nanoTime());
+        this.suppressed = meterRegistry.counter(SUPPRESSED);
+    }
+
+    //only with Logback, Boot's default; any other backend logs every slow statement
+    @PostConstruct
+    public void register() {
+        if(LoggerFactory.getILoggerFactory() instanceof LoggerContext context) {
+            setContext(context);
+            start();
+            context.addTurboFilter(this);
+        }
+    }
+
+    @PreDestroy
+    public void unregister() {
+        if(LoggerFactory.getILoggerFactory() instanceof LoggerContext context)
+            context.getTurboFilterList().remove(this);
+        stop();
+    }
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        //the level checks made before logging come without a message and must not take a token
+        if(format == null || !LOGGER.equals(logger.getName()))
+            return FilterReply.NEUTRAL;
+        if(bucket.tryAcquire(System.nanoTime()) == 0)
+            return FilterReply.NEUTRAL;
+        suppressed.increment();
+        return FilterReply.DENY;
+    }
+}
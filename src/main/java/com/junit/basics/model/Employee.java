@@ -1,14 +1,41 @@
 package com.junit.basics.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.Where;
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+
+import java.time.Instant;
 
 @Getter @Setter @AllArgsConstructor @NoArgsConstructor @Builder
 @Entity
-@Table(name="employees")
+@EntityListeners(AuditingEntityListener.class)
+//merges of managed entities only write the columns that actually changed
+@DynamicUpdate
+//soft deleted rows are invisible to every entity load and JPQL query until the purge job removes them,
+//native queries have to repeat the condition themselves
+@Where(clause = "deleted = false")
+@Table(name="employees",
+        uniqueConstraints = @UniqueConstraint(name = "uk_employees_email", columnNames = "email"),
+        indexes = {
+                @Index(name = "idx_employees_name", columnList = "first_name, last_name"),
+                @Index(name = "idx_employees_deleted", columnList = "deleted"),
+                @Index(name = "idx_employees_created_at", columnList = "created_at"),
+                @Index(name = "idx_employees_updated_at", columnList = "updated_at, id")})
 public class Employee {
+    //pooled table generator instead of IDENTITY so Hibernate can batch inserts,
+    //ids are reserved 50 at a time
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "employee_ids")
+    @TableGenerator(name = "employee_ids", table = "employee_ids", pkColumnValue = "employees",
+            allocationSize = 50)
 //    @Column(name = "id")
     private int id;
 
@@ -20,4 +47,35 @@ public class Employee {
 
     @Column(name = "email")
     private String email;
+
+    //set instead of removing the row when employee.delete.soft=true
+    @JsonIgnore
+    @ColumnDefault("false")
+    @Column(name = "deleted", nullable = false)
+    private boolean deleted;
+
+    //optimistic lock, bumped by every update. Exposed as the ETag of GET/PUT /api/employees/{id},
+    //a PUT carrying an older version is rejected instead of overwriting the newer row
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    @Version
+    @ColumnDefault("0")
+    @Column(name = "version", nullable = false)
+    private Integer version;
+
+    //set by JPA auditing on persist and merge. The bulk updates in EmployeeRepository bypass the entity listener
+    //and set updatedAt themselves; rows older than the columns get the time they were added. Left out of the
+    //PUT response, which does not read the row back
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @CreatedDate
+    @ColumnDefault("current_timestamp(6)")
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private Instant createdAt;
+
+    //watermark of GET /api/employees/delta
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @LastModifiedDate
+    @ColumnDefault("current_timestamp(6)")
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
 }
@@ -0,0 +1,74 @@
+package com.junit.basics.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.junit.basics.event.EmployeeChangedEvent;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+//outbox row written in the same transaction as the employee change it describes. seq stays null until
+//EmployeeChangeRelayJob publishes the row, consumers of GET /changes only ever see relayed rows in seq order
+@Getter @Setter @AllArgsConstructor @NoArgsConstructor @Builder
+@Entity
+@Table(name="employee_changes",
+        uniqueConstraints = @UniqueConstraint(name = "uk_employee_changes_seq", columnNames = "seq"),
+        indexes = {
+                @Index(name = "idx_employee_changes_relay", columnList = "seq, changed_at"),
+                @Index(name = "idx_employee_changes_changed_at", columnList = "changed_at")})
+public class EmployeeChange {
+    public enum Type { UPSERT, DELETE }
+
+    //no order at all: JPA takes ids in blocks of 50 from the pooled generator, the reactive service one at a time
+    @JsonIgnore
+    @Id
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "employee_change_ids")
+    @TableGenerator(name = "employee_change_ids", table = "employee_ids", pkColumnValue = "employee_changes",
+            allocationSize = 50)
+    private long id;
+
+    //gap free and in commit order, handed out by the relay
+    @Column(name = "seq")
+    private Long seq;
+
+    @Column(name = "employee_id", nullable = false)
+    private int employeeId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "type", nullable = false, length = 10)
+    private Type type;
+
+    //current values for upserts, null for deletes
+    @Column(name = "first_name")
+    private String firstName;
+
+    @Column(name = "last_name")
+    private String lastName;
+
+    @Column(name = "email")
+    private String email;
+
+    @Column(name = "version")
+    private Integer version;
+
+    //taken after the employee row was written, so while a writer holds the row lock. Two changes to one employee
+    //are therefore stamped in commit order, and the relay numbers rows in this order
+    @Column(name = "changed_at", nullable = false)
+    private Instant changedAt;
+
+    public static List<EmployeeChange> from(EmployeeChangedEvent event) {
+        Instant now = Instant.now();
+        List<EmployeeChange> changes = new ArrayList<>(event.getUpserted().size() + event.getDeletedIds().size());
+        for (EmployeeView employee : event.getUpserted())
+            changes.add(EmployeeChange.builder()
+                    .employeeId(employee.getId()).type(Type.UPSERT)
+                    .firstName(employee.getFirstName()).lastName(employee.getLastName())
+                    .email(employee.getEmail()).version(employee.getVersion())
+                    .changedAt(now).build());
+        for (Integer id : event.getDeletedIds())
+            changes.add(EmployeeChange.builder().employeeId(id).type(Type.DELETE).changedAt(now).build());
+        return changes;
+    }
+}
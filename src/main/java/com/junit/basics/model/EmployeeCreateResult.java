@@ -0,0 +1,18 @@
+package com.junit.basics.model;
+
+import lombok.*;
+
+@Getter @Setter @AllArgsConstructor @NoArgsConstructor @Builder
+public class EmployeeCreateResult {
+    //FAILED only comes from the row by row retry of a batch, when the row was rejected for another reason
+    public enum Status { CREATED, DUPLICATE_EMAIL, FAILED }
+
+    //position of the row in the submitted batch
+    private int index;
+
+    private Status status;
+
+    private Employee employee;
+
+    private String message;
+}
@@ -0,0 +1,18 @@
+package com.junit.basics.model;
+
+import lombok.*;
+
+@Getter @Setter @AllArgsConstructor @NoArgsConstructor @Builder
+public class EmployeeCreateTicket {
+    public enum Status { PENDING, CREATED, DUPLICATE_EMAIL, FAILED }
+
+    //returned by POST /createAsync, used to poll the outcome of the write
+    private String trackingId;
+
+    private Status status;
+
+    //carries the generated id once the status is CREATED
+    private Employee employee;
+
+    private String message;
+}
@@ -0,0 +1,18 @@
+package com.junit.basics.model;
+
+import lombok.*;
+
+import java.time.Instant;
+import java.util.List;
+
+@Getter @Setter @AllArgsConstructor @NoArgsConstructor @Builder
+public class EmployeeDelta {
+    //ordered by updatedAt, then id
+    private List<EmployeeDeltaEntry> changes;
+
+    //opaque cursor for the next page, null when this is the last page
+    private String nextCursor;
+
+    //since of the next sync, once every page has been read
+    private Instant watermark;
+}
@@ -0,0 +1,27 @@
+package com.junit.basics.model;
+
+import lombok.*;
+
+import java.time.Instant;
+
+//one row of GET /api/employees/delta: the current values of a changed employee, or only the id for a deleted one
+@Value @Builder @AllArgsConstructor
+public class EmployeeDeltaEntry {
+    int id;
+
+    String firstName;
+
+    String lastName;
+
+    String email;
+
+    Integer version;
+
+    Instant updatedAt;
+
+    boolean deleted;
+
+    public static EmployeeDeltaEntry tombstone(EmployeeChange change) {
+        return new EmployeeDeltaEntry(change.getEmployeeId(), null, null, null, null, change.getChangedAt(), true);
+    }
+}
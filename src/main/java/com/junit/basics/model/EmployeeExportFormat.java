@@ -0,0 +1,19 @@
+package com.junit.basics.model;
+
+import lombok.Getter;
+
+@Getter
+public enum EmployeeExportFormat {
+    CSV("text/csv", "csv"),
+    NDJSON("application/x-ndjson", "ndjson"),
+    //row groups of column blocks, see EmployeeColumnarWriter
+    COLUMNAR("application/octet-stream", "empc");
+
+    private final String mediaType;
+    private final String extension;
+
+    EmployeeExportFormat(String mediaType, String extension) {
+        this.mediaType = mediaType;
+        this.extension = extension;
+    }
+}
@@ -0,0 +1,33 @@
+package com.junit.basics.model;
+
+import lombok.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter @Setter @AllArgsConstructor @NoArgsConstructor @Builder
+public class EmployeeImportReport {
+    //data rows read, not counting a CSV header or blank lines
+    private int rows;
+
+    private int created;
+
+    private int duplicates;
+
+    private int failed;
+
+    //committed chunks, each one its own transaction
+    private int chunks;
+
+    //per row problems in line order, only the first ones are kept on very dirty files
+    @Builder.Default
+    private List<EmployeeImportError> errors = new ArrayList<>();
+
+    @Getter @Setter @AllArgsConstructor @NoArgsConstructor
+    public static class EmployeeImportError {
+        //1-based line number in the uploaded file
+        private long line;
+
+        private String message;
+    }
+}
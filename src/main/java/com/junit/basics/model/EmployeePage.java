@@ -0,0 +1,13 @@
+package com.junit.basics.model;
+
+import lombok.*;
+
+import java.util.List;
+
+@Getter @Setter @AllArgsConstructor @NoArgsConstructor @Builder
+public class EmployeePage {
+    private List<EmployeeView> employees;
+
+    //opaque cursor for the next page, null when this is the last page
+    private String nextCursor;
+}
@@ -0,0 +1,11 @@
+package com.junit.basics.model;
+
+import lombok.*;
+
+@Getter @Setter @AllArgsConstructor @NoArgsConstructor @Builder
+public class EmployeeSearchHit {
+    private EmployeeView employee;
+
+    //higher is better, only meaningful relative to other hits of the same query
+    private double score;
+}
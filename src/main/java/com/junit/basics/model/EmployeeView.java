@@ -0,0 +1,23 @@
+package com.junit.basics.model;
+
+import lombok.*;
+
+//read model for GET endpoints, built straight from query results by a JPQL constructor expression,
+//so Hibernate never creates a managed entity or a dirty checking snapshot for it
+@Value @Builder @AllArgsConstructor
+public class EmployeeView {
+    int id;
+
+    String firstName;
+
+    String lastName;
+
+    String email;
+
+    Integer version;
+
+    public static EmployeeView from(Employee employee) {
+        return new EmployeeView(employee.getId(), employee.getFirstName(), employee.getLastName(), employee.getEmail(),
+                employee.getVersion());
+    }
+}
@@ -0,0 +1,47 @@
+package com.junit.basics.repository;
+
+import com.junit.basics.model.EmployeeChange;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+public interface EmployeeChangeRepository extends JpaRepository<EmployeeChange, Long> {
+
+    //locks the oldest rows not relayed yet, a relay on another instance waits here instead of numbering them twice
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select c from EmployeeChange c where c.seq is null order by c.changedAt, c.id")
+    List<EmployeeChange> findUnrelayed(Pageable pageable);
+
+    @Query("select coalesce(max(c.seq), 0) from EmployeeChange c")
+    long findLatestSeq();
+
+    @Query("select c from EmployeeChange c where c.seq > :seq order by c.seq")
+    List<EmployeeChange> findRelayedAfter(@Param("seq") long seq, Pageable pageable);
+
+    //tombstones for delta sync, same keyset as EmployeeRepository.findChangedAfter
+    @Query("select c from EmployeeChange c where c.type = DELETE"
+            + " and c.changedAt <= :upTo and (c.changedAt > :since or (c.changedAt = :since and c.employeeId > :afterId))"
+            + " order by c.changedAt, c.employeeId")
+    List<EmployeeChange> findDeletedAfter(@Param("since") Instant since, @Param("afterId") int afterId,
+                                          @Param("upTo") Instant upTo, Pageable pageable);
+
+    //the row holding the highest seq always stays, the relay numbers on from it. Without it an outbox idle for a
+    //whole retention period would start again at 1 and consumers resuming from a later seq would miss everything
+    @Query("select c.id from EmployeeChange c where c.seq is not null and c.changedAt < :before"
+            + " and c.seq < (select max(l.seq) from EmployeeChange l) order by c.id")
+    List<Long> findRelayedIdsBefore(@Param("before") Instant before, Pageable pageable);
+
+    @Transactional
+    @Modifying
+    @Query("delete from EmployeeChange c where c.id in :ids")
+    int deleteAllByIdIn(@Param("ids") Collection<Long> ids);
+}
@@ -1,15 +1,54 @@
 package com.junit.basics.repository;
 
 import com.junit.basics.model.Employee;
+import com.junit.basics.model.EmployeeDeltaEntry;
+import com.junit.basics.model.EmployeeView;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
-public interface EmployeeRepository extends JpaRepository<Employee, Integer> {
+public interface EmployeeRepository extends JpaRepository<Employee, Integer>, EmployeeRepositoryCustom {
+    //constructor expression for the read only EmployeeView projection
+    String VIEW = "new com.junit.basics.model.EmployeeView(e.id, e.firstName, e.lastName, e.email, e.version)";
+    String DELTA = "new com.junit.basics.model.EmployeeDeltaEntry(e.id, e.firstName, e.lastName, e.email, e.version,"
+            + " e.updatedAt, false)";
+
     public Optional<Employee> findByEmail(String email);
 
+    @Query("select " + VIEW + " from Employee e")
+    List<EmployeeView> findAllViews();
+
+    //declared queries get no transaction from Spring Data, unlike the inherited finders. The read only one routes
+    //them to a replica when they are called outside the service's transactions, as the single flight lookups are
+    @Transactional(readOnly = true)
+    @Query("select " + VIEW + " from Employee e where e.id = :id")
+    Optional<EmployeeView> findViewById(@Param("id") int id);
+
+    //one IN query for a whole list of ids, behind POST /batchGet and EmployeeLookupBatcher. The batcher calls it from
+    //its own thread, outside any transaction
+    @Transactional(readOnly = true)
+    @Query("select " + VIEW + " from Employee e where e.id in :ids")
+    List<EmployeeView> findViewsByIdIn(@Param("ids") Collection<Integer> ids);
+
+    @Transactional(readOnly = true)
+    @Query("select " + VIEW + " from Employee e where e.email = :email")
+    Optional<EmployeeView> findViewByEmail(@Param("email") String email);
+
+    //set based uniqueness check for a whole batch of emails in one round trip. Native so it also sees soft deleted
+    //rows, which keep their email under uk_employees_email until they are purged
+    @Query(value = "select email from employees where email in (:emails)", nativeQuery = true)
+    List<String> findExistingEmails(@Param("emails") Collection<String> emails);
+
     //defined custom query using JPQL with Index params
     @Query("select e from Employee e where e.firstName=?1 and e.lastName=?2")
     Employee findByJPQL(String firstName, String lastName);
@@ -18,13 +57,81 @@ public interface EmployeeRepository extends JpaRepository<Employee, Integer> {
     @Query("select e from Employee e where e.firstName=:firstName and e.lastName=:lastName")
     Employee findByJPQLNamedParams(@Param("firstName") String firstName, @Param("lastName") String lastName);
 
+    //same lookup as findByJPQLNamedParams, returning every match since names are not unique
+    @Transactional(readOnly = true)
+    @Query("select " + VIEW + " from Employee e where e.firstName=:firstName and e.lastName=:lastName")
+    List<EmployeeView> findAllByJPQLNamedParams(@Param("firstName") String firstName, @Param("lastName") String lastName);
+
     //defined custom query using Native SQL with index params
 	//in nativeQuery, we directly use the database table name and column not the Java entity
-    @Query(value = "select * from employees e where e.first_name= ?1 and e.last_name= ?2", nativeQuery = true)
+    @Query(value = "select * from employees e where e.first_name= ?1 and e.last_name= ?2 and e.deleted = false",
+            nativeQuery = true)
     Employee findByNativeSQL(String firstName, String lastName);
 
     //defined custom query using Native SQL with named params
-    @Query(value="select * from employees e where e.first_name=:firstName and e.last_name=:lastName",
-            nativeQuery = true)
+    @Query(value="select * from employees e where e.first_name=:firstName and e.last_name=:lastName"
+            + " and e.deleted = false", nativeQuery = true)
     Employee findByNativeSqlNamed(String firstName, String lastName);
+
+    //updates in one statement without loading the entity first, returns the number of rows matched
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Employee e set e.firstName = :firstName, e.lastName = :lastName, e.email = :email,"
+            + " e.version = e.version + 1, e.updatedAt = :updatedAt where e.id = :id and e.deleted = false")
+    int updateById(@Param("id") int id, @Param("firstName") String firstName,
+                   @Param("lastName") String lastName, @Param("email") String email,
+                   @Param("updatedAt") Instant updatedAt);
+
+    //compare and set on the version column: matches no row when someone else updated the employee first,
+    //so concurrent writers are detected without holding a lock between the read and the write
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Employee e set e.firstName = :firstName, e.lastName = :lastName, e.email = :email,"
+            + " e.version = e.version + 1, e.updatedAt = :updatedAt"
+            + " where e.id = :id and e.version = :version and e.deleted = false")
+    int updateByIdAndVersion(@Param("id") int id, @Param("firstName") String firstName,
+                             @Param("lastName") String lastName, @Param("email") String email,
+                             @Param("version") int version, @Param("updatedAt") Instant updatedAt);
+
+    @Query("select e.version from Employee e where e.id = :id")
+    Optional<Integer> findVersionById(@Param("id") int id);
+
+    //keyset pagination: seeks past the last seen id on the primary key index instead of using an OFFSET
+    @Query("select " + VIEW + " from Employee e where e.id > :afterId order by e.id")
+    List<EmployeeView> findNextPage(@Param("afterId") int afterId, Pageable pageable);
+
+    //delta sync, rows changed after the (updatedAt, id) position up to a settled upper bound, on idx_employees_updated_at
+    @Query("select " + DELTA + " from Employee e where e.updatedAt <= :upTo"
+            + " and (e.updatedAt > :since or (e.updatedAt = :since and e.id > :afterId)) order by e.updatedAt, e.id")
+    List<EmployeeDeltaEntry> findChangedAfter(@Param("since") Instant since, @Param("afterId") int afterId,
+                                              @Param("upTo") Instant upTo, Pageable pageable);
+
+    //the requested ids that are there to delete, row locked until the delete commits so that exactly these rows are
+    //removed and reported as deleted, and a concurrent delete of the same ids finds none of them. Only needed for a
+    //batch the delete statement alone matched part of
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select e.id from Employee e where e.id in :ids")
+    List<Integer> lockExistingIds(@Param("ids") Collection<Integer> ids);
+
+    //set based deletes, one statement for the whole list of ids, returning the number of rows removed
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from Employee e where e.id in :ids")
+    int deleteAllByIdIn(@Param("ids") Collection<Integer> ids);
+
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    //a soft delete is a change like any update: GET /delta and If-Match see it through updatedAt and version
+    @Query("update Employee e set e.deleted = true, e.updatedAt = :updatedAt, e.version = e.version + 1"
+            + " where e.id in :ids and e.deleted = false")
+    int softDeleteAllByIdIn(@Param("ids") Collection<Integer> ids, @Param("updatedAt") Instant updatedAt);
+
+    //the purge works on soft deleted rows, which the entity level filter hides, so both statements are native
+    @Query(value = "select id from employees where deleted = true order by id limit :limit", nativeQuery = true)
+    List<Integer> findSoftDeletedIds(@Param("limit") int limit);
+
+    @Transactional
+    @Modifying
+    @Query(value = "delete from employees where id in (:ids) and deleted = true", nativeQuery = true)
+    int purgeByIdIn(@Param("ids") Collection<Integer> ids);
 }
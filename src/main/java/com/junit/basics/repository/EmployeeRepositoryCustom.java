@@ -0,0 +1,12 @@
+package com.junit.basics.repository;
+
+import com.junit.basics.model.EmployeeView;
+
+import java.util.stream.Stream;
+
+//queries that need more control over the JDBC statement than @Query offers, implemented in EmployeeRepositoryCustomImpl
+public interface EmployeeRepositoryCustom {
+    //every employee ordered by id, read through a forward only cursor. Needs a surrounding transaction and the
+    //stream must be closed, it holds the connection until then
+    Stream<EmployeeView> streamAllViews();
+}
@@ -0,0 +1,30 @@
+package com.junit.basics.repository;
+
+import com.junit.basics.model.EmployeeView;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.beans.factory.annotation.Value;
+
+import java.util.stream.Stream;
+
+public class EmployeeRepositoryCustomImpl implements EmployeeRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    //Connector/J only streams rows one by one for Integer.MIN_VALUE and buffers the whole result for anything
+    //else, other drivers reject negative sizes, so the value is configuration rather than a @QueryHint constant
+    @Value("${employee.export.fetch-size:1000}")
+    private int fetchSize;
+
+    @Override
+    public Stream<EmployeeView> streamAllViews() {
+        //a DTO projection, so nothing read here is added to the persistence context
+        return entityManager.createQuery("select " + EmployeeRepository.VIEW + " from Employee e order by e.id",
+                        EmployeeView.class)
+                .setHint(AvailableHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(AvailableHints.HINT_READ_ONLY, true)
+                .getResultStream();
+    }
+}
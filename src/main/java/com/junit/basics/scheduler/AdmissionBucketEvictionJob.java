@@ -0,0 +1,25 @@
+package com.junit.basics.scheduler;
+
+import com.junit.basics.admission.AdmissionFilter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+//drops the token buckets of clients that went quiet, so the rate limiter does not keep one per address ever seen
+@Component
+@ConditionalOnProperty(name = "employee.admission.enabled", havingValue = "true", matchIfMissing = true)
+public class AdmissionBucketEvictionJob {
+
+    private AdmissionFilter admissionFilter;
+
+    @Autowired
+    public AdmissionBucketEvictionJob(AdmissionFilter admissionFilter) {
+        this.admissionFilter = admissionFilter;
+    }
+
+    @Scheduled(fixedDelayString = "${employee.admission.eviction-interval:PT1M}")
+    public void evictFullBuckets() {
+        admissionFilter.evictFullBuckets();
+    }
+}
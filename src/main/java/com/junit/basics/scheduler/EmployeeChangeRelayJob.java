@@ -0,0 +1,56 @@
+package com.junit.basics.scheduler;
+
+import com.junit.basics.event.EmployeeChangeFeed;
+import com.junit.basics.model.EmployeeChange;
+import com.junit.basics.service.EmployeeChangeService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+//moves committed outbox rows to the change feed batch by batch, and drops relayed rows past the retention
+@Component
+public class EmployeeChangeRelayJob {
+
+    private EmployeeChangeService employeeChangeService;
+    private EmployeeChangeFeed employeeChangeFeed;
+
+    @Value("${employee.changes.relay-batch-size:1000}")
+    private int batchSize;
+
+    @Value("${employee.changes.retention:P7D}")
+    private Duration retention;
+
+    @Autowired
+    public EmployeeChangeRelayJob(EmployeeChangeService employeeChangeService, EmployeeChangeFeed employeeChangeFeed) {
+        this.employeeChangeService = employeeChangeService;
+        this.employeeChangeFeed = employeeChangeFeed;
+    }
+
+    //each batch is published only after its transaction committed, so subscribers reading the outbox find it
+    @Scheduled(fixedDelayString = "${employee.changes.relay-interval:PT0.2S}")
+    public void relay() {
+        List<EmployeeChange> changes;
+        do {
+            changes = employeeChangeService.relay(batchSize);
+            if(!changes.isEmpty())
+                employeeChangeFeed.publish(changes);
+        } while (changes.size() == batchSize);
+        //batches relayed by other instances
+        if(employeeChangeFeed.getSubscriberCount() > 0)
+            employeeChangeFeed.catchUp(employeeChangeService.getLatestSeq());
+    }
+
+    @Scheduled(fixedDelayString = "${employee.changes.purge-interval:PT1H}")
+    public void purge() {
+        Instant before = Instant.now().minus(retention);
+        int purged;
+        do {
+            purged = employeeChangeService.purgeChangesBefore(before, batchSize);
+        } while (purged == batchSize);
+    }
+}
@@ -0,0 +1,33 @@
+package com.junit.basics.scheduler;
+
+import com.junit.basics.service.EmployeeService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+//hard deletes soft deleted employees in the background, batch by batch, so a large offboarding run never turns
+//into one long transaction holding row locks on the employees table
+@Component
+@ConditionalOnProperty(name = "employee.delete.soft", havingValue = "true")
+public class EmployeePurgeJob {
+
+    private EmployeeService employeeService;
+
+    @Value("${employee.purge.batch-size:500}")
+    private int batchSize;
+
+    @Autowired
+    public EmployeePurgeJob(EmployeeService employeeService) {
+        this.employeeService = employeeService;
+    }
+
+    @Scheduled(fixedDelayString = "${employee.purge.interval:PT1M}")
+    public void purge() {
+        int purged;
+        do {
+            purged = employeeService.purgeDeletedEmployees(batchSize);
+        } while (purged == batchSize);
+    }
+}
@@ -0,0 +1,25 @@
+package com.junit.basics.scheduler;
+
+import com.junit.basics.datasource.ReplicaRoutingDataSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+//validates the read replicas in the background, replicas that failed a read come back once they pass
+@Component
+@ConditionalOnProperty(name = "employee.datasource.replicas[0].url")
+public class ReplicaHealthCheckJob {
+
+    private ReplicaRoutingDataSource replicaRoutingDataSource;
+
+    @Autowired
+    public ReplicaHealthCheckJob(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        this.replicaRoutingDataSource = replicaRoutingDataSource;
+    }
+
+    @Scheduled(fixedDelayString = "${employee.datasource.health-check-interval:PT5S}")
+    public void checkReplicas() {
+        replicaRoutingDataSource.checkReplicas();
+    }
+}
@@ -0,0 +1,132 @@
+package com.junit.basics.search;
+
+import com.junit.basics.model.EmployeeSearchHit;
+import com.junit.basics.model.EmployeeView;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+//in-memory inverted index over first name, last name and email. Every field is split into lower case tokens
+//("john.cena@gmail.com" gives john, cena, gmail, com) and the sorted term map turns a prefix lookup into a range
+//scan. A query matches an employee when each of its tokens prefixes one of the employee's terms; exact term
+//matches rank above prefixes and names above email. Reads are lock free, writes are serialised
+public class EmployeeSearchIndex {
+    static final int FIRST_NAME = 1;
+    static final int LAST_NAME = 2;
+    static final int EMAIL = 4;
+
+    //bounds the work of very short prefixes such as a single letter on a large table
+    private static final int MAX_TERMS_PER_TOKEN = 5000;
+
+    //term -> employee id -> bit set of the fields containing the term
+    private final ConcurrentSkipListMap<String, Map<Integer, Integer>> postings = new ConcurrentSkipListMap<>();
+    private final Map<Integer, EmployeeView> documents = new ConcurrentHashMap<>();
+
+    public synchronized void index(EmployeeView employee) {
+        EmployeeView previous = documents.put(employee.getId(), employee);
+        if(previous != null)
+            removePostings(previous);
+        addPostings(employee, employee.getFirstName(), FIRST_NAME);
+        addPostings(employee, employee.getLastName(), LAST_NAME);
+        addPostings(employee, employee.getEmail(), EMAIL);
+    }
+
+    public synchronized void remove(int id) {
+        EmployeeView previous = documents.remove(id);
+        if(previous != null)
+            removePostings(previous);
+    }
+
+    public synchronized void clear() {
+        postings.clear();
+        documents.clear();
+    }
+
+    public int size() {
+        return documents.size();
+    }
+
+    public List<EmployeeSearchHit> search(String query, int limit) {
+        Map<Integer, Double> scores = null;
+        for (String token : tokenize(query)) {
+            Map<Integer, Double> tokenScores = new HashMap<>();
+            int terms = 0;
+            for (Map.Entry<String, Map<Integer, Integer>> term
+                    : postings.subMap(token, true, token + Character.MAX_VALUE, true).entrySet()) {
+                if(++terms > MAX_TERMS_PER_TOKEN)
+                    break;
+                //2 for the whole term, otherwise how much of the term the prefix covers
+                double termScore = term.getKey().length() == token.length()
+                        ? 2.0 : (double) token.length() / term.getKey().length();
+                for (Map.Entry<Integer, Integer> posting : term.getValue().entrySet())
+                    tokenScores.merge(posting.getKey(), termScore * fieldWeight(posting.getValue()), Math::max);
+            }
+            if(scores == null) {
+                scores = tokenScores;
+            } else {
+                Map<Integer, Double> previous = scores;
+                scores = new HashMap<>();
+                for (Map.Entry<Integer, Double> score : tokenScores.entrySet()) {
+                    Double matched = previous.get(score.getKey());
+                    if(matched != null)
+                        scores.put(score.getKey(), matched + score.getValue());
+                }
+            }
+            if(scores.isEmpty())
+                return List.of();
+        }
+        if(scores == null)
+            return List.of();
+        List<EmployeeSearchHit> hits = new ArrayList<>();
+        scores.entrySet().stream()
+                .sorted(Map.Entry.<Integer, Double>comparingByValue().reversed()
+                        .thenComparing(Map.Entry.comparingByKey()))
+                .limit(limit)
+                .forEach(score -> {
+                    EmployeeView employee = documents.get(score.getKey());
+                    if(employee != null)
+                        hits.add(new EmployeeSearchHit(employee, score.getValue()));
+                });
+        return hits;
+    }
+
+    static Set<String> tokenize(String text) {
+        Set<String> tokens = new LinkedHashSet<>();
+        if(text == null)
+            return tokens;
+        for (String token : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if(!token.isEmpty())
+                tokens.add(token);
+        }
+        return tokens;
+    }
+
+    private static double fieldWeight(int fields) {
+        return (fields & (FIRST_NAME | LAST_NAME)) != 0 ? 1.5 : 1.0;
+    }
+
+    private void addPostings(EmployeeView employee, String value, int field) {
+        for (String term : tokenize(value))
+            postings.computeIfAbsent(term, key -> new ConcurrentHashMap<>())
+                    .merge(employee.getId(), field, (a, b) -> a | b);
+    }
+
+    private void removePostings(EmployeeView employee) {
+        Set<String> terms = tokenize(employee.getFirstName());
+        terms.addAll(tokenize(employee.getLastName()));
+        terms.addAll(tokenize(employee.getEmail()));
+        for (String term : terms) {
+            postings.computeIfPresent(term, (key, ids) -> {
+                ids.remove(employee.getId());
+                return ids.isEmpty() ? null : ids;
+            });
+        }
+    }
+}
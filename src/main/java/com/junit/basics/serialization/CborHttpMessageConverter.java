@@ -0,0 +1,18 @@
+package com.junit.basics.serialization;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.stereotype.Component;
+
+//serves application/cbor to clients that ask for it with Accept, JSON stays the default. Built from Boot's
+//Jackson builder so CBOR gets the same modules and serializers as JSON, unlike Spring MVC's default CBOR converter
+@Component
+public class CborHttpMessageConverter extends MappingJackson2CborHttpMessageConverter {
+
+    @Autowired
+    public CborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        super(builder.factory(new CBORFactory()).build());
+    }
+}
@@ -0,0 +1,46 @@
+package com.junit.basics.serialization;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.junit.basics.model.EmployeeView;
+import org.springframework.boot.jackson.JsonComponent;
+
+import java.io.IOException;
+
+//EmployeeView is what every list endpoint and the export write thousands of times per response, so it skips
+//Jackson's bean introspection: the getters are called directly and the field names are encoded once up front.
+//The output is the same as the default serialisation, nulls included, and works for JSON and CBOR alike
+@JsonComponent
+public class EmployeeViewSerializer extends StdSerializer<EmployeeView> {
+    private static final SerializableString ID = new SerializedString("id");
+    private static final SerializableString FIRST_NAME = new SerializedString("firstName");
+    private static final SerializableString LAST_NAME = new SerializedString("lastName");
+    private static final SerializableString EMAIL = new SerializedString("email");
+    private static final SerializableString VERSION = new SerializedString("version");
+
+    public EmployeeViewSerializer() {
+        super(EmployeeView.class);
+    }
+
+    @Override
+    public void serialize(EmployeeView employee, JsonGenerator json, SerializerProvider provider) throws IOException {
+        json.writeStartObject(employee, 5);
+        json.writeFieldName(ID);
+        json.writeNumber(employee.getId());
+        json.writeFieldName(FIRST_NAME);
+        json.writeString(employee.getFirstName());
+        json.writeFieldName(LAST_NAME);
+        json.writeString(employee.getLastName());
+        json.writeFieldName(EMAIL);
+        json.writeString(employee.getEmail());
+        json.writeFieldName(VERSION);
+        if(employee.getVersion() == null)
+            json.writeNull();
+        else
+            json.writeNumber(employee.getVersion());
+        json.writeEndObject();
+    }
+}
@@ -0,0 +1,19 @@
+package com.junit.basics.service;
+
+import com.junit.basics.model.EmployeeChange;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface EmployeeChangeService {
+    //numbers up to batchSize committed outbox rows and returns them in seq order
+    List<EmployeeChange> relay(int batchSize);
+
+    List<EmployeeChange> getChangesAfter(long seq, int limit);
+
+    //0 when nothing was relayed yet
+    long getLatestSeq();
+
+    //drops up to batchSize relayed rows older than before, returns how many went
+    int purgeChangesBefore(Instant before, int batchSize);
+}
@@ -0,0 +1,11 @@
+package com.junit.basics.service;
+
+import com.junit.basics.model.EmployeeExportFormat;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+public interface EmployeeExportService {
+    //writes every employee to out as it is read from the database, out is flushed but not closed
+    void export(EmployeeExportFormat format, boolean gzip, OutputStream out) throws IOException;
+}
@@ -0,0 +1,14 @@
+package com.junit.basics.service;
+
+import com.junit.basics.model.EmployeeImportReport;
+
+import java.io.IOException;
+import java.io.Reader;
+
+public interface EmployeeImportService {
+    //CSV with a header row naming the firstName, lastName and email columns
+    EmployeeImportReport importCsv(Reader reader) throws IOException;
+
+    //one JSON employee object per line
+    EmployeeImportReport importNdjson(Reader reader) throws IOException;
+}
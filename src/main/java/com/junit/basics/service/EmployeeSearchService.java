@@ -0,0 +1,13 @@
+package com.junit.basics.service;
+
+import com.junit.basics.model.EmployeeSearchHit;
+
+import java.util.List;
+
+public interface EmployeeSearchService {
+    //best matches first, every token of the query has to prefix a name or email token
+    List<EmployeeSearchHit> search(String query, int limit);
+
+    //discards the index and reads the whole table again
+    void rebuild();
+}
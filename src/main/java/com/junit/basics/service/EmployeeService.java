@@ -1,17 +1,52 @@
 package com.junit.basics.service;
 
 import com.junit.basics.model.Employee;
+import com.junit.basics.model.EmployeeCreateResult;
+import com.junit.basics.model.EmployeeDelta;
+import com.junit.basics.model.EmployeePage;
+import com.junit.basics.model.EmployeeView;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 
 public interface EmployeeService {
     Employee saveEmployee(Employee employee);
-    List<Employee> getAllEmployee();
 
-    Optional<Employee> getEmployeeById(int id);
+    //creates every employee whose email is not taken yet, returning one result per submitted row
+    List<EmployeeCreateResult> saveEmployees(List<Employee> employees);
 
-    Employee updateEmployee(Employee employee);
+    //reads return EmployeeView projections rather than managed entities
+    List<EmployeeView> getAllEmployee();
 
-    void deleteById(int id);
+    //keyset paginated listing, cursor is null for the first page
+    EmployeePage getEmployeePage(String cursor, int size);
+
+    //next chunk of employees ordered by id, used for streaming the whole table
+    List<EmployeeView> getEmployeesAfter(int afterId, int limit);
+
+    //employees changed or deleted after since, keyset paginated; cursor continues a sync and replaces since
+    EmployeeDelta getEmployeeDelta(Instant since, String cursor, int size);
+
+    Optional<EmployeeView> getEmployeeById(int id);
+
+    //the employees found for the ids in request order, each once; missing ids are left out
+    List<EmployeeView> getEmployeesByIds(List<Integer> ids);
+
+    Optional<EmployeeView> getEmployeeByEmail(String email);
+
+    List<EmployeeView> getEmployeesByName(String firstName, String lastName);
+
+    //updates the employee with employee.getId(), empty when no such employee exists. A non null
+    //employee.getVersion() makes the update conditional and throws PreconditionFailedException on a mismatch
+    Optional<Employee> updateEmployee(Employee employee);
+
+    //false when no such employee exists
+    boolean deleteById(int id);
+
+    //deletes every listed employee in one statement, returning how many existed
+    int deleteEmployees(List<Integer> ids);
+
+    //hard deletes up to batchSize soft deleted employees, returning how many were removed
+    int purgeDeletedEmployees(int batchSize);
 }
@@ -0,0 +1,14 @@
+package com.junit.basics.service;
+
+import com.junit.basics.model.Employee;
+import com.junit.basics.model.EmployeeCreateTicket;
+
+import java.util.Optional;
+
+public interface EmployeeWriteBehindService {
+    //queues the employee for a later batched insert and returns a PENDING ticket right away
+    EmployeeCreateTicket submit(Employee employee);
+
+    //empty when the tracking id is unknown or its status has expired
+    Optional<EmployeeCreateTicket> getTicket(String trackingId);
+}
@@ -0,0 +1,61 @@
+package com.junit.basics.service.Impl;
+
+import com.junit.basics.exceptions.BadRequestException;
+import com.junit.basics.model.EmployeeChange;
+import com.junit.basics.repository.EmployeeChangeRepository;
+import com.junit.basics.service.EmployeeChangeService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+@Service
+public class EmployeeChangeServiceImpl implements EmployeeChangeService {
+    public static final int MAX_PAGE_SIZE = 1000;
+
+    private EmployeeChangeRepository employeeChangeRepository;
+
+    @Autowired
+    public EmployeeChangeServiceImpl(EmployeeChangeRepository employeeChangeRepository) {
+        this.employeeChangeRepository = employeeChangeRepository;
+    }
+
+    //a writer that commits after a later one got its outbox id can only be seen once it has committed, so the
+    //ids are no safe cursor. The relay numbers rows as they become visible, and since it holds the row locks
+    //until commit the new seqs follow on from the last ones without gaps. The updates go out as JDBC batches
+    @Override
+    @Transactional
+    public List<EmployeeChange> relay(int batchSize) {
+        List<EmployeeChange> changes = employeeChangeRepository.findUnrelayed(PageRequest.ofSize(batchSize));
+        if(changes.isEmpty())
+            return changes;
+        long seq = employeeChangeRepository.findLatestSeq();
+        for (EmployeeChange change : changes)
+            change.setSeq(++seq);
+        return changes;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<EmployeeChange> getChangesAfter(long seq, int limit) {
+        if(limit < 1 || limit > MAX_PAGE_SIZE)
+            throw new BadRequestException("Limit must be between 1 and "+MAX_PAGE_SIZE);
+        return employeeChangeRepository.findRelayedAfter(seq, PageRequest.ofSize(limit));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long getLatestSeq() {
+        return employeeChangeRepository.findLatestSeq();
+    }
+
+    @Override
+    @Transactional
+    public int purgeChangesBefore(Instant before, int batchSize) {
+        List<Long> ids = employeeChangeRepository.findRelayedIdsBefore(before, PageRequest.ofSize(batchSize));
+        return ids.isEmpty() ? 0 : employeeChangeRepository.deleteAllByIdIn(ids);
+    }
+}
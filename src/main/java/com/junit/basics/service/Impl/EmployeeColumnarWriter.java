@@ -0,0 +1,93 @@
+package com.junit.basics.service.Impl;
+
+import com.junit.basics.model.EmployeeView;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+//compact columnar layout for EmployeeExportFormat.COLUMNAR, all integers are unsigned LEB128 varints:
+//  file      = "EMPC" version(1 byte) rowGroup* 0
+//  rowGroup  = rowCount idColumn firstNameColumn lastNameColumn emailColumn
+//  idColumn  = rowCount deltas from the previous id (the first one from 0), ids arrive in ascending order
+//  strColumn = rowCount lengths (byte length + 1, 0 for null) followed by all the UTF-8 bytes back to back
+//keeping each column together makes the gzip'd form much smaller than row oriented CSV, and only one row group
+//is ever held in memory
+class EmployeeColumnarWriter {
+    static final byte[] MAGIC = {'E', 'M', 'P', 'C'};
+    static final int VERSION = 1;
+    static final int ROW_GROUP_SIZE = 4096;
+
+    private final OutputStream out;
+    private final int[] ids = new int[ROW_GROUP_SIZE];
+    private final StringColumn firstNames = new StringColumn();
+    private final StringColumn lastNames = new StringColumn();
+    private final StringColumn emails = new StringColumn();
+    private int rows;
+    private int lastId;
+
+    EmployeeColumnarWriter(OutputStream out) throws IOException {
+        this.out = out;
+        out.write(MAGIC);
+        out.write(VERSION);
+    }
+
+    void write(EmployeeView employee) throws IOException {
+        ids[rows++] = employee.getId();
+        firstNames.add(employee.getFirstName());
+        lastNames.add(employee.getLastName());
+        emails.add(employee.getEmail());
+        if(rows == ROW_GROUP_SIZE)
+            flushRowGroup();
+    }
+
+    //writes the last partial row group and the end marker
+    void finish() throws IOException {
+        if(rows > 0)
+            flushRowGroup();
+        writeVarint(out, 0);
+    }
+
+    private void flushRowGroup() throws IOException {
+        writeVarint(out, rows);
+        for (int i = 0; i < rows; i++) {
+            writeVarint(out, ids[i] - lastId);
+            lastId = ids[i];
+        }
+        firstNames.writeTo(out);
+        lastNames.writeTo(out);
+        emails.writeTo(out);
+        rows = 0;
+    }
+
+    private static void writeVarint(OutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    private static class StringColumn {
+        private final ByteArrayOutputStream lengths = new ByteArrayOutputStream();
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        void add(String value) throws IOException {
+            if(value == null) {
+                writeVarint(lengths, 0);
+                return;
+            }
+            byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+            writeVarint(lengths, utf8.length + 1);
+            bytes.write(utf8);
+        }
+
+        void writeTo(OutputStream out) throws IOException {
+            lengths.writeTo(out);
+            bytes.writeTo(out);
+            lengths.reset();
+            bytes.reset();
+        }
+    }
+}
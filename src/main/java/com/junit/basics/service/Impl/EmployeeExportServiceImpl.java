@@ -0,0 +1,113 @@
+package com.junit.basics.service.Impl;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.junit.basics.model.EmployeeExportFormat;
+import com.junit.basics.model.EmployeeView;
+import com.junit.basics.repository.EmployeeRepository;
+import com.junit.basics.service.EmployeeExportService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+//rows go from the JDBC cursor straight into the output stream one at a time, so memory stays flat whatever
+//the table size
+@Service
+public class EmployeeExportServiceImpl implements EmployeeExportService {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private EmployeeRepository employeeRepository;
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    public EmployeeExportServiceImpl(EmployeeRepository employeeRepository, ObjectMapper objectMapper) {
+        this.employeeRepository = employeeRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    //the transaction keeps the connection, and so the cursor, open while the stream is consumed
+    @Override
+    @Transactional(readOnly = true)
+    public void export(EmployeeExportFormat format, boolean gzip, OutputStream out) throws IOException {
+        //the caller owns out, closing the wrappers must only finish the gzip trailer and flush
+        OutputStream target = new FilterOutputStream(out) {
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                out.write(b, off, len);
+            }
+
+            @Override
+            public void close() throws IOException {
+                out.flush();
+            }
+        };
+        if(gzip)
+            target = new GZIPOutputStream(target, BUFFER_SIZE);
+        try (OutputStream buffered = new BufferedOutputStream(target, BUFFER_SIZE);
+             Stream<EmployeeView> employees = employeeRepository.streamAllViews()) {
+            Iterator<EmployeeView> rows = employees.iterator();
+            switch (format) {
+                case CSV -> writeCsv(rows, buffered);
+                case NDJSON -> writeNdjson(rows, buffered);
+                case COLUMNAR -> writeColumnar(rows, buffered);
+            }
+        }
+    }
+
+    private static void writeCsv(Iterator<EmployeeView> rows, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write("id,firstName,lastName,email\n");
+        while (rows.hasNext()) {
+            EmployeeView employee = rows.next();
+            writer.write(Integer.toString(employee.getId()));
+            writer.write(',');
+            writer.write(csvField(employee.getFirstName()));
+            writer.write(',');
+            writer.write(csvField(employee.getLastName()));
+            writer.write(',');
+            writer.write(csvField(employee.getEmail()));
+            writer.write('\n');
+        }
+        writer.flush();
+    }
+
+    private void writeNdjson(Iterator<EmployeeView> rows, OutputStream out) throws IOException {
+        JsonGenerator json = objectMapper.getFactory().createGenerator(out);
+        json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        //the newline is the only separator between records
+        json.setRootValueSeparator(null);
+        while (rows.hasNext()) {
+            json.writeObject(rows.next());
+            json.writeRaw('\n');
+        }
+        json.close();
+    }
+
+    private static void writeColumnar(Iterator<EmployeeView> rows, OutputStream out) throws IOException {
+        EmployeeColumnarWriter writer = new EmployeeColumnarWriter(out);
+        while (rows.hasNext())
+            writer.write(rows.next());
+        writer.finish();
+    }
+
+    //quotes only when needed, the same rules EmployeeImportServiceImpl reads
+    private static String csvField(String value) {
+        if(value == null)
+            return "";
+        if(value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0)
+            return value;
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
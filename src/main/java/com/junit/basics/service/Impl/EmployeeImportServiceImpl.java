@@ -0,0 +1,198 @@
+package com.junit.basics.service.Impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.junit.basics.exceptions.BadRequestException;
+import com.junit.basics.model.Employee;
+import com.junit.basics.model.EmployeeCreateResult;
+import com.junit.basics.model.EmployeeImportReport;
+import com.junit.basics.model.EmployeeImportReport.EmployeeImportError;
+import com.junit.basics.service.EmployeeImportService;
+import com.junit.basics.service.EmployeeService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+//reads the upload line by line and hands it to EmployeeService.saveEmployees one chunk at a time: each chunk is
+//deduplicated with a single email IN query and inserted in its own transaction, so neither the body nor the
+//persistence context ever holds more than one chunk
+@Slf4j
+@Service
+public class EmployeeImportServiceImpl implements EmployeeImportService {
+    private static final int MAX_REPORTED_ERRORS = 1000;
+
+    private EmployeeService employeeService;
+    private ObjectMapper objectMapper;
+
+    @Value("${employee.import.chunk-size:1000}")
+    private int chunkSize = EmployeeServiceImpl.MAX_BATCH_SIZE;
+
+    @FunctionalInterface
+    private interface RowParser {
+        Employee parse(String line) throws IOException;
+    }
+
+    @Autowired
+    public EmployeeImportServiceImpl(EmployeeService employeeService, ObjectMapper objectMapper) {
+        this.employeeService = employeeService;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public EmployeeImportReport importCsv(Reader reader) throws IOException {
+        BufferedReader lines = new BufferedReader(reader);
+        String header = lines.readLine();
+        if(header == null)
+            throw new BadRequestException("CSV import needs a header row");
+        int[] columns = csvColumns(splitCsv(header));
+        return importRows(lines, 1, line -> {
+            List<String> values = splitCsv(line);
+            return Employee.builder()
+                    .firstName(csvValue(values, columns[0]))
+                    .lastName(csvValue(values, columns[1]))
+                    .email(csvValue(values, columns[2]))
+                    .build();
+        });
+    }
+
+    @Override
+    public EmployeeImportReport importNdjson(Reader reader) throws IOException {
+        return importRows(new BufferedReader(reader), 0, line -> {
+            Employee employee = objectMapper.readValue(line, Employee.class);
+            //ids always come from the generator. Rows of an NDJSON export carry their version, kept it would make
+            //saveAll merge the row instead of persisting it; the audit timestamps are stamped on insert
+            employee.setId(0);
+            employee.setVersion(null);
+            employee.setCreatedAt(null);
+            employee.setUpdatedAt(null);
+            return employee;
+        });
+    }
+
+    private EmployeeImportReport importRows(BufferedReader lines, long lineNumber, RowParser parser) throws IOException {
+        EmployeeImportReport report = new EmployeeImportReport();
+        List<Employee> chunk = new ArrayList<>(chunkSize);
+        List<Long> chunkLines = new ArrayList<>(chunkSize);
+        String line;
+        while ((line = lines.readLine()) != null) {
+            lineNumber++;
+            if(line.isBlank())
+                continue;
+            report.setRows(report.getRows() + 1);
+            try {
+                chunk.add(parser.parse(line));
+                chunkLines.add(lineNumber);
+            } catch (JsonProcessingException | IllegalArgumentException e) {
+                report.setFailed(report.getFailed() + 1);
+                addError(report, lineNumber, "Unreadable row: " + firstLine(e.getMessage()));
+            }
+            if(chunk.size() == chunkSize) {
+                writeChunk(report, chunk, chunkLines);
+                chunk = new ArrayList<>(chunkSize);
+                chunkLines = new ArrayList<>(chunkSize);
+            }
+        }
+        if(!chunk.isEmpty())
+            writeChunk(report, chunk, chunkLines);
+        return report;
+    }
+
+    private void writeChunk(EmployeeImportReport report, List<Employee> chunk, List<Long> chunkLines) {
+        try {
+            for (EmployeeCreateResult result : employeeService.saveEmployees(chunk)) {
+                switch (result.getStatus()) {
+                    case CREATED -> report.setCreated(report.getCreated() + 1);
+                    case DUPLICATE_EMAIL -> report.setDuplicates(report.getDuplicates() + 1);
+                    case FAILED -> report.setFailed(report.getFailed() + 1);
+                }
+                if(result.getStatus() != EmployeeCreateResult.Status.CREATED)
+                    addError(report, chunkLines.get(result.getIndex()), firstLine(result.getMessage()));
+            }
+        } catch (RuntimeException e) {
+            //rows failing on their own come back as FAILED results, this is the database being unavailable. The
+            //chunk's transaction rolled back, earlier chunks stay committed and the import carries on
+            report.setFailed(report.getFailed() + chunk.size());
+            for (Long line : chunkLines)
+                addError(report, line, "Chunk failed: " + firstLine(e.getMessage()));
+        }
+        report.setChunks(report.getChunks() + 1);
+        log.info("Employee import: {} rows read, {} created, {} duplicates, {} failed",
+                report.getRows(), report.getCreated(), report.getDuplicates(), report.getFailed());
+    }
+
+    private static void addError(EmployeeImportReport report, long line, String message) {
+        if(report.getErrors().size() < MAX_REPORTED_ERRORS)
+            report.getErrors().add(new EmployeeImportError(line, message));
+    }
+
+    private static String firstLine(String message) {
+        if(message == null)
+            return "";
+        int end = message.indexOf('\n');
+        return end < 0 ? message : message.substring(0, end);
+    }
+
+    //positions of firstName, lastName and email in the header, other columns are ignored
+    private static int[] csvColumns(List<String> header) {
+        int[] columns = {-1, -1, -1};
+        for (int i = 0; i < header.size(); i++) {
+            switch (header.get(i).trim().replace("_", "").toLowerCase(Locale.ROOT)) {
+                case "firstname" -> columns[0] = i;
+                case "lastname" -> columns[1] = i;
+                case "email" -> columns[2] = i;
+                default -> { }
+            }
+        }
+        if(columns[2] < 0)
+            throw new BadRequestException("CSV header must contain an email column");
+        return columns;
+    }
+
+    private static String csvValue(List<String> values, int column) {
+        if(column < 0)
+            return null;
+        if(column >= values.size())
+            throw new IllegalArgumentException("expected at least " + (column + 1) + " columns");
+        String value = values.get(column).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    //RFC 4180 fields on a single line: commas inside double quotes, "" for a literal quote
+    private static List<String> splitCsv(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if(quoted) {
+                if(c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    value.append('"');
+                    i++;
+                } else if(c == '"') {
+                    quoted = false;
+                } else {
+                    value.append(c);
+                }
+            } else if(c == '"') {
+                quoted = true;
+            } else if(c == ',') {
+                values.add(value.toString());
+                value.setLength(0);
+            } else {
+                value.append(c);
+            }
+        }
+        if(quoted)
+            throw new IllegalArgumentException("unterminated quoted field");
+        values.add(value.toString());
+        return values;
+    }
+}
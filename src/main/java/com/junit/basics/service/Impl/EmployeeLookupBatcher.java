@@ -0,0 +1,50 @@
+package com.junit.basics.service.Impl;
+
+import com.junit.basics.concurrent.MicroBatcher;
+import com.junit.basics.datasource.ReadYourWrites;
+import com.junit.basics.model.EmployeeView;
+import com.junit.basics.repository.EmployeeRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+//opt-in: turns the fan out of single GET /api/employees/{id} calls into one id IN (...) query per window. Every
+//lookup waits up to the window for others to join it, so this only pays off under concurrent load
+@Component
+public class EmployeeLookupBatcher {
+    private EmployeeRepository employeeRepository;
+
+    //null when batching is disabled
+    private MicroBatcher<Integer, EmployeeView> batcher;
+
+    @Autowired
+    public EmployeeLookupBatcher(EmployeeRepository employeeRepository,
+                                 @Value("${employee.lookup.batch.enabled:false}") boolean enabled,
+                                 @Value("${employee.lookup.batch.window:PT0.002S}") Duration window,
+                                 @Value("${employee.lookup.batch.max-size:100}") int maxBatchSize) {
+        this.employeeRepository = employeeRepository;
+        if(enabled)
+            this.batcher = new MicroBatcher<>(ids -> employeeRepository.findViewsByIdIn(ids).stream()
+                    .collect(Collectors.toMap(EmployeeView::getId, Function.identity())), maxBatchSize, window);
+    }
+
+    //the batch query runs on another thread, which does not carry the read-your-writes pin, so pinned reads
+    //query the primary on their own
+    public Optional<EmployeeView> findById(int id) {
+        if(batcher == null || ReadYourWrites.isPinnedToPrimary())
+            return employeeRepository.findViewById(id);
+        return Optional.ofNullable(batcher.load(id));
+    }
+
+    @PreDestroy
+    public void stop() {
+        if(batcher != null)
+            batcher.close();
+    }
+}
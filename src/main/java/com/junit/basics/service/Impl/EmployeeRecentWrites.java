@@ -0,0 +1,86 @@
+package com.junit.basics.service.Impl;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+//employees written within the last sticky window. The cached lookups read the primary for them: a replica that has
+//not caught up would hand back the row from before the write, and the cache would then keep it for the whole TTL.
+//Each write also bumps a counter, so a lookup can tell whether the row it loaded was written while it was loading
+@Component
+public class EmployeeRecentWrites {
+    //value is the counter at the employee's last write
+    private final Cache<Integer, Long> ids;
+    private final long windowNanos;
+    private final AtomicLong writes = new AtomicLong();
+    private volatile long lastWrite;
+
+    //taken before a lookup starts loading
+    public record Stamp(long writes, long nanos) {
+    }
+
+    @Autowired
+    public EmployeeRecentWrites(@Value("${employee.datasource.sticky-window:PT2S}") Duration window) {
+        this.ids = Caffeine.newBuilder().expireAfterWrite(window).build();
+        this.windowNanos = window.toNanos();
+        this.lastWrite = System.nanoTime() - windowNanos;
+    }
+
+    //marked right away so no lookup slips in before the commit, and again after it, so the window starts when the
+    //write becomes visible on the primary
+    public void markWritten(Collection<Integer> written) {
+        List<Integer> copy = List.copyOf(written);
+        mark(copy);
+        if(TransactionSynchronizationManager.isSynchronizationActive())
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    mark(copy);
+                }
+            });
+    }
+
+    public boolean isRecentlyWritten(int id) {
+        return ids.getIfPresent(id) != null;
+    }
+
+    public Stamp stamp() {
+        return new Stamp(writes.get(), System.nanoTime());
+    }
+
+    //a stamp older than the window may have outlived the record of a write, it then counts as written
+    public boolean isWrittenSince(int id, Stamp stamp) {
+        if(isExpired(stamp))
+            return true;
+        Long written = ids.getIfPresent(id);
+        return written != null && written > stamp.writes();
+    }
+
+    public boolean isAnyWrittenSince(Stamp stamp) {
+        return isExpired(stamp) || writes.get() > stamp.writes();
+    }
+
+    //the previous email of a written employee is not known, so email lookups go by the last write of any employee
+    public boolean isAnyRecentlyWritten() {
+        return System.nanoTime() - lastWrite < windowNanos;
+    }
+
+    private void mark(List<Integer> written) {
+        long write = writes.incrementAndGet();
+        written.forEach(id -> ids.put(id, write));
+        lastWrite = System.nanoTime();
+    }
+
+    private boolean isExpired(Stamp stamp) {
+        return System.nanoTime() - stamp.nanos() >= windowNanos;
+    }
+}
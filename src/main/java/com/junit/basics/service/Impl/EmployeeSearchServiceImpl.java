@@ -0,0 +1,87 @@
+package com.junit.basics.service.Impl;
+
+import com.junit.basics.event.EmployeeChangedEvent;
+import com.junit.basics.exceptions.BadRequestException;
+import com.junit.basics.model.EmployeeSearchHit;
+import com.junit.basics.model.EmployeeView;
+import com.junit.basics.repository.EmployeeRepository;
+import com.junit.basics.search.EmployeeSearchIndex;
+import com.junit.basics.service.EmployeeSearchService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+//the index is filled from one streamed table scan at startup and then follows EmployeeChangedEvent, applied
+//after commit so rolled back writes never show up in search results. A rebuild reads into a new index while the
+//current one keeps serving and following changes; the changes that arrived meanwhile are replayed onto the new
+//index before it replaces the old one, so the scan's older snapshot never undoes them
+@Service
+@ConditionalOnProperty(name = "employee.search.enabled", havingValue = "true", matchIfMissing = true)
+public class EmployeeSearchServiceImpl implements EmployeeSearchService {
+    public static final int MAX_LIMIT = 100;
+
+    private EmployeeRepository employeeRepository;
+    private volatile EmployeeSearchIndex index = new EmployeeSearchIndex();
+    //changes seen while a rebuild reads the table, null when none is running. Guarded by this
+    private List<EmployeeChangedEvent> pending;
+    private final Object rebuildLock = new Object();
+
+    @Autowired
+    public EmployeeSearchServiceImpl(EmployeeRepository employeeRepository) {
+        this.employeeRepository = employeeRepository;
+    }
+
+    @Override
+    public List<EmployeeSearchHit> search(String query, int limit) {
+        if(limit < 1 || limit > MAX_LIMIT)
+            throw new BadRequestException("Search limit must be between 1 and "+MAX_LIMIT);
+        return index.search(query, limit);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        synchronized (rebuildLock) {
+            synchronized (this) {
+                pending = new ArrayList<>();
+            }
+            EmployeeSearchIndex rebuilt = new EmployeeSearchIndex();
+            try (Stream<EmployeeView> employees = employeeRepository.streamAllViews()) {
+                employees.forEach(rebuilt::index);
+                //replaying a change the scan already saw writes the same values again
+                synchronized (this) {
+                    pending.forEach(event -> apply(rebuilt, event));
+                    index = rebuilt;
+                }
+            } finally {
+                synchronized (this) {
+                    pending = null;
+                }
+            }
+        }
+    }
+
+    //JPA writes are indexed once their transaction commits. The reactive service publishes after its R2DBC
+    //transaction has completed, where no transaction synchronization is active; fallbackExecution applies those
+    //events straight away instead of dropping them
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onEmployeeChanged(EmployeeChangedEvent event) {
+        apply(index, event);
+        if(pending != null)
+            pending.add(event);
+    }
+
+    private static void apply(EmployeeSearchIndex index, EmployeeChangedEvent event) {
+        event.getUpserted().forEach(index::index);
+        event.getDeletedIds().forEach(index::remove);
+    }
+}
@@ -1,51 +1,476 @@
 package com.junit.basics.service.Impl;
 
+import com.junit.basics.concurrent.SingleFlight;
+import com.junit.basics.config.CacheConfig;
+import com.junit.basics.datasource.ReadYourWrites;
+import com.junit.basics.event.EmployeeChangedEvent;
+import com.junit.basics.exceptions.BadRequestException;
+import com.junit.basics.exceptions.GoneException;
+import com.junit.basics.exceptions.PreconditionFailedException;
 import com.junit.basics.exceptions.ResourceNotFoundException;
 import com.junit.basics.model.Employee;
+import com.junit.basics.model.EmployeeChange;
+import com.junit.basics.model.EmployeeCreateResult;
+import com.junit.basics.model.EmployeeDelta;
+import com.junit.basics.model.EmployeeDeltaEntry;
+import com.junit.basics.model.EmployeePage;
+import com.junit.basics.model.EmployeeView;
+import com.junit.basics.repository.EmployeeChangeRepository;
 import com.junit.basics.repository.EmployeeRepository;
 import com.junit.basics.service.EmployeeService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Supplier;
 
 @Service
 public class EmployeeServiceImpl implements EmployeeService {
+    public static final int MAX_PAGE_SIZE = 1000;
+    public static final int MAX_BATCH_SIZE = 1000;
+    private static final String EMAIL_CONSTRAINT = "uk_employees_email";
+
     private EmployeeRepository employeeRepository;
+    private EmployeeChangeRepository employeeChangeRepository;
+    private EmployeeLookupBatcher employeeLookupBatcher;
+    private EmployeeRecentWrites recentWrites;
+    private CacheManager cacheManager;
+    //results are immutable views, callers pinned to the primary never share a replica read
+    private final SingleFlight<LookupKey, Optional<EmployeeView>> lookups = new SingleFlight<>();
+    private final SingleFlight<LookupKey, List<EmployeeView>> listLookups = new SingleFlight<>();
+    private ApplicationEventPublisher eventPublisher;
+    private TransactionTemplate transactionTemplate;
+
+    //soft deletes only flag the rows, EmployeePurgeJob removes them later in small batches
+    @Value("${employee.delete.soft:false}")
+    private boolean softDelete;
+
+    //tombstones live in the change outbox, a delta reaching further back would miss deletes
+    @Value("${employee.changes.retention:P7D}")
+    private Duration changeRetention;
+
+    @Value("${employee.delta.settle-time:PT5S}")
+    private Duration deltaSettleTime;
 
     @Autowired
-    public EmployeeServiceImpl(EmployeeRepository employeeRepository) {
+    public EmployeeServiceImpl(EmployeeRepository employeeRepository, EmployeeChangeRepository employeeChangeRepository,
+                               EmployeeLookupBatcher employeeLookupBatcher, EmployeeRecentWrites recentWrites,
+                               CacheManager cacheManager, ApplicationEventPublisher eventPublisher,
+                               PlatformTransactionManager transactionManager) {
         this.employeeRepository = employeeRepository;
+        this.employeeChangeRepository = employeeChangeRepository;
+        this.employeeLookupBatcher = employeeLookupBatcher;
+        this.recentWrites = recentWrites;
+        this.cacheManager = cacheManager;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
+    //creates need no cache eviction, lookups that miss are never cached
+    //uniqueness is enforced by uk_employees_email, so there is no lookup before the insert.
+    //As in saveEmployees a create never updates: kept, an id or version in the body would make saveAndFlush merge
+    //into another employee
     @Override
+    @Transactional
     public Employee saveEmployee(Employee employee) {
-        Optional<Employee> emp = employeeRepository.findByEmail(employee.getEmail());
-        if(emp.isPresent())
-            throw new ResourceNotFoundException("Employee already exists with given email "+emp.get().getEmail());
-        return employeeRepository.save(employee);
+        employee.setId(0);
+        employee.setVersion(null);
+        Employee saved;
+        try {
+            saved = employeeRepository.saveAndFlush(employee);
+        } catch (DataIntegrityViolationException e) {
+            if(!isDuplicateEmail(e))
+                throw e;
+            throw new ResourceNotFoundException("Employee already exists with given email "+employee.getEmail(), e);
+        }
+        publishChange(EmployeeChangedEvent.upserted(List.of(EmployeeView.from(saved))));
+        return saved;
     }
 
+    //no @Transactional: the batch is written in one transaction, and when a concurrent insert takes one of its
+    //emails first the unique key fails all of it. The rows are then retried one transaction each, so only the
+    //rows whose email is really taken come back as DUPLICATE_EMAIL
     @Override
-    public List<Employee> getAllEmployee() {
-        List<Employee> allEmp = employeeRepository.findAll();
+    public List<EmployeeCreateResult> saveEmployees(List<Employee> employees) {
+        if(employees.size() > MAX_BATCH_SIZE)
+            throw new BadRequestException("Batch size must not exceed "+MAX_BATCH_SIZE);
+        try {
+            return transactionTemplate.execute(status -> insertBatch(employees));
+        } catch (DataAccessResourceFailureException | TransientDataAccessException e) {
+            //the database itself is unavailable, every row would fail the same way again
+            throw e;
+        } catch (RuntimeException e) {
+            //anything else was caused by some row, the retry finds out which ones
+        }
+        List<EmployeeCreateResult> results = new ArrayList<>(employees.size());
+        for (int i = 0; i < employees.size(); i++)
+            results.add(insertOne(i, employees.get(i)));
+        return results;
+    }
+
+    private List<EmployeeCreateResult> insertBatch(List<Employee> employees) {
+        //uk_employees_email compares case insensitively, so do the checks here
+        List<String> emails = employees.stream().map(Employee::getEmail).filter(Objects::nonNull).toList();
+        Set<String> takenEmails = new HashSet<>();
+        if(!emails.isEmpty())
+            employeeRepository.findExistingEmails(emails).forEach(email -> takenEmails.add(normalizeEmail(email)));
+
+        EmployeeCreateResult[] results = new EmployeeCreateResult[employees.size()];
+        List<Integer> newIndexes = new ArrayList<>(employees.size());
+        List<Employee> newEmployees = new ArrayList<>(employees.size());
+        for (int i = 0; i < employees.size(); i++) {
+            Employee employee = employees.get(i);
+            //add() also catches the same email appearing twice within the batch
+            if(employee.getEmail() != null && !takenEmails.add(normalizeEmail(employee.getEmail()))) {
+                results[i] = new EmployeeCreateResult(i, EmployeeCreateResult.Status.DUPLICATE_EMAIL, employee,
+                        "Employee already exists with given email "+employee.getEmail());
+                continue;
+            }
+            //a create never updates: an id or version carried in the body would make saveAll merge the row
+            employee.setId(0);
+            employee.setVersion(null);
+            newIndexes.add(i);
+            newEmployees.add(employee);
+        }
+        //ids come from the pooled generator on persist, the inserts themselves go out as JDBC batches at the flush,
+        //which surfaces a unique violation here instead of at commit.
+        //Results and events are built from what saveAll returns, which is what was actually stored
+        List<Employee> saved = employeeRepository.saveAllAndFlush(newEmployees);
+        for (int i = 0; i < saved.size(); i++)
+            results[newIndexes.get(i)] = new EmployeeCreateResult(newIndexes.get(i),
+                    EmployeeCreateResult.Status.CREATED, saved.get(i), null);
+        publishChange(EmployeeChangedEvent.upserted(saved.stream().map(EmployeeView::from).toList()));
+        return Arrays.asList(results);
+    }
+
+    //saveEmployee resets the id and version the rolled back batch left on the entity.
+    //Earlier rows are committed by now, so a row failing for any other reason is reported as FAILED instead of
+    //throwing: the caller would otherwise take the partly applied batch for one that failed as a whole
+    private EmployeeCreateResult insertOne(int index, Employee employee) {
+        try {
+            Employee saved = transactionTemplate.execute(status -> saveEmployee(employee));
+            return new EmployeeCreateResult(index, EmployeeCreateResult.Status.CREATED, saved, null);
+        } catch (ResourceNotFoundException e) {
+            return new EmployeeCreateResult(index, EmployeeCreateResult.Status.DUPLICATE_EMAIL, employee,
+                    e.getMessage());
+        } catch (RuntimeException e) {
+            return new EmployeeCreateResult(index, EmployeeCreateResult.Status.FAILED, employee, e.getMessage());
+        }
+    }
+
+    //read only transactions let Hibernate skip the flush at commit, the projections themselves are never managed
+    @Override
+    @Transactional(readOnly = true)
+    public List<EmployeeView> getAllEmployee() {
+        List<EmployeeView> allEmp = employeeRepository.findAllViews();
         return allEmp;
     }
 
     @Override
-    public Optional<Employee> getEmployeeById(int id) {
-        return employeeRepository.findById(id);
+    @Transactional(readOnly = true)
+    public EmployeePage getEmployeePage(String cursor, int size) {
+        if(size < 1 || size > MAX_PAGE_SIZE)
+            throw new BadRequestException("Page size must be between 1 and "+MAX_PAGE_SIZE);
+        int afterId = cursor == null || cursor.isEmpty() ? 0 : decodeCursor(cursor);
+        //fetch one extra row to know whether there is a next page without a count query
+        List<EmployeeView> rows = getEmployeesAfter(afterId, size + 1);
+        if(rows.size() <= size)
+            return new EmployeePage(rows, null);
+        List<EmployeeView> page = rows.subList(0, size);
+        return new EmployeePage(page, encodeCursor(page.get(size - 1).getId()));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<EmployeeView> getEmployeesAfter(int afterId, int limit) {
+        return employeeRepository.findNextPage(afterId, PageRequest.ofSize(limit));
+    }
+
+    //updatedAt is stamped before the writing transaction commits, so a delta served up to now could step past a row
+    //that only becomes visible later. Every sync therefore stops settle-time in the past; that bound is kept in the
+    //cursor and handed back as the watermark for the next sync
+    @Override
+    @Transactional(readOnly = true)
+    public EmployeeDelta getEmployeeDelta(Instant since, String cursor, int size) {
+        if(size < 1 || size > MAX_PAGE_SIZE)
+            throw new BadRequestException("Page size must be between 1 and "+MAX_PAGE_SIZE);
+        DeltaPosition position;
+        if(cursor != null && !cursor.isEmpty()) {
+            position = decodeDeltaCursor(cursor);
+        } else if(since == null) {
+            throw new BadRequestException("Either since or cursor is required");
+        } else {
+            Instant now = Instant.now();
+            Instant oldest = now.minus(changeRetention);
+            if(since.isBefore(oldest))
+                throw new GoneException("Deletes before "+oldest+" are no longer kept, reload all employees");
+            Instant upTo = now.minus(deltaSettleTime);
+            //afterId past every id makes the first page start strictly after since
+            position = new DeltaPosition(since, Integer.MAX_VALUE, upTo.isBefore(since) ? since : upTo);
+        }
+
+        //size + 1 from both sources, merged on (updatedAt, id), tells whether there is a next page
+        PageRequest page = PageRequest.ofSize(size + 1);
+        List<EmployeeDeltaEntry> rows = new ArrayList<>(employeeRepository.findChangedAfter(
+                position.since(), position.afterId(), position.upTo(), page));
+        employeeChangeRepository.findDeletedAfter(position.since(), position.afterId(), position.upTo(), page)
+                .forEach(change -> rows.add(EmployeeDeltaEntry.tombstone(change)));
+        rows.sort(Comparator.comparing(EmployeeDeltaEntry::getUpdatedAt).thenComparingInt(EmployeeDeltaEntry::getId));
+        if(rows.size() <= size)
+            return new EmployeeDelta(rows, null, position.upTo());
+        List<EmployeeDeltaEntry> changes = rows.subList(0, size);
+        EmployeeDeltaEntry last = changes.get(size - 1);
+        return new EmployeeDelta(changes,
+                encodeDeltaCursor(new DeltaPosition(last.getUpdatedAt(), last.getId(), position.upTo())),
+                position.upTo());
+    }
+
+    //misses are not cached so a later create is visible right away. Concurrent misses for the same key share one
+    //query. There is no transaction here: the repository methods open their own read only one, which keeps the
+    //lookups on the replicas while callers waiting on the shared query hold no connection.
+    //Misses for different ids are batched into one IN query by EmployeeLookupBatcher.
+    //The cache is shared by every caller, so a miss for an employee written within the sticky window reads the
+    //primary whoever asks; otherwise a lagging replica would put the old row back into the cache.
+    //Filled by hand instead of @Cacheable: a load that started before a write commits can finish after the
+    //eviction, so the row is only cached when the employee was not written while it was loading
+    @Override
+    public Optional<EmployeeView> getEmployeeById(int id) {
+        Cache cache = cacheManager.getCache(CacheConfig.EMPLOYEES_BY_ID);
+        EmployeeView cached = cache == null ? null : cache.get(id, EmployeeView.class);
+        if(cached != null)
+            return Optional.of(cached);
+        boolean primary = ReadYourWrites.isPinnedToPrimary() || recentWrites.isRecentlyWritten(id);
+        return lookups.execute(new LookupKey("id", id, primary), () -> {
+            EmployeeRecentWrites.Stamp stamp = recentWrites.stamp();
+            Optional<EmployeeView> employee = readPrimaryIf(primary, () -> employeeLookupBatcher.findById(id));
+            if(cache != null && employee.isPresent() && !recentWrites.isWrittenSince(id, stamp))
+                cache.put(id, employee.get());
+            return employee;
+        });
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<EmployeeView> getEmployeesByIds(List<Integer> ids) {
+        if(ids.size() > MAX_BATCH_SIZE)
+            throw new BadRequestException("Batch size must not exceed "+MAX_BATCH_SIZE);
+        if(ids.isEmpty())
+            return List.of();
+        Map<Integer, EmployeeView> found = new HashMap<>();
+        for (EmployeeView employee : employeeRepository.findViewsByIdIn(new HashSet<>(ids)))
+            found.put(employee.getId(), employee);
+        List<EmployeeView> employees = new ArrayList<>(found.size());
+        for (Integer id : new LinkedHashSet<>(ids)) {
+            EmployeeView employee = found.get(id);
+            if(employee != null)
+                employees.add(employee);
+        }
+        return employees;
+    }
+
+    //same as getEmployeeById, any write while loading keeps the row out of the cache
+    @Override
+    public Optional<EmployeeView> getEmployeeByEmail(String email) {
+        Cache cache = cacheManager.getCache(CacheConfig.EMPLOYEES_BY_EMAIL);
+        EmployeeView cached = cache == null ? null : cache.get(email, EmployeeView.class);
+        if(cached != null)
+            return Optional.of(cached);
+        boolean primary = ReadYourWrites.isPinnedToPrimary() || recentWrites.isAnyRecentlyWritten();
+        return lookups.execute(new LookupKey("email", email, primary), () -> {
+            EmployeeRecentWrites.Stamp stamp = recentWrites.stamp();
+            Optional<EmployeeView> employee = readPrimaryIf(primary,
+                    () -> employeeRepository.findViewByEmail(email));
+            if(cache != null && employee.isPresent() && !recentWrites.isAnyWrittenSince(stamp))
+                cache.put(email, employee.get());
+            return employee;
+        });
+    }
+
+    @Override
+    public List<EmployeeView> getEmployeesByName(String firstName, String lastName) {
+        return listLookups.execute(
+                new LookupKey("name", Arrays.asList(firstName, lastName), ReadYourWrites.isPinnedToPrimary()),
+                () -> List.copyOf(employeeRepository.findAllByJPQLNamedParams(firstName, lastName)));
+    }
+
+    //the previous email of the employee is not known here, so the whole email cache is dropped
+    //a version mismatch is only told apart from a missing employee after the update matched nothing,
+    //so the common uncontended write stays a single statement. An unconditional update does not read the new
+    //version back either: the result, and the change event, then carry no version and the PUT no ETag
+    @Override
+    @Transactional
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.EMPLOYEES_BY_ID, key = "#employee.id"),
+            @CacheEvict(cacheNames = CacheConfig.EMPLOYEES_BY_EMAIL, allEntries = true)})
+    public Optional<Employee> updateEmployee(Employee employee) {
+        Integer expectedVersion = employee.getVersion();
+        Instant now = Instant.now();
+        int updated = expectedVersion == null
+                ? employeeRepository.updateById(employee.getId(), employee.getFirstName(),
+                        employee.getLastName(), employee.getEmail(), now)
+                : employeeRepository.updateByIdAndVersion(employee.getId(), employee.getFirstName(),
+                        employee.getLastName(), employee.getEmail(), expectedVersion, now);
+        if(updated == 0) {
+            if(expectedVersion != null && employeeRepository.findVersionById(employee.getId()).isPresent())
+                throw new PreconditionFailedException("Employee "+employee.getId()+" was modified since version "
+                        +expectedVersion);
+            return Optional.empty();
+        }
+        recentWrites.markWritten(List.of(employee.getId()));
+        employee.setVersion(expectedVersion == null ? null : expectedVersion + 1);
+        employee.setUpdatedAt(now);
+        publishChange(EmployeeChangedEvent.upserted(List.of(EmployeeView.from(employee))));
+        return Optional.of(employee);
     }
 
     @Override
-    public Employee updateEmployee(Employee employee) {
-        return employeeRepository.save(employee);
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.EMPLOYEES_BY_ID, key = "#id"),
+            @CacheEvict(cacheNames = CacheConfig.EMPLOYEES_BY_EMAIL, allEntries = true)})
+    public boolean deleteById(int id) {
+        return delete(List.of(id)) > 0;
     }
 
     @Override
-    public void deleteById(int id) {
-        employeeRepository.deleteById(id);
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.EMPLOYEES_BY_ID, allEntries = true),
+            @CacheEvict(cacheNames = CacheConfig.EMPLOYEES_BY_EMAIL, allEntries = true)})
+    public int deleteEmployees(List<Integer> ids) {
+        if(ids.size() > MAX_BATCH_SIZE)
+            throw new BadRequestException("Batch size must not exceed "+MAX_BATCH_SIZE);
+        return ids.isEmpty() ? 0 : delete(new HashSet<>(ids));
+    }
+
+    //each batch is its own short transaction so the purge never holds many row locks at once
+    @Override
+    @Transactional
+    public int purgeDeletedEmployees(int batchSize) {
+        List<Integer> ids = employeeRepository.findSoftDeletedIds(batchSize);
+        return ids.isEmpty() ? 0 : employeeRepository.purgeByIdIn(ids);
+    }
+
+    //one set based statement for the requested ids, instead of Spring Data's select then delete per entity. When it
+    //removes none of them or all of them, that is exactly what was deleted and the change events need no lookup; a
+    //single id always ends up here. Only a batch that was partly missing or already deleted is rolled back and done
+    //again behind a locking select of the ids that exist, so ids that were never there get no change events
+    private int delete(Collection<Integer> ids) {
+        Integer deleted = transactionTemplate.execute(status -> {
+            recentWrites.markWritten(ids);
+            int count = deleteAllByIdIn(ids);
+            if(count > 0 && count < ids.size()) {
+                status.setRollbackOnly();
+                return null;
+            }
+            if(count > 0)
+                publishChange(EmployeeChangedEvent.deleted(List.copyOf(ids)));
+            return count;
+        });
+        if(deleted != null)
+            return deleted;
+        return transactionTemplate.execute(status -> {
+            List<Integer> existing = employeeRepository.lockExistingIds(ids);
+            if(existing.isEmpty())
+                return 0;
+            int count = deleteAllByIdIn(existing);
+            publishChange(EmployeeChangedEvent.deleted(existing));
+            return count;
+        });
+    }
+
+    private int deleteAllByIdIn(Collection<Integer> ids) {
+        return softDelete
+                ? employeeRepository.softDeleteAllByIdIn(ids, Instant.now()) : employeeRepository.deleteAllByIdIn(ids);
+    }
+
+    private static <T> T readPrimaryIf(boolean primary, Supplier<T> read) {
+        if(!primary || ReadYourWrites.isPinnedToPrimary())
+            return read.get();
+        ReadYourWrites.pinToPrimary();
+        try {
+            return read.get();
+        } finally {
+            ReadYourWrites.unpin();
+        }
+    }
+
+    //the outbox rows commit or roll back together with the write, the relay publishes them to GET /changes
+    private void publishChange(EmployeeChangedEvent event) {
+        employeeChangeRepository.saveAll(EmployeeChange.from(event));
+        eventPublisher.publishEvent(event);
     }
 
+    //emails are unique case-insensitively, anything keyed on one goes through here
+    static String normalizeEmail(String email) {
+        return email.toLowerCase(Locale.ROOT);
+    }
+
+    private static boolean isDuplicateEmail(DataIntegrityViolationException e) {
+        String message = e.getMostSpecificCause().getMessage();
+        return message != null && message.toLowerCase().contains(EMAIL_CONSTRAINT);
+    }
+
+    private static String encodeCursor(int lastId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(String.valueOf(lastId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static int decodeCursor(String cursor) {
+        try {
+            return Integer.parseInt(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid cursor "+cursor, e);
+        }
+    }
+
+    private record LookupKey(String by, Object value, boolean primary) {
+    }
+
+    private record DeltaPosition(Instant since, int afterId, Instant upTo) {
+    }
+
+    private static String encodeDeltaCursor(DeltaPosition position) {
+        String value = position.since() + "|" + position.afterId() + "|" + position.upTo();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static DeltaPosition decodeDeltaCursor(String cursor) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|");
+            if(parts.length != 3)
+                throw new IllegalArgumentException(cursor);
+            return new DeltaPosition(Instant.parse(parts[0]), Integer.parseInt(parts[1]), Instant.parse(parts[2]));
+        } catch (IllegalArgumentException | DateTimeException e) {
+            throw new BadRequestException("Invalid cursor "+cursor, e);
+        }
+    }
 }
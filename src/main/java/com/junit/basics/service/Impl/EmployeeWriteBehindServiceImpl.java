@@ -0,0 +1,171 @@
+package com.junit.basics.service.Impl;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.junit.basics.exceptions.ResourceNotFoundException;
+import com.junit.basics.exceptions.ServiceUnavailableException;
+import com.junit.basics.model.Employee;
+import com.junit.basics.model.EmployeeCreateResult;
+import com.junit.basics.model.EmployeeCreateTicket;
+import com.junit.basics.service.EmployeeService;
+import com.junit.basics.service.EmployeeWriteBehindService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+//creates are acknowledged once queued and written later by a single writer thread in batches through
+//EmployeeService.saveEmployees, so request latency no longer includes the database commit
+@Service
+@ConditionalOnProperty(name = "employee.write-behind.enabled", havingValue = "true")
+public class EmployeeWriteBehindServiceImpl implements EmployeeWriteBehindService {
+    private static final long POLL_MILLIS = 200;
+
+    private EmployeeService employeeService;
+    private BlockingQueue<PendingCreate> queue;
+    private int batchSize;
+
+    //emails of queued rows that are not written yet, the unique constraint takes over once they are
+    private final Set<String> reservedEmails = ConcurrentHashMap.newKeySet();
+    private final Cache<String, EmployeeCreateTicket> tickets = Caffeine.newBuilder()
+            .maximumSize(100_000)
+            .expireAfterWrite(Duration.ofMinutes(10))
+            .build();
+
+    private Thread writer;
+    private volatile boolean running;
+
+    private record PendingCreate(String trackingId, Employee employee) {
+    }
+
+    @Autowired
+    public EmployeeWriteBehindServiceImpl(EmployeeService employeeService,
+                                          @Value("${employee.write-behind.queue-capacity:10000}") int queueCapacity,
+                                          @Value("${employee.write-behind.batch-size:500}") int batchSize) {
+        this.employeeService = employeeService;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        writer = new Thread(this::drain, "employee-write-behind");
+        writer.start();
+    }
+
+    //stops taking new batches, then writes whatever is still queued before the context closes
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        writer.join();
+        List<PendingCreate> batch = new ArrayList<>(batchSize);
+        while (queue.drainTo(batch, batchSize) > 0) {
+            write(batch);
+            batch.clear();
+        }
+    }
+
+    @Override
+    public EmployeeCreateTicket submit(Employee employee) {
+        String email = employee.getEmail() == null ? null : EmployeeServiceImpl.normalizeEmail(employee.getEmail());
+        if(email != null && !reservedEmails.add(email))
+            throw new ResourceNotFoundException("Employee already exists with given email "+employee.getEmail());
+        PendingCreate pending = new PendingCreate(UUID.randomUUID().toString(), employee);
+        //the writer thread sets id and version on the queued entity, the ticket must not see them change under it
+        EmployeeCreateTicket ticket = new EmployeeCreateTicket(pending.trackingId(),
+                EmployeeCreateTicket.Status.PENDING, unsaved(employee), null);
+        tickets.put(ticket.getTrackingId(), ticket);
+        //backpressure: never block the request thread, reject once the writer has fallen this far behind
+        if(!queue.offer(pending)) {
+            tickets.invalidate(ticket.getTrackingId());
+            if(email != null)
+                reservedEmails.remove(email);
+            throw new ServiceUnavailableException("Write-behind queue is full, retry later");
+        }
+        return ticket;
+    }
+
+    @Override
+    public Optional<EmployeeCreateTicket> getTicket(String trackingId) {
+        return Optional.ofNullable(tickets.getIfPresent(trackingId));
+    }
+
+    private void drain() {
+        List<PendingCreate> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                PendingCreate first = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if(first == null)
+                    continue;
+                batch.add(first);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            queue.drainTo(batch, batchSize - 1);
+            write(batch);
+            batch.clear();
+        }
+    }
+
+    private void write(List<PendingCreate> batch) {
+        try {
+            List<EmployeeCreateResult> results = employeeService.saveEmployees(
+                    batch.stream().map(PendingCreate::employee).toList());
+            for (EmployeeCreateResult result : results) {
+                EmployeeCreateTicket.Status status = switch (result.getStatus()) {
+                    case CREATED -> EmployeeCreateTicket.Status.CREATED;
+                    case DUPLICATE_EMAIL -> EmployeeCreateTicket.Status.DUPLICATE_EMAIL;
+                    case FAILED -> EmployeeCreateTicket.Status.FAILED;
+                };
+                complete(batch.get(result.getIndex()), status, result.getEmployee(), result.getMessage());
+            }
+        } catch (RuntimeException e) {
+            //one bad row fails the whole batch, retry row by row so only that row is reported as failed
+            batch.forEach(this::writeOne);
+        } finally {
+            batch.forEach(pending -> {
+                if(pending.employee().getEmail() != null)
+                    reservedEmails.remove(EmployeeServiceImpl.normalizeEmail(pending.employee().getEmail()));
+            });
+        }
+    }
+
+    //the rolled back batch left the id and version it assigned on the queued entities, saved as they are they
+    //would be merged instead of persisted. The retry therefore writes a fresh copy and reports what was stored
+    private void writeOne(PendingCreate pending) {
+        Employee employee = pending.employee();
+        try {
+            Employee saved = employeeService.saveEmployee(unsaved(employee));
+            complete(pending, EmployeeCreateTicket.Status.CREATED, saved, null);
+        } catch (ResourceNotFoundException e) {
+            complete(pending, EmployeeCreateTicket.Status.DUPLICATE_EMAIL, employee, e.getMessage());
+        } catch (RuntimeException e) {
+            complete(pending, EmployeeCreateTicket.Status.FAILED, employee, e.getMessage());
+        }
+    }
+
+    private static Employee unsaved(Employee employee) {
+        return Employee.builder().firstName(employee.getFirstName()).lastName(employee.getLastName())
+                .email(employee.getEmail()).build();
+    }
+
+    private void complete(PendingCreate pending, EmployeeCreateTicket.Status status, Employee employee,
+                          String message) {
+        tickets.put(pending.trackingId(), new EmployeeCreateTicket(pending.trackingId(), status, employee, message));
+    }
+}
@@ -0,0 +1,254 @@
+package com.junit.basics.service.Impl;
+
+import com.junit.basics.config.CacheConfig;
+import com.junit.basics.event.EmployeeChangedEvent;
+import com.junit.basics.exceptions.ResourceNotFoundException;
+import com.junit.basics.model.Employee;
+import com.junit.basics.model.EmployeeChange;
+import com.junit.basics.model.EmployeeView;
+import com.junit.basics.service.ReactiveEmployeeService;
+import io.r2dbc.spi.Readable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Service
+public class ReactiveEmployeeServiceImpl implements ReactiveEmployeeService {
+    private static final String EMAIL_CONSTRAINT = "uk_employees_email";
+    private static final String COLUMNS = "id, first_name, last_name, email, version";
+    private static final String EMPLOYEE_IDS = "employees";
+    private static final String CHANGE_IDS = "employee_changes";
+    private static final int ID_BLOCK_SIZE = 50;
+
+    private DatabaseClient databaseClient;
+    private TransactionalOperator transactionalOperator;
+    private CacheManager cacheManager;
+    private EmployeeRecentWrites recentWrites;
+    private ApplicationEventPublisher eventPublisher;
+    private final Map<String, IdBlock> idBlocks = new ConcurrentHashMap<>();
+
+    //same delete mode as the JPA service, soft deleted rows are filtered out of every query here by hand
+    @Value("${employee.delete.soft:false}")
+    private boolean softDelete;
+
+    @Autowired
+    public ReactiveEmployeeServiceImpl(DatabaseClient databaseClient, TransactionalOperator transactionalOperator,
+                                       CacheManager cacheManager, EmployeeRecentWrites recentWrites,
+                                       ApplicationEventPublisher eventPublisher) {
+        this.databaseClient = databaseClient;
+        this.transactionalOperator = transactionalOperator;
+        this.cacheManager = cacheManager;
+        this.recentWrites = recentWrites;
+        this.eventPublisher = eventPublisher;
+    }
+
+    @Override
+    public Mono<Employee> saveEmployee(Employee employee) {
+        return Mono.zip(nextId(EMPLOYEE_IDS), nextId(CHANGE_IDS))
+                .flatMap(ids -> {
+                    employee.setId(ids.getT1().intValue());
+                    employee.setVersion(0);
+                    Instant now = Instant.now();
+                    employee.setCreatedAt(now);
+                    employee.setUpdatedAt(now);
+                    return bindEmployee(databaseClient.sql("insert into employees (" + COLUMNS
+                                    + ", deleted, created_at, updated_at)"
+                                    + " values (:id, :firstName, :lastName, :email, 0, false, :now, :now)"), employee)
+                            .bind("now", now)
+                            .fetch().rowsUpdated()
+                            .then(recordChange(ids.getT2(),
+                                    EmployeeChangedEvent.upserted(List.of(EmployeeView.from(employee)))))
+                            .thenReturn(employee)
+                            .as(transactionalOperator::transactional);
+                })
+                .doOnNext(saved -> eventPublisher.publishEvent(
+                        EmployeeChangedEvent.upserted(List.of(EmployeeView.from(saved)))))
+                .onErrorMap(this::isDuplicateEmail,
+                        e -> new ResourceNotFoundException("Employee already exists with given email "+employee.getEmail(), e));
+    }
+
+    @Override
+    public Flux<Employee> getAllEmployee() {
+        return databaseClient.sql("select " + COLUMNS + " from employees where deleted = false order by id")
+                .map(ReactiveEmployeeServiceImpl::toEmployee)
+                .all();
+    }
+
+    @Override
+    public Mono<Employee> getEmployeeById(int id) {
+        return databaseClient.sql("select " + COLUMNS + " from employees where id = :id and deleted = false")
+                .bind("id", id)
+                .map(ReactiveEmployeeServiceImpl::toEmployee)
+                .one();
+    }
+
+    @Override
+    public Mono<Employee> updateEmployee(Employee employee) {
+        employee.setUpdatedAt(Instant.now());
+        return nextId(CHANGE_IDS)
+                .flatMap(changeId -> bindEmployee(databaseClient.sql("update employees set first_name = :firstName,"
+                                + " last_name = :lastName, email = :email, version = version + 1, updated_at = :updatedAt"
+                                + " where id = :id and deleted = false"), employee)
+                        .bind("updatedAt", employee.getUpdatedAt())
+                        .fetch().rowsUpdated()
+                        .filter(updated -> updated > 0)
+                        .flatMap(updated -> databaseClient.sql("select version from employees where id = :id")
+                                .bind("id", employee.getId())
+                                .map(row -> row.get("version", Integer.class))
+                                .one())
+                        .flatMap(version -> {
+                            employee.setVersion(version);
+                            return recordChange(changeId,
+                                    EmployeeChangedEvent.upserted(List.of(EmployeeView.from(employee))))
+                                    .thenReturn(employee);
+                        })
+                        .as(transactionalOperator::transactional))
+                .doOnSuccess(updated -> {
+                    evictCaches(employee.getId());
+                    if(updated != null)
+                        eventPublisher.publishEvent(EmployeeChangedEvent.upserted(List.of(EmployeeView.from(updated))));
+                });
+    }
+
+    @Override
+    public Mono<Boolean> deleteById(int id) {
+        return nextId(CHANGE_IDS)
+                .flatMap(changeId -> (softDelete
+                                ? databaseClient.sql("update employees set deleted = true, version = version + 1,"
+                                        + " updated_at = :updatedAt where id = :id and deleted = false")
+                                        .bind("updatedAt", Instant.now())
+                                : databaseClient.sql("delete from employees where id = :id"))
+                        .bind("id", id)
+                        .fetch().rowsUpdated()
+                        .flatMap(deleted -> deleted > 0
+                                ? recordChange(changeId, EmployeeChangedEvent.deleted(List.of(id))).thenReturn(deleted)
+                                : Mono.just(deleted))
+                        .as(transactionalOperator::transactional))
+                .doOnSuccess(deleted -> {
+                    evictCaches(id);
+                    if(deleted != null && deleted > 0)
+                        eventPublisher.publishEvent(EmployeeChangedEvent.deleted(List.of(id)));
+                })
+                .map(deleted -> deleted > 0);
+    }
+
+    //ids come from the same employee_ids rows Hibernate's table generators use. The stored value is the last id
+    //handed out: Hibernate reads it and claims the next allocationSize ids, this claims the next ID_BLOCK_SIZE, and
+    //both move it forward under the row lock, so blocks handed to JPA and ids taken here never overlap. Like the
+    //pooled optimizer, the block is kept in memory and the row is only touched again once it is used up. Callers
+    //take their ids before opening the write's transaction, so the row lock never lasts longer than the reservation
+    private Mono<Long> nextId(String sequenceName) {
+        return Mono.defer(() -> {
+            IdBlock block = idBlocks.computeIfAbsent(sequenceName, name -> new IdBlock());
+            long id = block.take();
+            return id > 0 ? Mono.just(id) : reserveIds(sequenceName).map(block::refill);
+        });
+    }
+
+    //claims the next ID_BLOCK_SIZE ids in a transaction of its own, returns the first of them
+    private Mono<Long> reserveIds(String sequenceName) {
+        return databaseClient.sql("select next_val from employee_ids where sequence_name = :name for update")
+                .bind("name", sequenceName)
+                .map(row -> row.get("next_val", Long.class))
+                .one()
+                .flatMap(last -> databaseClient.sql("update employee_ids set next_val = :next where sequence_name = :name")
+                        .bind("next", last + ID_BLOCK_SIZE)
+                        .bind("name", sequenceName)
+                        .fetch().rowsUpdated()
+                        .thenReturn(last + 1))
+                .switchIfEmpty(Mono.defer(() ->
+                        databaseClient.sql("insert into employee_ids (sequence_name, next_val) values (:name, :next)")
+                                .bind("name", sequenceName)
+                                .bind("next", (long) ID_BLOCK_SIZE)
+                                .fetch().rowsUpdated()
+                                .thenReturn(1L)))
+                .as(transactionalOperator::transactional);
+    }
+
+    //ids reserved from one employee_ids row and not handed out yet. Two callers finding it empty both reserve a
+    //block and the later refill wins, the rest of the other block is skipped like the unused ids of a pooled block
+    private static final class IdBlock {
+        private long next;
+        private long last = -1;
+
+        synchronized long take() {
+            return next <= last ? next++ : -1;
+        }
+
+        synchronized long refill(long first) {
+            next = first + 1;
+            last = first + ID_BLOCK_SIZE - 1;
+            return first;
+        }
+    }
+
+    //the same outbox row the JPA service writes, inside the caller's transaction. Every write here changes a
+    //single employee, so there is exactly one row, under the id the caller reserved for it
+    private Mono<Void> recordChange(long id, EmployeeChangedEvent event) {
+        EmployeeChange change = EmployeeChange.from(event).get(0);
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql("insert into employee_changes"
+                        + " (id, employee_id, type, first_name, last_name, email, version, changed_at)"
+                        + " values (:id, :employeeId, :type, :firstName, :lastName, :email, :version, :changedAt)")
+                .bind("id", id)
+                .bind("employeeId", change.getEmployeeId())
+                .bind("type", change.getType().name())
+                .bind("changedAt", change.getChangedAt());
+        spec = bindNullable(spec, "firstName", change.getFirstName());
+        spec = bindNullable(spec, "lastName", change.getLastName());
+        spec = bindNullable(spec, "email", change.getEmail());
+        spec = change.getVersion() == null
+                ? spec.bindNull("version", Integer.class) : spec.bind("version", change.getVersion());
+        return spec.fetch().rowsUpdated().then();
+    }
+
+    //the JPA service caches lookups, so writes made here have to invalidate them as well, and keep its cache misses
+    //for the employee off the replicas until they have caught up
+    private void evictCaches(int id) {
+        recentWrites.markWritten(List.of(id));
+        Cache byId = cacheManager.getCache(CacheConfig.EMPLOYEES_BY_ID);
+        if(byId != null)
+            byId.evict(id);
+        Cache byEmail = cacheManager.getCache(CacheConfig.EMPLOYEES_BY_EMAIL);
+        if(byEmail != null)
+            byEmail.clear();
+    }
+
+    private boolean isDuplicateEmail(Throwable e) {
+        return e instanceof DataIntegrityViolationException && e.getMessage() != null
+                && e.getMessage().toLowerCase().contains(EMAIL_CONSTRAINT);
+    }
+
+    private static DatabaseClient.GenericExecuteSpec bindEmployee(DatabaseClient.GenericExecuteSpec spec, Employee employee) {
+        spec = spec.bind("id", employee.getId());
+        spec = bindNullable(spec, "firstName", employee.getFirstName());
+        spec = bindNullable(spec, "lastName", employee.getLastName());
+        return bindNullable(spec, "email", employee.getEmail());
+    }
+
+    private static DatabaseClient.GenericExecuteSpec bindNullable(DatabaseClient.GenericExecuteSpec spec, String name, String value) {
+        return value == null ? spec.bindNull(name, String.class) : spec.bind(name, value);
+    }
+
+    private static Employee toEmployee(Readable row) {
+        return Employee.builder()
+                .id(row.get("id", Integer.class))
+                .firstName(row.get("first_name", String.class))
+                .lastName(row.get("last_name", String.class))
+                .email(row.get("email", String.class))
+                .version(row.get("version", Integer.class))
+                .build();
+    }
+}
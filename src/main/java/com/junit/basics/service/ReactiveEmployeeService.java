@@ -0,0 +1,21 @@
+package com.junit.basics.service;
+
+import com.junit.basics.model.Employee;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+//non-blocking counterpart of EmployeeService backed by R2DBC
+public interface ReactiveEmployeeService {
+    Mono<Employee> saveEmployee(Employee employee);
+
+    //streams rows as the subscriber requests them instead of building a list
+    Flux<Employee> getAllEmployee();
+
+    Mono<Employee> getEmployeeById(int id);
+
+    //empty when no employee has employee.getId()
+    Mono<Employee> updateEmployee(Employee employee);
+
+    //false when no employee has the id
+    Mono<Boolean> deleteById(int id);
+}
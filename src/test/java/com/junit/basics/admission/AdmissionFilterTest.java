@@ -0,0 +1,178 @@
+package com.junit.basics.admission;
+
+import com.junit.basics.admission.AdmissionFilter.Route;
+import com.junit.basics.config.AdmissionConfig;
+import com.junit.basics.config.AdmissionProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class AdmissionFilterTest {
+
+    private final AtomicLong now = new AtomicLong();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final Bulkhead lookup = new Bulkhead("lookup", new RateLimiter(1, 2), new ConcurrencyLimit(10, 2.0));
+    private final Bulkhead list = new Bulkhead("list", new RateLimiter(100, 100), new ConcurrencyLimit(1, 2.0));
+    private final AdmissionFilter filter = new AdmissionFilter(List.of(
+            Route.of("GET", "/api/employees/allEmployees", list),
+            Route.of("GET", "/api/employees/{id}", lookup)), "X-Client-Id", meterRegistry, now::get);
+
+    @Test
+    @DisplayName("Junit for a client over its rate getting 429 while other clients are admitted")
+    public void givenBurstUsedUp_whenFilter_thenRateLimitedPerClient() throws Exception {
+        //given - precondition or setup
+        perform("10.0.0.1", "/api/employees/1");
+        perform("10.0.0.1", "/api/employees/2");
+
+        //when - action or the behaviour that we're going to test
+        MockHttpServletResponse limited = perform("10.0.0.1", "/api/employees/3");
+        MockHttpServletResponse otherClient = perform("10.0.0.2", "/api/employees/3");
+        now.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        MockHttpServletResponse refilled = perform("10.0.0.1", "/api/employees/3");
+
+        //then - verify the output
+        assertThat(limited.getStatus()).isEqualTo(429);
+        assertThat(limited.getHeader("Retry-After")).isEqualTo("1");
+        assertThat(otherClient.getStatus()).isEqualTo(200);
+        assertThat(refilled.getStatus()).isEqualTo(200);
+        assertThat(meterRegistry.get(AdmissionFilter.REQUESTS)
+                .tags("bulkhead", "lookup", "outcome", "rate_limited").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get(AdmissionFilter.REQUESTS)
+                .tags("bulkhead", "lookup", "outcome", "admitted").counter().count()).isEqualTo(4);
+    }
+
+    @Test
+    @DisplayName("Junit for clients behind one proxy address keyed by their client header")
+    public void givenClientHeader_whenFilter_thenRateLimitedPerNamedClient() throws Exception {
+        //given - precondition or setup
+        perform(named("10.0.0.1", "alpha"));
+        perform(named("10.0.0.1", "alpha"));
+
+        //when - action or the behaviour that we're going to test
+        MockHttpServletResponse limited = perform(named("10.0.0.1", "alpha"));
+        MockHttpServletResponse otherClient = perform(named("10.0.0.1", "beta"));
+
+        //then - verify the output
+        assertThat(limited.getStatus()).isEqualTo(429);
+        assertThat(otherClient.getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    @DisplayName("Junit for a full list bulkhead shedding list calls but not point lookups")
+    public void givenListBulkheadFull_whenFilter_thenListShedAndLookupAdmitted() throws Exception {
+        //given - precondition or setup
+        MockHttpServletResponse[] nested = new MockHttpServletResponse[2];
+
+        //when - action or the behaviour that we're going to test
+        //the requests arrive while the first list call still holds the only permit of its bulkhead
+        MockHttpServletRequest running = request("10.0.0.1", "/api/employees/allEmployees");
+        filter.doFilter(running, new MockHttpServletResponse(), (req, res) -> {
+            nested[0] = perform("10.0.0.2", "/api/employees/allEmployees");
+            nested[1] = perform("10.0.0.2", "/api/employees/1");
+        });
+        MockHttpServletResponse afterwards = perform("10.0.0.2", "/api/employees/allEmployees");
+
+        //then - verify the output
+        assertThat(nested[0].getStatus()).isEqualTo(429);
+        assertThat(nested[1].getStatus()).isEqualTo(200);
+        assertThat(afterwards.getStatus()).isEqualTo(200);
+        assertThat(meterRegistry.get(AdmissionFilter.REQUESTS)
+                .tags("bulkhead", "list", "outcome", "shed").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get(AdmissionFilter.IN_FLIGHT).tag("bulkhead", "list").gauge().value()).isZero();
+    }
+
+    @Test
+    @DisplayName("Junit for a shed request giving its token back")
+    public void givenShedRequest_whenRetried_thenNotRateLimited() throws Exception {
+        //given - precondition or setup
+        Bulkhead tight = new Bulkhead("tight", new RateLimiter(1, 1), new ConcurrencyLimit(1, 2.0));
+        AdmissionFilter tightFilter = new AdmissionFilter(List.of(
+                Route.of("GET", "/api/employees/allEmployees", tight)), "X-Client-Id", meterRegistry, now::get);
+        MockHttpServletResponse[] nested = new MockHttpServletResponse[1];
+
+        //when - action or the behaviour that we're going to test
+        tightFilter.doFilter(request("10.0.0.1", "/api/employees/allEmployees"), new MockHttpServletResponse(),
+                (req, res) -> nested[0] = perform(tightFilter, request("10.0.0.2", "/api/employees/allEmployees")));
+        MockHttpServletResponse retried = perform(tightFilter, request("10.0.0.2", "/api/employees/allEmployees"));
+
+        //then - verify the output
+        assertThat(nested[0].getStatus()).isEqualTo(429);
+        assertThat(retried.getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    @DisplayName("Junit for exports sharing the list bulkhead and change streams being rate limited")
+    public void givenConfiguredRoutes_whenExportAndSubscribe_thenThrottled() throws Exception {
+        //given - precondition or setup
+        AdmissionProperties properties = new AdmissionProperties();
+        AdmissionProperties.Bulkhead list = new AdmissionProperties.Bulkhead();
+        list.setMaxConcurrency(1);
+        AdmissionProperties.Bulkhead subscribe = new AdmissionProperties.Bulkhead();
+        subscribe.setRate(1);
+        subscribe.setBurst(1);
+        properties.setBulkheads(Map.of("list", list, "subscribe", subscribe));
+        AdmissionFilter configured = new AdmissionConfig().admissionFilter(properties, meterRegistry);
+        MockHttpServletResponse[] nested = new MockHttpServletResponse[2];
+
+        //when - action or the behaviour that we're going to test
+        //an export still being written out holds the only permit of the list bulkhead
+        configured.doFilter(request("10.0.0.1", "/api/employees/export"), new MockHttpServletResponse(),
+                (req, res) -> {
+                    nested[0] = perform(configured, request("10.0.0.2", "/api/employees/export"));
+                    nested[1] = perform(configured, request("10.0.0.2", "/api/employees/1"));
+                });
+        MockHttpServletRequest stream = request("10.0.0.1", "/api/employees/changes");
+        stream.addHeader("Accept", "text/event-stream");
+        MockHttpServletResponse firstStream = perform(configured, stream);
+        MockHttpServletResponse secondStream = perform(configured, stream);
+
+        //then - verify the output
+        assertThat(nested[0].getStatus()).isEqualTo(429);
+        assertThat(nested[1].getStatus()).isEqualTo(200);
+        assertThat(firstStream.getStatus()).isEqualTo(200);
+        assertThat(secondStream.getStatus()).isEqualTo(429);
+        assertThat(meterRegistry.get(AdmissionFilter.REQUESTS)
+                .tags("bulkhead", "list", "outcome", "shed").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get(AdmissionFilter.REQUESTS)
+                .tags("bulkhead", "subscribe", "outcome", "rate_limited").counter().count()).isEqualTo(1);
+    }
+
+    private MockHttpServletResponse perform(String client, String uri) {
+        return perform(filter, request(client, uri));
+    }
+
+    private MockHttpServletResponse perform(MockHttpServletRequest request) {
+        return perform(filter, request);
+    }
+
+    private static MockHttpServletRequest named(String address, String client) {
+        MockHttpServletRequest request = request(address, "/api/employees/1");
+        request.addHeader("X-Client-Id", client);
+        return request;
+    }
+
+    private static MockHttpServletResponse perform(AdmissionFilter filter, MockHttpServletRequest request) {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        try {
+            filter.doFilter(request, response, (req, res) -> {});
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+        return response;
+    }
+
+    private static MockHttpServletRequest request(String client, String uri) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", uri);
+        request.setRemoteAddr(client);
+        return request;
+    }
+}
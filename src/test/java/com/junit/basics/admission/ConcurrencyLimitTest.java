@@ -0,0 +1,58 @@
+package com.junit.basics.admission;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ConcurrencyLimitTest {
+
+    private final ConcurrencyLimit concurrencyLimit = new ConcurrencyLimit(10, 2.0);
+
+    @Test
+    @DisplayName("Limit shrinks while latency rises and grows back once it settles")
+    public void givenRisingLatency_whenRelease_thenLimitShrinksAndRecovers(){
+        //given - precondition or setup
+        runBatches(20, 1);
+
+        //when - action or the behaviour that we're going to test
+        runBatches(2, 20);
+        int shrunk = concurrencyLimit.getLimit();
+        runBatches(50, 1);
+
+        //then - verify the output
+        assertThat(shrunk).isLessThan(10);
+        assertThat(concurrencyLimit.getLimit()).isEqualTo(10);
+        assertThat(concurrencyLimit.getInFlight()).isZero();
+    }
+
+    @Test
+    @DisplayName("Requests beyond the limit are rejected until a permit is released")
+    public void givenLimitReached_whenTryAcquire_thenRejected(){
+        //given - precondition or setup
+        for (int i = 0; i < 10; i++)
+            assertThat(concurrencyLimit.tryAcquire()).isTrue();
+
+        //when - action or the behaviour that we're going to test
+        boolean overLimit = concurrencyLimit.tryAcquire();
+        concurrencyLimit.release();
+        boolean afterRelease = concurrencyLimit.tryAcquire();
+
+        //then - verify the output
+        assertThat(overLimit).isFalse();
+        assertThat(afterRelease).isTrue();
+    }
+
+    //fills the limit and releases every permit with the given latency, batches times over
+    private void runBatches(int batches, long latencyMillis) {
+        for (int batch = 0; batch < batches; batch++) {
+            int acquired = 0;
+            while (concurrencyLimit.tryAcquire())
+                acquired++;
+            for (int i = 0; i < acquired; i++)
+                concurrencyLimit.release(TimeUnit.MILLISECONDS.toNanos(latencyMillis));
+        }
+    }
+}
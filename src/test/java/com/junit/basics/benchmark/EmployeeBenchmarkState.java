@@ -0,0 +1,86 @@
+package com.junit.basics.benchmark;
+
+import com.junit.basics.SpringBootTestingApplication;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+//boots the application against an in-memory H2 stand-in and seeds the employees table with `rows` rows,
+//caching is switched off so the numbers cover the service and repository path rather than Caffeine
+@State(Scope.Benchmark)
+public class EmployeeBenchmarkState {
+    private static final int SEED_BATCH_SIZE = 10_000;
+
+    @Param({"1000", "100000", "1000000"})
+    public int rows;
+
+    public ConfigurableApplicationContext context;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = new SpringApplicationBuilder(SpringBootTestingApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(h2Args());
+        seed(context.getBean(JdbcTemplate.class), rows);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    public <T> T getBean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    public int randomId() {
+        return ThreadLocalRandom.current().nextInt(1, rows + 1);
+    }
+
+    //first names are unique so the single result finders stay valid, last names repeat every 1000 rows
+    public static String firstName(int id) {
+        return "First" + id;
+    }
+
+    public static String lastName(int id) {
+        return "Last" + (id % 1000);
+    }
+
+    public static String[] h2Args(String... extraArgs) {
+        List<String> args = new ArrayList<>(List.of(
+                "--spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1",
+                "--spring.datasource.driver-class-name=org.h2.Driver",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.jpa.hibernate.ddl-auto=create-drop",
+                "--spring.jpa.show-sql=false",
+                "--spring.cache.type=none",
+                "--employee.export.fetch-size=1000",
+                "--employee.search.enabled=false",
+                //measure the query itself, not the wait for a batch window
+                "--employee.lookup.batch.enabled=false"));
+        args.addAll(List.of(extraArgs));
+        return args.toArray(String[]::new);
+    }
+
+    public static void seed(JdbcTemplate jdbcTemplate, int rows) {
+        String sql = "insert into employees (id, first_name, last_name, email) values (?, ?, ?, ?)";
+        List<Object[]> batch = new ArrayList<>(SEED_BATCH_SIZE);
+        for (int id = 1; id <= rows; id++) {
+            batch.add(new Object[]{id, firstName(id), lastName(id), "employee" + id + "@gmail.com"});
+            if (batch.size() == SEED_BATCH_SIZE || id == rows) {
+                jdbcTemplate.batchUpdate(sql, batch);
+                batch.clear();
+            }
+        }
+        //keep the id generator clear of the seeded ids, the stored value is the last id handed out
+        jdbcTemplate.update("delete from employee_ids");
+        jdbcTemplate.update("insert into employee_ids (sequence_name, next_val) values ('employees', ?)", rows);
+    }
+}
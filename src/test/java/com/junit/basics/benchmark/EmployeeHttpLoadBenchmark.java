@@ -0,0 +1,63 @@
+package com.junit.basics.benchmark;
+
+import com.junit.basics.SpringBootTestingApplication;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+//load test of GET /api/employees/{id} over real HTTP, comparing Tomcat's platform thread pool with virtual threads;
+//run with more client threads than Tomcat's 200 workers to see the difference, e.g. -t 400
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@Threads(256)
+public class EmployeeHttpLoadBenchmark {
+    private static final int ROWS = 10_000;
+
+    @State(Scope.Benchmark)
+    public static class Server {
+        @Param({"false", "true"})
+        public boolean virtualThreads;
+
+        public ConfigurableApplicationContext context;
+        public HttpClient client;
+        public String baseUrl;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            context = new SpringApplicationBuilder(SpringBootTestingApplication.class)
+                    .run(EmployeeBenchmarkState.h2Args("--server.port=0",
+                            "--employee.threads.virtual=" + virtualThreads,
+                            //every request comes from one client and far more run at once than the bulkheads admit
+                            "--employee.admission.enabled=false"));
+            EmployeeBenchmarkState.seed(context.getBean(JdbcTemplate.class), ROWS);
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            baseUrl = "http://localhost:" + port + "/api/employees/";
+            client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            context.close();
+        }
+    }
+
+    @Benchmark
+    public int getEmployeeById(Server server) throws IOException, InterruptedException {
+        int id = ThreadLocalRandom.current().nextInt(1, ROWS + 1);
+        HttpRequest request = HttpRequest.newBuilder(URI.create(server.baseUrl + id)).GET().build();
+        return server.client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+}
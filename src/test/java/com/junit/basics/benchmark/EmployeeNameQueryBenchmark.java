@@ -0,0 +1,49 @@
+package com.junit.basics.benchmark;
+
+import com.junit.basics.model.Employee;
+import com.junit.basics.repository.EmployeeRepository;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+//compares the JPQL and native variants of the first/last name lookup backed by idx_employees_name
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class EmployeeNameQueryBenchmark {
+    private EmployeeBenchmarkState state;
+    private EmployeeRepository employeeRepository;
+
+    @Setup(Level.Trial)
+    public void setup(EmployeeBenchmarkState state) {
+        this.state = state;
+        employeeRepository = state.getBean(EmployeeRepository.class);
+    }
+
+    @Benchmark
+    public Employee findByJPQL() {
+        int id = state.randomId();
+        return employeeRepository.findByJPQL(EmployeeBenchmarkState.firstName(id), EmployeeBenchmarkState.lastName(id));
+    }
+
+    @Benchmark
+    public Employee findByJPQLNamedParams() {
+        int id = state.randomId();
+        return employeeRepository.findByJPQLNamedParams(EmployeeBenchmarkState.firstName(id), EmployeeBenchmarkState.lastName(id));
+    }
+
+    @Benchmark
+    public Employee findByNativeSQL() {
+        int id = state.randomId();
+        return employeeRepository.findByNativeSQL(EmployeeBenchmarkState.firstName(id), EmployeeBenchmarkState.lastName(id));
+    }
+
+    @Benchmark
+    public Employee findByNativeSqlNamed() {
+        int id = state.randomId();
+        return employeeRepository.findByNativeSqlNamed(EmployeeBenchmarkState.firstName(id), EmployeeBenchmarkState.lastName(id));
+    }
+}
@@ -0,0 +1,66 @@
+package com.junit.basics.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.junit.basics.model.EmployeeView;
+import com.junit.basics.serialization.EmployeeViewSerializer;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+//CPU time and bytes on the wire of a GET /allEmployees sized list, per format and with or without the gzip
+//response compression. The wire sizes are printed once per trial.
+//  mvn -Pbenchmark test-compile exec:exec -Djmh.args="EmployeeSerializationBenchmark"
+//On one vCPU: reflection 2.4 ms, lean JSON 1.6 ms, CBOR 1.6 ms; gzip adds ~9.5 ms to each of them.
+//Wire bytes: JSON 1015583 (gzip 105326), CBOR 816413 (gzip 110594), so once compressed CBOR saves nothing
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EmployeeSerializationBenchmark {
+    private static final int ROWS = 10_000;
+
+    //REFLECTION is Jackson's default bean serializer, JSON and CBOR use EmployeeViewSerializer
+    @Param({"REFLECTION", "JSON", "CBOR"})
+    public String format;
+
+    @Param({"false", "true"})
+    public boolean gzip;
+
+    private ObjectMapper mapper;
+    private List<EmployeeView> employees;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        SimpleModule lean = new SimpleModule().addSerializer(new EmployeeViewSerializer());
+        mapper = switch (format) {
+            case "REFLECTION" -> new ObjectMapper();
+            case "JSON" -> new ObjectMapper().registerModule(lean);
+            case "CBOR" -> CBORMapper.builder().addModule(lean).build();
+            default -> throw new IllegalArgumentException(format);
+        };
+        employees = new ArrayList<>(ROWS);
+        for (int id = 1; id <= ROWS; id++)
+            employees.add(new EmployeeView(id, EmployeeBenchmarkState.firstName(id), EmployeeBenchmarkState.lastName(id),
+                    "employee" + id + "@gmail.com", 0));
+        System.out.println(format + (gzip ? " gzip" : "") + " wire bytes: " + serialize().length);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(1 << 20);
+        try (OutputStream out = gzip ? new GZIPOutputStream(bytes, 8192) : bytes) {
+            mapper.writeValue(out, employees);
+        }
+        return bytes.toByteArray();
+    }
+}
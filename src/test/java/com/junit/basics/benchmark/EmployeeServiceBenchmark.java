@@ -0,0 +1,48 @@
+package com.junit.basics.benchmark;
+
+import com.junit.basics.model.Employee;
+import com.junit.basics.model.EmployeeView;
+import com.junit.basics.service.EmployeeService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+//throughput plus sampled latency percentiles (p50/p90/p99/...) of the service layer at each table size
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class EmployeeServiceBenchmark {
+    private static final AtomicInteger NEXT_EMAIL = new AtomicInteger();
+
+    private EmployeeBenchmarkState state;
+    private EmployeeService employeeService;
+
+    @Setup(Level.Trial)
+    public void setup(EmployeeBenchmarkState state) {
+        this.state = state;
+        employeeService = state.getBean(EmployeeService.class);
+    }
+
+    @Benchmark
+    public Employee saveEmployee() {
+        return employeeService.saveEmployee(Employee.builder()
+                .firstName("Bench").lastName("Mark")
+                .email("bench" + NEXT_EMAIL.incrementAndGet() + "@gmail.com").build());
+    }
+
+    @Benchmark
+    public Optional<EmployeeView> getEmployeeById() {
+        return employeeService.getEmployeeById(state.randomId());
+    }
+
+    @Benchmark
+    public List<EmployeeView> getAllEmployee() {
+        return employeeService.getAllEmployee();
+    }
+}
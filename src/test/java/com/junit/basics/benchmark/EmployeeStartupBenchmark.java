@@ -0,0 +1,99 @@
+package com.junit.basics.benchmark;
+
+import com.junit.basics.SpringBootTestingApplication;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.TimeUnit;
+
+//time to first request of a new instance: SpringApplication.run up to the first answered GET /api/employees/{id},
+//once per fresh JVM. The schema exists before the boot, as it does on a real deployment, so ddl-auto=update has
+//to diff it and the faststart profile only validates it.
+//  mvn -Pbenchmark test-compile exec:exec -Djmh.args="EmployeeStartupBenchmark"
+//the JVM AOT variant needs the faststart processing from the aot profile:
+//  mvn -Paot,benchmark package exec:exec -DskipTests
+//      -Djmh.args="EmployeeStartupBenchmark -p profile=faststart -jvmArgsAppend -Dspring.aot.enabled=true"
+//
+//measured on a shared 1 vCPU machine, JDK 21, embedded H2, 1000 rows, 10 forks each (ms, lower is better):
+//  default                      14528 ± 1333
+//  faststart, lazy init         15625 ± 3169
+//  faststart, lazy init, AOT    11172 ± 1626
+//lazy initialisation did not pay off here: the EntityManagerFactory is still built before Tomcat starts and the
+//first request creates most of the rest, and a bean that fails to start only fails that request. The faststart
+//profile no longer enables it. The native image was not measured, it needs a GraalVM JDK
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(10)
+@State(Scope.Benchmark)
+public class EmployeeStartupBenchmark {
+    private static final String URL = "jdbc:h2:mem:startup;DB_CLOSE_DELAY=-1";
+    private static final int ROWS = 1000;
+
+    @Param({"default", "faststart"})
+    public String profile;
+
+    private ConfigurableApplicationContext context;
+
+    @Setup(Level.Trial)
+    public void createSchema() {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource(URL, "sa", ""));
+        jdbcTemplate.execute("create table employees (id integer not null, first_name varchar(255),"
+                + " last_name varchar(255), email varchar(255), deleted boolean default false not null,"
+                + " version integer default 0 not null,"
+                + " created_at timestamp(6) with time zone default current_timestamp(6) not null,"
+                + " updated_at timestamp(6) with time zone default current_timestamp(6) not null, primary key (id),"
+                + " constraint uk_employees_email unique (email))");
+        jdbcTemplate.execute("create index idx_employees_name on employees (first_name, last_name)");
+        jdbcTemplate.execute("create index idx_employees_deleted on employees (deleted)");
+        jdbcTemplate.execute("create index idx_employees_created_at on employees (created_at)");
+        jdbcTemplate.execute("create index idx_employees_updated_at on employees (updated_at, id)");
+        jdbcTemplate.execute("create table employee_ids (sequence_name varchar(255) not null, next_val bigint,"
+                + " primary key (sequence_name))");
+        jdbcTemplate.execute("create table employee_changes (id bigint not null, seq bigint, employee_id integer not null,"
+                + " type varchar(10) not null, first_name varchar(255), last_name varchar(255), email varchar(255),"
+                + " version integer, changed_at timestamp(6) with time zone not null, primary key (id),"
+                + " constraint uk_employee_changes_seq unique (seq))");
+        jdbcTemplate.execute("create index idx_employee_changes_relay on employee_changes (seq, changed_at)");
+        jdbcTemplate.execute("create index idx_employee_changes_changed_at on employee_changes (changed_at)");
+        EmployeeBenchmarkState.seed(jdbcTemplate, ROWS);
+    }
+
+    @Benchmark
+    public int startAndServeFirstRequest() throws IOException, InterruptedException {
+        //AOT mode looks up the generated initializer by the main class, which a JMH thread cannot deduce
+        context = new SpringApplicationBuilder(SpringBootTestingApplication.class)
+                .main(SpringBootTestingApplication.class)
+                .run(
+                "--spring.profiles.active=" + profile,
+                "--spring.datasource.url=" + URL,
+                "--spring.datasource.driver-class-name=org.h2.Driver",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--employee.export.fetch-size=1000",
+                "--server.port=0");
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/employees/1"))
+                .GET().build();
+        int status = HttpClient.newHttpClient().send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+        if(status != 200)
+            throw new IllegalStateException("First request answered " + status);
+        return status;
+    }
+
+    //shutting down is not part of the measurement
+    @TearDown(Level.Iteration)
+    public void close() {
+        context.close();
+    }
+}
@@ -0,0 +1,108 @@
+package com.junit.basics.concurrent;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class MicroBatcherTest {
+
+    private final ConcurrentLinkedQueue<Set<Integer>> batches = new ConcurrentLinkedQueue<>();
+
+    //even ids exist
+    private final Function<Set<Integer>, Map<Integer, String>> loader = ids -> {
+        batches.add(Set.copyOf(ids));
+        Map<Integer, String> values = new HashMap<>();
+        ids.stream().filter(id -> id % 2 == 0).forEach(id -> values.put(id, "employee" + id));
+        return values;
+    };
+
+    @Test
+    @DisplayName("Fan out of single lookups is loaded in full batches")
+    public void givenConcurrentLookups_whenLoad_thenOneLoaderCallPerFullBatch() throws Exception {
+        //given - precondition or setup
+        //a window long enough that only the size closes batches
+        try (MicroBatcher<Integer, String> batcher = new MicroBatcher<>(loader, 50, Duration.ofSeconds(30))) {
+
+            //when - action or the behaviour that we're going to test
+            List<Object> results = runConcurrently(200, id -> batcher.load(id));
+
+            //then - verify the output
+            assertThat(batches).hasSize(4).allMatch(batch -> batch.size() == 50);
+            assertThat(results).hasSize(200).filteredOn(result -> result != null).hasSize(100)
+                    .allMatch(result -> ((String) result).startsWith("employee"));
+        }
+    }
+
+    @Test
+    @DisplayName("A batch that does not fill up is loaded when the window ends")
+    public void givenSingleLookup_whenLoad_thenLoadedAfterWindow(){
+        //given - precondition or setup
+        try (MicroBatcher<Integer, String> batcher = new MicroBatcher<>(loader, 50, Duration.ofMillis(10))) {
+
+            //when - action or the behaviour that we're going to test
+            String found = batcher.load(2);
+            String missing = batcher.load(3);
+
+            //then - verify the output
+            assertThat(found).isEqualTo("employee2");
+            assertThat(missing).isNull();
+            assertThat(batches).containsExactly(Set.of(2), Set.of(3));
+        }
+    }
+
+    @Test
+    @DisplayName("Failure of the batch load reaches every caller in the batch")
+    public void givenFailingLoader_whenLoad_thenEveryCallerGetsException() throws Exception {
+        //given - precondition or setup
+        try (MicroBatcher<Integer, String> batcher = new MicroBatcher<>(ids -> {
+            throw new IllegalStateException("database down");
+        }, 5, Duration.ofSeconds(30))) {
+
+            //when - action or the behaviour that we're going to test
+            List<Object> results = runConcurrently(5, id -> batcher.load(id));
+
+            //then - verify the output
+            assertThat(results).hasSize(5).allMatch(result -> result instanceof IllegalStateException);
+        }
+    }
+
+    //calls lookup for ids 0 until callers from as many threads at once, returning each result or exception
+    private static List<Object> runConcurrently(int callers, IntFunction<String> lookup) throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        Map<Integer, Object> results = new ConcurrentHashMap<>();
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < callers; i++) {
+            int id = i;
+            threads.add(Thread.startVirtualThread(() -> {
+                try {
+                    start.await();
+                    String result = lookup.apply(id);
+                    results.put(id, result == null ? "null" : result);
+                } catch (RuntimeException e) {
+                    results.put(id, e);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }));
+        }
+        start.countDown();
+        for (Thread thread : threads)
+            thread.join(10_000);
+        List<Object> list = new ArrayList<>();
+        results.values().forEach(result -> list.add("null".equals(result) ? null : result));
+        return list;
+    }
+}
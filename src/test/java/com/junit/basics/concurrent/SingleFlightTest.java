@@ -0,0 +1,101 @@
+package com.junit.basics.concurrent;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class SingleFlightTest {
+    private static final int CALLERS = 50;
+
+    private final SingleFlight<Integer, String> singleFlight = new SingleFlight<>();
+
+    @Test
+    @DisplayName("Thundering herd for one key runs the call once")
+    public void givenConcurrentCallersForOneKey_whenExecute_thenCallRunsOnce() throws Exception {
+        //given - precondition or setup
+        AtomicInteger calls = new AtomicInteger();
+        Herd herd = new Herd();
+
+        //when - action or the behaviour that we're going to test
+        List<Object> results = herd.run(() -> {
+            calls.incrementAndGet();
+            herd.awaitFollowers();
+            return "employee";
+        });
+
+        //then - verify the output
+        assertThat(calls).hasValue(1);
+        assertThat(results).hasSize(CALLERS).containsOnly("employee");
+        assertThat(singleFlight.getInFlightCount()).isZero();
+        //nothing is cached, the next caller queries again
+        assertThat(singleFlight.execute(110, () -> "again")).isEqualTo("again");
+    }
+
+    @Test
+    @DisplayName("Failure of the shared call reaches every waiting caller")
+    public void givenFailingCall_whenExecute_thenEveryCallerGetsException() throws Exception {
+        //given - precondition or setup
+        Herd herd = new Herd();
+
+        //when - action or the behaviour that we're going to test
+        List<Object> results = herd.run(() -> {
+            herd.awaitFollowers();
+            throw new IllegalStateException("database down");
+        });
+
+        //then - verify the output
+        assertThat(results).hasSize(CALLERS).allMatch(result -> result instanceof IllegalStateException);
+        assertThatThrownBy(() -> singleFlight.execute(110, () -> {
+            throw new IllegalArgumentException("next flight");
+        })).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    //CALLERS threads executing key 110 at once; the leader's call holds the flight open until every other caller
+    //is parked waiting on it
+    private class Herd {
+        private final AtomicInteger arrived = new AtomicInteger();
+        private final List<Thread> threads = new ArrayList<>();
+
+        List<Object> run(Supplier<String> call) throws InterruptedException {
+            CountDownLatch start = new CountDownLatch(1);
+            ConcurrentLinkedQueue<Object> results = new ConcurrentLinkedQueue<>();
+            for (int i = 0; i < CALLERS; i++) {
+                Thread thread = new Thread(() -> {
+                    try {
+                        start.await();
+                        arrived.incrementAndGet();
+                        results.add(singleFlight.execute(110, call));
+                    } catch (RuntimeException e) {
+                        results.add(e);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+                threads.add(thread);
+                thread.start();
+            }
+            start.countDown();
+            for (Thread thread : threads)
+                thread.join(10_000);
+            return new ArrayList<>(results);
+        }
+
+        void awaitFollowers() {
+            long deadline = System.currentTimeMillis() + 10_000;
+            while (System.currentTimeMillis() < deadline && (arrived.get() < CALLERS || threads.stream()
+                    .filter(thread -> thread != Thread.currentThread())
+                    .anyMatch(thread -> thread.getState() != Thread.State.WAITING)))
+                LockSupport.parkNanos(1_000_000);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.junit.basics.config;
+
+import com.junit.basics.model.EmployeeDeltaEntry;
+import com.junit.basics.model.EmployeeView;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class EmployeeRuntimeHintsTest {
+
+    @Test
+    @DisplayName("Constructors used by the JPQL constructor expressions are registered for reflection")
+    public void givenRegistrar_whenRegisterHints_thenProjectionConstructorsReflective() throws Exception {
+        //given - precondition or setup
+        RuntimeHints hints = new RuntimeHints();
+
+        //when - action or the behaviour that we're going to test
+        new EmployeeRuntimeHints().registerHints(hints, getClass().getClassLoader());
+
+        //then - verify the output
+        assertThat(RuntimeHintsPredicates.reflection().onConstructor(EmployeeView.class.getConstructor(
+                int.class, String.class, String.class, String.class, Integer.class))).accepts(hints);
+        assertThat(RuntimeHintsPredicates.reflection().onConstructor(EmployeeDeltaEntry.class.getConstructor(
+                int.class, String.class, String.class, String.class, Integer.class, Instant.class,
+                boolean.class))).accepts(hints);
+    }
+}
@@ -0,0 +1,78 @@
+package com.junit.basics.controller;
+
+import com.junit.basics.event.EmployeeChangeFeed;
+import com.junit.basics.model.EmployeeChange;
+import com.junit.basics.service.EmployeeChangeService;
+import org.hamcrest.CoreMatchers;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.BDDMockito;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+
+@WebMvcTest(EmployeeChangeController.class)
+public class EmployeeChangeControllerTest {
+
+    @MockBean
+    private EmployeeChangeService employeeChangeService;
+    @MockBean
+    private EmployeeChangeFeed employeeChangeFeed;
+    @Autowired
+    private MockMvc mockMvc;
+
+    private final EmployeeChange change = EmployeeChange.builder()
+            .seq(8L).employeeId(1).type(EmployeeChange.Type.UPSERT)
+            .firstName("John").lastName("Cena").email("john@gmail.com").version(2)
+            .changedAt(Instant.parse("2024-01-01T10:00:00Z")).build();
+
+    @Test
+    @DisplayName("Junit to poll employee changes")
+    public void givenSeq_whenGetChanges_thenReturnChangesAfterIt() throws Exception {
+        //given - precondition or setup
+        BDDMockito.given(employeeChangeService.getChangesAfter(7, 500)).willReturn(List.of(change));
+
+        //when - action or the behaviour that we're going to test
+        ResultActions response = mockMvc.perform(MockMvcRequestBuilders.get("/api/employees/changes")
+                .param("since", "7"));
+
+        //then - verify the output
+        response.andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.size()", CoreMatchers.is(1)))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].seq", CoreMatchers.is(8)))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].type", CoreMatchers.is("UPSERT")))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].id").doesNotExist());
+    }
+
+    @Test
+    @DisplayName("Junit to stream employee changes as server sent events, resuming from Last-Event-ID")
+    public void givenLastEventId_whenStreamChanges_thenSendEventsAfterIt() throws Exception {
+        //given - precondition or setup
+        BDDMockito.given(employeeChangeFeed.subscribe(eq(7L), any())).willAnswer(invocation -> {
+            invocation.getArgument(1, EmployeeChangeFeed.Sink.class).accept(change);
+            return Mockito.mock(EmployeeChangeFeed.Subscription.class);
+        });
+
+        //when - action or the behaviour that we're going to test
+        ResultActions response = mockMvc.perform(MockMvcRequestBuilders.get("/api/employees/changes")
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .header("Last-Event-ID", "7"));
+
+        //then - verify the output
+        response.andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andExpect(MockMvcResultMatchers.content().string(CoreMatchers.containsString(
+                        "id:8\nevent:employee-change\ndata:{\"seq\":8,\"employeeId\":1,\"type\":\"UPSERT\"")));
+    }
+}
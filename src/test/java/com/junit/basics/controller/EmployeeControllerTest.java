@@ -2,8 +2,16 @@ package com.junit.basics.controller;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.junit.basics.exceptions.PreconditionFailedException;
 import com.junit.basics.model.Employee;
+import com.junit.basics.model.EmployeeCreateResult;
+import com.junit.basics.model.EmployeeDelta;
+import com.junit.basics.model.EmployeeDeltaEntry;
+import com.junit.basics.model.EmployeePage;
+import com.junit.basics.model.EmployeeView;
 import com.junit.basics.service.EmployeeService;
+import org.assertj.core.api.Assertions;
 import org.hamcrest.CoreMatchers;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -13,20 +21,26 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Bean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.ResultActions;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultHandlers;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
 
-@WebMvcTest
+@WebMvcTest(EmployeeController.class)
 public class EmployeeControllerTest {
 
     @MockBean
@@ -61,13 +75,38 @@ public class EmployeeControllerTest {
     }
 
     @Test
-    @DisplayName("Junit to get all employees")
-    public void givenListOfEmployee_whenGetAllEmployee_thenReturnEmployeeList() throws Exception {
+    @DisplayName("Junit to create employees in batch")
+    public void givenEmployeeList_whenCreateEmployees_thenReturnRowResults() throws Exception {
         //given - precondition or setup
         List<Employee> list = new ArrayList<>();
         list.add(Employee.builder().firstName("Steve").lastName("Rogers").email("seteve@gmail.com").build());
-        list.add(Employee.builder().firstName("Hawk").lastName("Eye").email("hawk@gmail.com").build());
-        list.add(Employee.builder().firstName("Nat").lastName("Ben").email("nat@gmail.com").build());
+        list.add(Employee.builder().firstName("Hawk").lastName("Eye").email("seteve@gmail.com").build());
+
+        BDDMockito.given(employeeService.saveEmployees(any())).willReturn(List.of(
+                new EmployeeCreateResult(0, EmployeeCreateResult.Status.CREATED, list.get(0), null),
+                new EmployeeCreateResult(1, EmployeeCreateResult.Status.DUPLICATE_EMAIL, list.get(1),
+                        "Employee already exists with given email seteve@gmail.com")));
+
+        //when - action or the behaviour that we're going to test
+        ResultActions response = mockMvc.perform(MockMvcRequestBuilders.post("/api/employees/batchCreate")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(list)));
+
+        //then - verify the output
+        response.andDo(MockMvcResultHandlers.print())
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.size()", CoreMatchers.is(2)))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[1].status", CoreMatchers.is("DUPLICATE_EMAIL")));
+    }
+
+    @Test
+    @DisplayName("Junit to get all employees")
+    public void givenListOfEmployee_whenGetAllEmployee_thenReturnEmployeeList() throws Exception {
+        //given - precondition or setup
+        List<EmployeeView> list = new ArrayList<>();
+        list.add(EmployeeView.builder().firstName("Steve").lastName("Rogers").email("seteve@gmail.com").build());
+        list.add(EmployeeView.builder().firstName("Hawk").lastName("Eye").email("hawk@gmail.com").build());
+        list.add(EmployeeView.builder().firstName("Nat").lastName("Ben").email("nat@gmail.com").build());
 
         BDDMockito.given(employeeService.getAllEmployee()).willReturn(list);
 
@@ -81,11 +120,118 @@ public class EmployeeControllerTest {
                         CoreMatchers.is(list.size())));
     }
 
+    @Test
+    @DisplayName("Junit to get all employee as CBOR")
+    public void givenCborAccept_whenGetAllEmployee_thenReturnCbor() throws Exception {
+        //given - precondition or setup
+        List<EmployeeView> list = List.of(
+                EmployeeView.builder().id(1).firstName("Steve").lastName("Rogers").email("steve@gmail.com").version(0).build());
+        BDDMockito.given(employeeService.getAllEmployee()).willReturn(list);
+
+        //when - action or the behaviour that we're going to test
+        ResultActions response = mockMvc.perform(MockMvcRequestBuilders.get("/api/employees/allEmployees")
+                .accept(MediaType.APPLICATION_CBOR));
+
+        //then - verify the output
+        byte[] body = response.andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+        Assertions.assertThat(new CBORMapper().readValue(body, List.class))
+                .containsExactly(Map.of("id", 1, "firstName", "Steve", "lastName", "Rogers",
+                        "email", "steve@gmail.com", "version", 0));
+    }
+
+    @Test
+    @DisplayName("Junit to get employee page")
+    public void givenCursor_whenGetEmployeePage_thenReturnPage() throws Exception {
+        //given - precondition or setup
+        List<EmployeeView> list = new ArrayList<>();
+        list.add(EmployeeView.builder().id(1).firstName("Steve").lastName("Rogers").email("seteve@gmail.com").build());
+        list.add(EmployeeView.builder().id(2).firstName("Hawk").lastName("Eye").email("hawk@gmail.com").build());
+
+        BDDMockito.given(employeeService.getEmployeePage(null, 2)).willReturn(new EmployeePage(list, "Mg"));
+
+        //when - action or the behaviour that we're going to test
+        ResultActions response = mockMvc.perform(MockMvcRequestBuilders.get("/api/employees/page")
+                .param("size", "2"));
+
+        //then - verify the output
+        response.andExpect(MockMvcResultMatchers.status().isOk())
+                .andDo(MockMvcResultHandlers.print())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.employees.size()", CoreMatchers.is(2)))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.nextCursor", CoreMatchers.is("Mg")));
+    }
+
+    @Test
+    @DisplayName("Junit to get a list of employees by id")
+    public void givenIdList_whenGetEmployeesByIds_thenReturnEmployees() throws Exception {
+        //given - precondition or setup
+        BDDMockito.given(employeeService.getEmployeesByIds(List.of(2, 1))).willReturn(List.of(
+                EmployeeView.builder().id(2).firstName("Hawk").lastName("Eye").email("hawk@gmail.com").build(),
+                EmployeeView.builder().id(1).firstName("Steve").lastName("Rogers").email("steve@gmail.com").build()));
+
+        //when - action or the behaviour that we're going to test
+        ResultActions response = mockMvc.perform(MockMvcRequestBuilders.post("/api/employees/batchGet")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[2,1]"));
+
+        //then - verify the output
+        response.andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.size()", CoreMatchers.is(2)))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].email", CoreMatchers.is("hawk@gmail.com")));
+    }
+
+    @Test
+    @DisplayName("Junit to get employee delta")
+    public void givenSince_whenGetEmployeeDelta_thenReturnChangesAndTombstones() throws Exception {
+        //given - precondition or setup
+        Instant since = Instant.parse("2024-01-01T10:00:00Z");
+        EmployeeDelta delta = new EmployeeDelta(List.of(
+                new EmployeeDeltaEntry(1, "Steve", "Rogers", "steve@gmail.com", 2, since.plusSeconds(1), false),
+                new EmployeeDeltaEntry(2, null, null, null, null, since.plusSeconds(2), true)),
+                null, since.plusSeconds(60));
+        BDDMockito.given(employeeService.getEmployeeDelta(since, null, 500)).willReturn(delta);
+
+        //when - action or the behaviour that we're going to test
+        ResultActions response = mockMvc.perform(MockMvcRequestBuilders.get("/api/employees/delta")
+                .param("since", "2024-01-01T10:00:00Z"));
+
+        //then - verify the output
+        response.andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.changes.size()", CoreMatchers.is(2)))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.changes[1].deleted", CoreMatchers.is(true)))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.watermark", CoreMatchers.is("2024-01-01T10:01:00Z")));
+    }
+
+    @Test
+    @DisplayName("Junit to stream all employees")
+    public void givenEmployeesInChunks_whenStreamAllEmployees_thenReturnEmployeeArray() throws Exception {
+        //given - precondition or setup
+        List<EmployeeView> chunk = new ArrayList<>();
+        for (int i = 1; i <= 500; i++)
+            chunk.add(EmployeeView.builder().id(i).firstName("First" + i).lastName("Last").email(i + "@gmail.com").build());
+        EmployeeView last = EmployeeView.builder().id(501).firstName("Nat").lastName("Ben").email("nat@gmail.com").build();
+
+        BDDMockito.given(employeeService.getEmployeesAfter(eq(0), anyInt())).willReturn(chunk);
+        BDDMockito.given(employeeService.getEmployeesAfter(eq(500), anyInt())).willReturn(List.of(last));
+
+        //when - action or the behaviour that we're going to test
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.get("/api/employees/allEmployees/stream"))
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn();
+        ResultActions response = mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(result));
+
+        //then - verify the output
+        response.andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.size()", CoreMatchers.is(501)))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[500].email", CoreMatchers.is("nat@gmail.com")));
+    }
+
     @Test
     @DisplayName("Junit to find employee by id")
     public void givenEmployeeId_whenFindEmployeeById_thenReturnEmployee() throws Exception {
         //given - precondition or setup
-        Employee employee = Employee.builder().firstName("Hawk").lastName("Eye").email("hawk@gmail.com").build();
+        EmployeeView employee = EmployeeView.builder().firstName("Hawk").lastName("Eye").email("hawk@gmail.com").build();
         int id = 1;
         BDDMockito.given(employeeService.getEmployeeById(id)).willReturn(Optional.of(employee));
 
@@ -99,6 +245,42 @@ public class EmployeeControllerTest {
                         CoreMatchers.is(employee.getLastName())));
     }
 
+    @Test
+    @DisplayName("Junit to find employee by email")
+    public void givenEmployeeEmail_whenFindEmployeeByEmail_thenReturnEmployee() throws Exception {
+        //given - precondition or setup
+        EmployeeView employee = EmployeeView.builder().firstName("Hawk").lastName("Eye").email("hawk@gmail.com").build();
+        BDDMockito.given(employeeService.getEmployeeByEmail("hawk@gmail.com")).willReturn(Optional.of(employee));
+
+        //when - action or the behaviour that we're going to test
+        ResultActions response = mockMvc.perform(MockMvcRequestBuilders.get("/api/employees/byEmail")
+                .param("email", "hawk@gmail.com"));
+
+        //then - verify the output
+        response.andDo(MockMvcResultHandlers.print())
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.firstName", CoreMatchers.is("Hawk")));
+    }
+
+    @Test
+    @DisplayName("Junit to find employees by name")
+    public void givenDuplicateNames_whenFindEmployeesByName_thenReturnEmployeeList() throws Exception {
+        //given - precondition or setup
+        List<EmployeeView> list = new ArrayList<>();
+        list.add(EmployeeView.builder().firstName("John").lastName("Cena").email("john.cena@gmail.com").build());
+        list.add(EmployeeView.builder().firstName("John").lastName("Cena").email("cena.john@gmail.com").build());
+        BDDMockito.given(employeeService.getEmployeesByName("John", "Cena")).willReturn(list);
+
+        //when - action or the behaviour that we're going to test
+        ResultActions response = mockMvc.perform(MockMvcRequestBuilders.get("/api/employees/byName")
+                .param("firstName", "John").param("lastName", "Cena"));
+
+        //then - verify the output
+        response.andDo(MockMvcResultHandlers.print())
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.size()", CoreMatchers.is(2)));
+    }
+
     @Test
     @DisplayName("Junit to update employee - positive scenario")
     public void givenEmployeeId_whenUpdateEmployeeObject_thenReturnUpdatedEmployee() throws Exception {
@@ -110,9 +292,8 @@ public class EmployeeControllerTest {
         Employee updatedEmp = Employee.builder()
                 .firstName("Chirs").lastName("Henry").email("chris.henry@gmail.com").build();
 
-        BDDMockito.given(employeeService.getEmployeeById(id)).willReturn(Optional.of(savedEmp));
         BDDMockito.given(employeeService.updateEmployee(any(Employee.class)))
-                .willAnswer(invocation -> invocation.getArgument(0));
+                .willAnswer(invocation -> Optional.of(invocation.getArgument(0)));
 
         //when - action or the behaviour that we're going to test
         ResultActions response = mockMvc.perform(MockMvcRequestBuilders.put("/api/employees/{id}", id)
@@ -123,7 +304,9 @@ public class EmployeeControllerTest {
         response.andDo(MockMvcResultHandlers.print())
                 .andExpect(MockMvcResultMatchers.status().isOk())
                 .andExpect(MockMvcResultMatchers.jsonPath("$.email",
-                        CoreMatchers.is("chris.henry@gmail.com")));
+                        CoreMatchers.is("chris.henry@gmail.com")))
+                .andExpect(MockMvcResultMatchers.header().doesNotExist(HttpHeaders.ETAG))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.createdAt").doesNotExist());
     }
 
     @Test
@@ -137,9 +320,7 @@ public class EmployeeControllerTest {
         Employee updatedEmp = Employee.builder()
                 .firstName("Chirs").lastName("Henry").email("chris.henry@gmail.com").build();
 
-        BDDMockito.given(employeeService.getEmployeeById(id)).willReturn(Optional.empty());
-        BDDMockito.given(employeeService.updateEmployee(any(Employee.class)))
-                .willAnswer(invocation -> invocation.getArgument(0));
+        BDDMockito.given(employeeService.updateEmployee(any(Employee.class))).willReturn(Optional.empty());
 
         //when - action or the behaviour that we're going to test
         ResultActions response = mockMvc.perform(MockMvcRequestBuilders.put("/api/employees/{id}", id)
@@ -151,12 +332,101 @@ public class EmployeeControllerTest {
                 .andExpect(MockMvcResultMatchers.status().isNotFound());
     }
 
+    @Test
+    @DisplayName("Junit to find employee by id - unchanged since the client's copy")
+    public void givenMatchingIfNoneMatch_whenFindEmployeeById_thenReturnNotModified() throws Exception {
+        //given - precondition or setup
+        EmployeeView employee = EmployeeView.builder().id(1).firstName("Hawk").lastName("Eye")
+                .email("hawk@gmail.com").version(3).build();
+        BDDMockito.given(employeeService.getEmployeeById(1)).willReturn(Optional.of(employee));
+
+        //when - action or the behaviour that we're going to test
+        ResultActions response = mockMvc.perform(MockMvcRequestBuilders.get("/api/employees/{id}", 1)
+                .header(HttpHeaders.IF_NONE_MATCH, "\"3\""));
+
+        //then - verify the output
+        response.andExpect(MockMvcResultMatchers.status().isNotModified())
+                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.ETAG, "\"3\""))
+                .andExpect(MockMvcResultMatchers.content().string(""));
+    }
+
+    @Test
+    @DisplayName("Junit to update employee with If-Match")
+    public void givenIfMatch_whenUpdateEmployee_thenConditionalUpdateWithNewETag() throws Exception {
+        //given - precondition or setup
+        Employee updatedEmp = Employee.builder()
+                .firstName("Chirs").lastName("Henry").email("chris.henry@gmail.com").build();
+        BDDMockito.given(employeeService.updateEmployee(any(Employee.class))).willAnswer(invocation -> {
+            Employee employee = invocation.getArgument(0);
+            employee.setVersion(employee.getVersion() + 1);
+            return Optional.of(employee);
+        });
+
+        //when - action or the behaviour that we're going to test
+        ResultActions response = mockMvc.perform(MockMvcRequestBuilders.put("/api/employees/{id}", 1)
+                .header(HttpHeaders.IF_MATCH, "\"3\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(updatedEmp)));
+
+        //then - verify the output
+        response.andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.ETAG, "\"4\""))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.version", CoreMatchers.is(4)));
+    }
+
+    @Test
+    @DisplayName("Junit to update employee - stale If-Match")
+    public void givenStaleIfMatch_whenUpdateEmployee_thenReturnPreconditionFailed() throws Exception {
+        //given - precondition or setup
+        Employee updatedEmp = Employee.builder()
+                .firstName("Chirs").lastName("Henry").email("chris.henry@gmail.com").build();
+        BDDMockito.given(employeeService.updateEmployee(any(Employee.class)))
+                .willThrow(new PreconditionFailedException("Employee 1 was modified since version 2"));
+
+        //when - action or the behaviour that we're going to test
+        ResultActions stale = mockMvc.perform(MockMvcRequestBuilders.put("/api/employees/{id}", 1)
+                .header(HttpHeaders.IF_MATCH, "\"2\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(updatedEmp)));
+        ResultActions weak = mockMvc.perform(MockMvcRequestBuilders.put("/api/employees/{id}", 1)
+                .header(HttpHeaders.IF_MATCH, "W/\"2\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(updatedEmp)));
+
+        //then - verify the output
+        stale.andExpect(MockMvcResultMatchers.status().isPreconditionFailed());
+        weak.andExpect(MockMvcResultMatchers.status().isPreconditionFailed());
+    }
+
+    @Test
+    @DisplayName("Junit to update employee - If-Match on a missing employee")
+    public void givenIfMatchAndMissingEmployee_whenUpdateEmployee_thenReturnPreconditionFailed() throws Exception {
+        //given - precondition or setup
+        Employee updatedEmp = Employee.builder()
+                .firstName("Chirs").lastName("Henry").email("chris.henry@gmail.com").build();
+        BDDMockito.given(employeeService.updateEmployee(any(Employee.class))).willReturn(Optional.empty());
+
+        //when - action or the behaviour that we're going to test
+        ResultActions any = mockMvc.perform(MockMvcRequestBuilders.put("/api/employees/{id}", 1)
+                .header(HttpHeaders.IF_MATCH, "*")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(updatedEmp)));
+        ResultActions version = mockMvc.perform(MockMvcRequestBuilders.put("/api/employees/{id}", 1)
+                .header(HttpHeaders.IF_MATCH, "\"2\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(updatedEmp)));
+
+        //then - verify the output
+        any.andExpect(MockMvcResultMatchers.status().isPreconditionFailed());
+        version.andExpect(MockMvcResultMatchers.status().isPreconditionFailed());
+    }
+
     @Test
     @DisplayName("Junit to delete employee")
     public void givenEmployeeId_whenDeleteEmployee_thenReturnSuccessful() throws Exception {
         //given - precondition or setup
         int id = 1;
-        BDDMockito.willDoNothing().given(employeeService).deleteById(id);
+        BDDMockito.given(employeeService.deleteById(id)).willReturn(true);
 
         //when - action or the behaviour that we're going to test
         ResultActions response = mockMvc.perform(MockMvcRequestBuilders.delete("/api/employees/{id}", id));
@@ -165,4 +435,37 @@ public class EmployeeControllerTest {
         response.andDo(MockMvcResultHandlers.print())
                 .andExpect(MockMvcResultMatchers.status().isOk());
     }
+
+    @Test
+    @DisplayName("Junit to delete employee - negative scenario")
+    public void givenMissingEmployeeId_whenDeleteEmployee_thenReturnNotFound() throws Exception {
+        //given - precondition or setup
+        int id = 1;
+        BDDMockito.given(employeeService.deleteById(id)).willReturn(false);
+
+        //when - action or the behaviour that we're going to test
+        ResultActions response = mockMvc.perform(MockMvcRequestBuilders.delete("/api/employees/{id}", id));
+
+        //then - verify the output
+        response.andDo(MockMvcResultHandlers.print())
+                .andExpect(MockMvcResultMatchers.status().isNotFound());
+    }
+
+    @Test
+    @DisplayName("Junit to delete a batch of employees")
+    public void givenEmployeeIds_whenDeleteEmployees_thenReturnDeletedCount() throws Exception {
+        //given - precondition or setup
+        List<Integer> ids = List.of(1, 2, 3);
+        BDDMockito.given(employeeService.deleteEmployees(ids)).willReturn(2);
+
+        //when - action or the behaviour that we're going to test
+        ResultActions response = mockMvc.perform(MockMvcRequestBuilders.post("/api/employees/batchDelete")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(ids)));
+
+        //then - verify the output
+        response.andDo(MockMvcResultHandlers.print())
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.deleted", CoreMatchers.is(2)));
+    }
 }
@@ -0,0 +1,66 @@
+package com.junit.basics.controller;
+
+import com.junit.basics.model.EmployeeExportFormat;
+import com.junit.basics.service.EmployeeExportService;
+import org.hamcrest.CoreMatchers;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.BDDMockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+@WebMvcTest(EmployeeExportController.class)
+public class EmployeeExportControllerTest {
+
+    @MockBean
+    private EmployeeExportService employeeExportService;
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    @DisplayName("Junit to export employees as gzip NDJSON")
+    public void givenFormatAndGzip_whenExportEmployees_thenStreamWithHeaders() throws Exception {
+        //given - precondition or setup
+        BDDMockito.willAnswer(invocation -> {
+            invocation.<OutputStream>getArgument(2).write("{}\n".getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).given(employeeExportService).export(ArgumentMatchers.eq(EmployeeExportFormat.NDJSON),
+                ArgumentMatchers.eq(true), ArgumentMatchers.any(OutputStream.class));
+
+        //when - action or the behaviour that we're going to test
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.get("/api/employees/export")
+                        .param("format", "ndjson").param("gzip", "true"))
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn();
+        ResultActions response = mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(result));
+
+        //then - verify the output
+        response.andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string("Content-Type", "application/x-ndjson"))
+                .andExpect(MockMvcResultMatchers.header().string("Content-Encoding", "gzip"))
+                .andExpect(MockMvcResultMatchers.header().string("Content-Disposition",
+                        CoreMatchers.containsString("employees.ndjson")))
+                .andExpect(MockMvcResultMatchers.content().string("{}\n"));
+    }
+
+    @Test
+    @DisplayName("Junit to export employees - unknown format")
+    public void givenUnknownFormat_whenExportEmployees_thenReturnBadRequest() throws Exception {
+        //when - action or the behaviour that we're going to test
+        ResultActions response = mockMvc.perform(MockMvcRequestBuilders.get("/api/employees/export")
+                .param("format", "xml"));
+
+        //then - verify the output
+        response.andExpect(MockMvcResultMatchers.status().isBadRequest());
+    }
+}
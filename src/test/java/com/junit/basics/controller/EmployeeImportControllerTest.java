@@ -0,0 +1,64 @@
+package com.junit.basics.controller;
+
+import com.junit.basics.model.EmployeeImportReport;
+import com.junit.basics.service.EmployeeImportService;
+import org.hamcrest.CoreMatchers;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.BDDMockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultHandlers;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+import java.io.Reader;
+
+@WebMvcTest(EmployeeImportController.class)
+public class EmployeeImportControllerTest {
+
+    @MockBean
+    private EmployeeImportService employeeImportService;
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    @DisplayName("Junit to import employees from CSV")
+    public void givenCsvBody_whenImport_thenReturnReport() throws Exception {
+        //given - precondition or setup
+        BDDMockito.given(employeeImportService.importCsv(ArgumentMatchers.any(Reader.class)))
+                .willReturn(EmployeeImportReport.builder().rows(2).created(2).chunks(1).build());
+
+        //when - action or the behaviour that we're going to test
+        ResultActions response = mockMvc.perform(MockMvcRequestBuilders.post("/api/employees/import")
+                .contentType(EmployeeImportController.TEXT_CSV)
+                .content("firstName,lastName,email\nA,B,a@gmail.com\nC,D,c@gmail.com\n"));
+
+        //then - verify the output
+        response.andDo(MockMvcResultHandlers.print())
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.created", CoreMatchers.is(2)));
+        BDDMockito.verify(employeeImportService).importCsv(ArgumentMatchers.any(Reader.class));
+    }
+
+    @Test
+    @DisplayName("Junit to import employees from NDJSON")
+    public void givenNdjsonBody_whenImport_thenReturnReport() throws Exception {
+        //given - precondition or setup
+        BDDMockito.given(employeeImportService.importNdjson(ArgumentMatchers.any(Reader.class)))
+                .willReturn(EmployeeImportReport.builder().rows(1).created(1).chunks(1).build());
+
+        //when - action or the behaviour that we're going to test
+        ResultActions response = mockMvc.perform(MockMvcRequestBuilders.post("/api/employees/import")
+                .contentType(EmployeeImportController.APPLICATION_NDJSON)
+                .content("{\"firstName\":\"A\",\"lastName\":\"B\",\"email\":\"a@gmail.com\"}\n"));
+
+        //then - verify the output
+        response.andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.rows", CoreMatchers.is(1)));
+    }
+}
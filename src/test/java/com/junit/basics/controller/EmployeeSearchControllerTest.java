@@ -0,0 +1,61 @@
+package com.junit.basics.controller;
+
+import com.junit.basics.exceptions.BadRequestException;
+import com.junit.basics.model.EmployeeSearchHit;
+import com.junit.basics.model.EmployeeView;
+import com.junit.basics.service.EmployeeSearchService;
+import org.hamcrest.CoreMatchers;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.BDDMockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+import java.util.List;
+
+@WebMvcTest(EmployeeSearchController.class)
+public class EmployeeSearchControllerTest {
+
+    @MockBean
+    private EmployeeSearchService employeeSearchService;
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    @DisplayName("Junit to search employees")
+    public void givenQuery_whenSearchEmployees_thenReturnHits() throws Exception {
+        //given - precondition or setup
+        BDDMockito.given(employeeSearchService.search("joh", 20)).willReturn(List.of(
+                new EmployeeSearchHit(new EmployeeView(1, "John", "Cena", "john@gmail.com", 0), 2.25)));
+
+        //when - action or the behaviour that we're going to test
+        ResultActions response = mockMvc.perform(MockMvcRequestBuilders.get("/api/employees/search")
+                .param("q", "joh"));
+
+        //then - verify the output
+        response.andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.size()", CoreMatchers.is(1)))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].employee.email", CoreMatchers.is("john@gmail.com")))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].score", CoreMatchers.is(2.25)));
+    }
+
+    @Test
+    @DisplayName("Junit to search employees - invalid limit")
+    public void givenInvalidLimit_whenSearchEmployees_thenReturnBadRequest() throws Exception {
+        //given - precondition or setup
+        BDDMockito.given(employeeSearchService.search("joh", 500))
+                .willThrow(new BadRequestException("limit must be between 1 and 100"));
+
+        //when - action or the behaviour that we're going to test
+        ResultActions response = mockMvc.perform(MockMvcRequestBuilders.get("/api/employees/search")
+                .param("q", "joh").param("limit", "500"));
+
+        //then - verify the output
+        response.andExpect(MockMvcResultMatchers.status().isBadRequest());
+    }
+}
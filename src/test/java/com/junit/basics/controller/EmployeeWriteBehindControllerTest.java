@@ -0,0 +1,92 @@
+package com.junit.basics.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.junit.basics.exceptions.ServiceUnavailableException;
+import com.junit.basics.model.Employee;
+import com.junit.basics.model.EmployeeCreateTicket;
+import com.junit.basics.service.EmployeeWriteBehindService;
+import org.hamcrest.CoreMatchers;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.BDDMockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultHandlers;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+import java.util.Optional;
+
+@WebMvcTest(controllers = EmployeeWriteBehindController.class, properties = "employee.write-behind.enabled=true")
+public class EmployeeWriteBehindControllerTest {
+
+    @MockBean
+    private EmployeeWriteBehindService writeBehindService;
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    @DisplayName("Junit to create employee asynchronously")
+    public void givenEmployeeObject_whenCreateEmployeeAsync_thenReturnAccepted() throws Exception {
+        //given - precondition or setup
+        Employee employee = Employee.builder().firstName("Hawk").lastName("Eye").email("hawk@gmail.com").build();
+        BDDMockito.given(writeBehindService.submit(ArgumentMatchers.any(Employee.class)))
+                .willReturn(new EmployeeCreateTicket("t-1", EmployeeCreateTicket.Status.PENDING, employee, null));
+
+        //when - action or the behaviour that we're going to test
+        ResultActions response = mockMvc.perform(MockMvcRequestBuilders.post("/api/employees/createAsync")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(employee)));
+
+        //then - verify the output
+        response.andDo(MockMvcResultHandlers.print())
+                .andExpect(MockMvcResultMatchers.status().isAccepted())
+                .andExpect(MockMvcResultMatchers.header().string("Location",
+                        CoreMatchers.endsWith("/api/employees/createAsync/t-1")))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.status", CoreMatchers.is("PENDING")));
+    }
+
+    @Test
+    @DisplayName("Junit to create employee asynchronously - queue full")
+    public void givenFullQueue_whenCreateEmployeeAsync_thenReturnServiceUnavailable() throws Exception {
+        //given - precondition or setup
+        Employee employee = Employee.builder().firstName("Hawk").lastName("Eye").email("hawk@gmail.com").build();
+        BDDMockito.given(writeBehindService.submit(ArgumentMatchers.any(Employee.class)))
+                .willThrow(new ServiceUnavailableException("Write-behind queue is full, retry later"));
+
+        //when - action or the behaviour that we're going to test
+        ResultActions response = mockMvc.perform(MockMvcRequestBuilders.post("/api/employees/createAsync")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(employee)));
+
+        //then - verify the output
+        response.andExpect(MockMvcResultMatchers.status().isServiceUnavailable());
+    }
+
+    @Test
+    @DisplayName("Junit to get create status")
+    public void givenTrackingId_whenGetCreateStatus_thenReturnTicket() throws Exception {
+        //given - precondition or setup
+        Employee employee = Employee.builder().id(7).firstName("Hawk").lastName("Eye").email("hawk@gmail.com").build();
+        BDDMockito.given(writeBehindService.getTicket("t-1")).willReturn(Optional.of(
+                new EmployeeCreateTicket("t-1", EmployeeCreateTicket.Status.CREATED, employee, null)));
+        BDDMockito.given(writeBehindService.getTicket("t-2")).willReturn(Optional.empty());
+
+        //when - action or the behaviour that we're going to test
+        ResultActions response = mockMvc.perform(MockMvcRequestBuilders.get("/api/employees/createAsync/{id}", "t-1"));
+        ResultActions missing = mockMvc.perform(MockMvcRequestBuilders.get("/api/employees/createAsync/{id}", "t-2"));
+
+        //then - verify the output
+        response.andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.status", CoreMatchers.is("CREATED")))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.employee.id", CoreMatchers.is(7)));
+        missing.andExpect(MockMvcResultMatchers.status().isNotFound());
+    }
+}
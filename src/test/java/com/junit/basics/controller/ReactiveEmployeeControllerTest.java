@@ -0,0 +1,98 @@
+package com.junit.basics.controller;
+
+import com.junit.basics.model.Employee;
+import com.junit.basics.service.ReactiveEmployeeService;
+import org.hamcrest.CoreMatchers;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.BDDMockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultHandlers;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@WebMvcTest(ReactiveEmployeeController.class)
+public class ReactiveEmployeeControllerTest {
+
+    @MockBean
+    private ReactiveEmployeeService reactiveEmployeeService;
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    @DisplayName("Junit to find employee by id reactively")
+    public void givenEmployeeId_whenFindEmployeeById_thenReturnEmployee() throws Exception {
+        //given - precondition or setup
+        Employee employee = Employee.builder().id(1).firstName("Hawk").lastName("Eye").email("hawk@gmail.com").build();
+        BDDMockito.given(reactiveEmployeeService.getEmployeeById(1)).willReturn(Mono.just(employee));
+
+        //when - action or the behaviour that we're going to test
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.get("/api/reactive/employees/{id}", 1))
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn();
+        ResultActions response = mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(result));
+
+        //then - verify the output
+        response.andDo(MockMvcResultHandlers.print())
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.lastName", CoreMatchers.is("Eye")));
+    }
+
+    @Test
+    @DisplayName("Junit to find employee by id reactively - negative scenario")
+    public void givenEmployeeId_whenFindEmployeeById_thenReturnNotFound() throws Exception {
+        //given - precondition or setup
+        BDDMockito.given(reactiveEmployeeService.getEmployeeById(1)).willReturn(Mono.empty());
+
+        //when - action or the behaviour that we're going to test
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.get("/api/reactive/employees/{id}", 1))
+                .andReturn();
+        ResultActions response = mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(result));
+
+        //then - verify the output
+        response.andExpect(MockMvcResultMatchers.status().isNotFound());
+    }
+
+    @Test
+    @DisplayName("Junit to delete a missing employee reactively")
+    public void givenMissingEmployeeId_whenDeleteEmployee_thenReturnNotFound() throws Exception {
+        //given - precondition or setup
+        BDDMockito.given(reactiveEmployeeService.deleteById(1)).willReturn(Mono.just(false));
+
+        //when - action or the behaviour that we're going to test
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.delete("/api/reactive/employees/{id}", 1))
+                .andReturn();
+        ResultActions response = mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(result));
+
+        //then - verify the output
+        response.andExpect(MockMvcResultMatchers.status().isNotFound());
+    }
+
+    @Test
+    @DisplayName("Junit to stream all employees reactively")
+    public void givenEmployees_whenGetAllEmployee_thenReturnNdjson() throws Exception {
+        //given - precondition or setup
+        BDDMockito.given(reactiveEmployeeService.getAllEmployee()).willReturn(Flux.just(
+                Employee.builder().id(1).firstName("Steve").lastName("Rogers").email("seteve@gmail.com").build(),
+                Employee.builder().id(2).firstName("Hawk").lastName("Eye").email("hawk@gmail.com").build()));
+
+        //when - action or the behaviour that we're going to test
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.get("/api/reactive/employees/allEmployees"))
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn();
+        ResultActions response = mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(result));
+
+        //then - verify the output
+        response.andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.content().string(CoreMatchers.containsString("\"firstName\":\"Hawk\"")));
+        String[] lines = result.getResponse().getContentAsString().trim().split("\n");
+        org.assertj.core.api.Assertions.assertThat(lines).hasSize(2);
+    }
+}
@@ -0,0 +1,60 @@
+package com.junit.basics.datasource;
+
+import jakarta.servlet.http.Cookie;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class ReadYourWritesFilterTest {
+
+    private final Clock clock = Clock.fixed(Instant.ofEpochMilli(10_000), ZoneOffset.UTC);
+    private final ReadYourWritesFilter filter = new ReadYourWritesFilter(Duration.ofSeconds(2), clock);
+
+    @Test
+    @DisplayName("Junit for write request starting the sticky window")
+    public void givenWriteRequest_whenFilter_thenSetCookieAndPinToPrimary() throws Exception {
+        //given - precondition or setup
+        MockHttpServletRequest request = new MockHttpServletRequest("PUT", "/api/employees/1");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        AtomicBoolean pinned = new AtomicBoolean();
+
+        //when - action or the behaviour that we're going to test
+        filter.doFilter(request, response, (req, res) -> pinned.set(ReadYourWrites.isPinnedToPrimary()));
+
+        //then - verify the output
+        Assertions.assertThat(pinned).isTrue();
+        Assertions.assertThat(ReadYourWrites.isPinnedToPrimary()).isFalse();
+        Assertions.assertThat(response.getCookie(ReadYourWritesFilter.COOKIE_NAME).getValue()).isEqualTo("12000");
+        Assertions.assertThat(response.getCookie(ReadYourWritesFilter.COOKIE_NAME).getMaxAge()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Junit for reads pinned only inside the sticky window")
+    public void givenReadRequests_whenFilter_thenPinnedOnlyWithFreshCookie() throws Exception {
+        //given - precondition or setup
+        MockHttpServletRequest fresh = new MockHttpServletRequest("GET", "/api/employees/1");
+        fresh.setCookies(new Cookie(ReadYourWritesFilter.COOKIE_NAME, "12000"));
+        MockHttpServletRequest expired = new MockHttpServletRequest("GET", "/api/employees/1");
+        expired.setCookies(new Cookie(ReadYourWritesFilter.COOKIE_NAME, "9000"));
+        AtomicBoolean freshPinned = new AtomicBoolean();
+        AtomicBoolean expiredPinned = new AtomicBoolean();
+
+        //when - action or the behaviour that we're going to test
+        filter.doFilter(fresh, new MockHttpServletResponse(),
+                (req, res) -> freshPinned.set(ReadYourWrites.isPinnedToPrimary()));
+        filter.doFilter(expired, new MockHttpServletResponse(),
+                (req, res) -> expiredPinned.set(ReadYourWrites.isPinnedToPrimary()));
+
+        //then - verify the output
+        Assertions.assertThat(freshPinned).isTrue();
+        Assertions.assertThat(expiredPinned).isFalse();
+    }
+}
@@ -0,0 +1,153 @@
+package com.junit.basics.datasource;
+
+import org.assertj.core.api.Assertions;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+//two embedded H2 databases stand in for the MySQL primary and replica, each knows its own name
+public class ReplicaRoutingDataSourceTest {
+
+    private DataSource primary, replica;
+
+    @BeforeEach
+    public void setup(){
+        primary = database("primary");
+        replica = database("replica");
+    }
+
+    @AfterEach
+    public void cleanup(){
+        ReadYourWrites.unpin();
+        for (DataSource database : List.of(primary, replica))
+            new JdbcTemplate(database).execute("drop table server");
+    }
+
+    @Test
+    @DisplayName("Junit for routing read only transactions to the replica")
+    public void givenReadOnlyTransaction_whenQuery_thenReadFromReplica(){
+        //given - precondition or setup
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(primary, Map.of("replica-0", replica));
+
+        //when - action or the behaviour that we're going to test
+        String read = query(routing, true);
+        String write = query(routing, false);
+        ReadYourWrites.pinToPrimary();
+        String pinned = query(routing, true);
+
+        //then - verify the output
+        Assertions.assertThat(read).isEqualTo("replica");
+        Assertions.assertThat(write).isEqualTo("primary");
+        Assertions.assertThat(pinned).isEqualTo("primary");
+    }
+
+    @Test
+    @DisplayName("Junit for failing over from an unreachable replica")
+    public void givenUnreachableReplica_whenQuery_thenFailOverAndDropIt() throws SQLException {
+        //given - precondition or setup
+        DataSource down = mock(DataSource.class);
+        given(down.getConnection()).willThrow(new SQLException("Connection refused", "08S01"));
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        replicas.put("replica-0", down);
+        replicas.put("replica-1", replica);
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(primary, replicas);
+
+        //when - action or the behaviour that we're going to test
+        List<String> reads = List.of(query(routing, true), query(routing, true), query(routing, true));
+
+        //then - verify the output
+        Assertions.assertThat(reads).containsOnly("replica");
+        Assertions.assertThat(routing.getHealthyReplicas()).containsExactly("replica-1");
+    }
+
+    @Test
+    @DisplayName("Junit for a replica pool out of connections staying in the rotation")
+    public void givenExhaustedReplicaPool_whenQuery_thenThrowAndKeepReplica() throws SQLException {
+        //given - precondition or setup
+        DataSource busy = mock(DataSource.class);
+        given(busy.getConnection()).willThrow(new SQLTransientConnectionException(
+                "replica-0 - Connection is not available, request timed out after 5000ms."));
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(primary, Map.of("replica-0", busy));
+
+        //when - action or the behaviour that we're going to test
+        org.junit.jupiter.api.Assertions.assertThrows(DataAccessException.class, () -> {
+            query(routing, true);
+        });
+
+        //then - verify the output
+        Assertions.assertThat(routing.getHealthyReplicas()).containsExactly("replica-0");
+    }
+
+    @Test
+    @DisplayName("Junit for a replica pool timing out on an unreachable replica")
+    public void givenPoolTimeoutCausedByReplica_whenQuery_thenDropIt() throws SQLException {
+        //given - precondition or setup
+        DataSource down = mock(DataSource.class);
+        given(down.getConnection()).willThrow(new SQLTransientConnectionException(
+                "replica-0 - Connection is not available, request timed out after 5000ms.", "08S01",
+                new SQLException("Communications link failure", "08S01")));
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(primary, Map.of("replica-0", down));
+
+        //when - action or the behaviour that we're going to test
+        String read = query(routing, true);
+
+        //then - verify the output
+        Assertions.assertThat(read).isEqualTo("primary");
+        Assertions.assertThat(routing.getHealthyReplicas()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Junit for reads falling back to the primary and replicas coming back")
+    public void givenNoHealthyReplica_whenQuery_thenReadFromPrimaryUntilRecovered() throws SQLException {
+        //given - precondition or setup
+        DataSource flaky = mock(DataSource.class);
+        given(flaky.getConnection()).willThrow(new SQLException("Connection refused", "08S01"))
+                .willAnswer(invocation -> replica.getConnection());
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(primary, Map.of("replica-0", flaky));
+
+        //when - action or the behaviour that we're going to test
+        String duringOutage = query(routing, true);
+        routing.checkReplicas();
+        String recovered = query(routing, true);
+
+        //then - verify the output
+        Assertions.assertThat(duringOutage).isEqualTo("primary");
+        Assertions.assertThat(recovered).isEqualTo("replica");
+        Assertions.assertThat(routing.getHealthyReplicas()).containsExactly("replica-0");
+    }
+
+    //the same setup PersistenceConfig uses: the connection is only fetched at the first statement
+    private static String query(ReplicaRoutingDataSource routing, boolean readOnly) {
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routing);
+        TransactionTemplate transaction = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        transaction.setReadOnly(readOnly);
+        return transaction.execute(status ->
+                new JdbcTemplate(dataSource).queryForObject("select name from server", String.class));
+    }
+
+    private static DataSource database(String name) {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1");
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("create table server (name varchar(20))");
+        jdbc.update("insert into server values (?)", name);
+        return dataSource;
+    }
+}
@@ -0,0 +1,116 @@
+package com.junit.basics.event;
+
+import com.junit.basics.model.EmployeeChange;
+import com.junit.basics.service.EmployeeChangeService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+public class EmployeeChangeFeedWindowTest {
+    @Mock
+    private EmployeeChangeService employeeChangeService;
+
+    private EmployeeChangeFeed employeeChangeFeed;
+
+    @AfterEach
+    public void tearDown(){
+        employeeChangeFeed.stop();
+    }
+
+    private static List<EmployeeChange> changes(long fromSeq, long toSeq) {
+        List<EmployeeChange> changes = new ArrayList<>();
+        for (long seq = fromSeq; seq <= toSeq; seq++)
+            changes.add(EmployeeChange.builder().seq(seq).employeeId((int) seq).type(EmployeeChange.Type.DELETE).build());
+        return changes;
+    }
+
+    private static List<Long> take(BlockingQueue<EmployeeChange> received, int count) throws InterruptedException {
+        List<Long> seqs = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            EmployeeChange change = received.poll(10, TimeUnit.SECONDS);
+            assertThat(change).as("change %d", i + 1).isNotNull();
+            seqs.add(change.getSeq());
+        }
+        return seqs;
+    }
+
+    @Test
+    @DisplayName("Subscribers within the window are all served the published batch without reading the outbox")
+    public void givenSubscribersInWindow_whenPublish_thenDeliveredWithoutOutboxRead() throws Exception {
+        //given - precondition or setup
+        employeeChangeFeed = new EmployeeChangeFeed(employeeChangeService, Duration.ofSeconds(1), 100);
+        employeeChangeFeed.publish(changes(1, 2));
+        List<BlockingQueue<EmployeeChange>> queues = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            BlockingQueue<EmployeeChange> received = new LinkedBlockingQueue<>();
+            employeeChangeFeed.subscribe(i % 2 == 0 ? 0 : 2, received::add);
+            queues.add(received);
+        }
+
+        //when - action or the behaviour that we're going to test
+        employeeChangeFeed.publish(changes(3, 4));
+
+        //then - verify the output
+        for (int i = 0; i < queues.size(); i++)
+            assertThat(take(queues.get(i), i % 2 == 0 ? 4 : 2))
+                    .isEqualTo(i % 2 == 0 ? List.of(1L, 2L, 3L, 4L) : List.of(3L, 4L));
+        verify(employeeChangeService, never()).getChangesAfter(anyLong(), anyInt());
+    }
+
+    @Test
+    @DisplayName("Subscriber behind the window reads the outbox up to it, then continues from the window")
+    public void givenSubscriberBehindWindow_whenSubscribe_thenOutboxThenWindow() throws Exception {
+        //given - precondition or setup
+        employeeChangeFeed = new EmployeeChangeFeed(employeeChangeService, Duration.ofSeconds(1), 2);
+        employeeChangeFeed.publish(changes(1, 2));
+        employeeChangeFeed.publish(changes(3, 4));
+        given(employeeChangeService.getChangesAfter(0, 500)).willReturn(changes(1, 2));
+        BlockingQueue<EmployeeChange> received = new LinkedBlockingQueue<>();
+
+        //when - action or the behaviour that we're going to test
+        employeeChangeFeed.subscribe(0, received::add);
+
+        //then - verify the output
+        assertThat(take(received, 4)).containsExactly(1L, 2L, 3L, 4L);
+        assertThat(received.poll(200, TimeUnit.MILLISECONDS)).isNull();
+    }
+
+    @Test
+    @DisplayName("Batch relayed by another instance is read from the outbox once for all subscribers")
+    public void givenBatchRelayedElsewhere_whenCatchUp_thenOneOutboxRead() throws Exception {
+        //given - precondition or setup
+        employeeChangeFeed = new EmployeeChangeFeed(employeeChangeService, Duration.ofSeconds(1), 100);
+        employeeChangeFeed.publish(changes(1, 2));
+        given(employeeChangeService.getChangesAfter(2, 3)).willReturn(changes(3, 5));
+        BlockingQueue<EmployeeChange> first = new LinkedBlockingQueue<>();
+        BlockingQueue<EmployeeChange> second = new LinkedBlockingQueue<>();
+        employeeChangeFeed.subscribe(2, first::add);
+        employeeChangeFeed.subscribe(2, second::add);
+
+        //when - action or the behaviour that we're going to test
+        employeeChangeFeed.catchUp(5);
+
+        //then - verify the output
+        assertThat(take(first, 3)).containsExactly(3L, 4L, 5L);
+        assertThat(take(second, 3)).containsExactly(3L, 4L, 5L);
+        verify(employeeChangeService).getChangesAfter(2, 3);
+    }
+}
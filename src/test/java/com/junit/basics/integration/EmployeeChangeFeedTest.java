@@ -0,0 +1,130 @@
+package com.junit.basics.integration;
+
+import com.junit.basics.event.EmployeeChangeFeed;
+import com.junit.basics.model.Employee;
+import com.junit.basics.model.EmployeeChange;
+import com.junit.basics.service.EmployeeService;
+import com.junit.basics.service.ReactiveEmployeeService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+//writes through both services into one embedded H2 database and follows them through the outbox, the relay and
+//the feed to a subscriber living in the test
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:changes;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "employee.export.fetch-size=100",
+        "employee.changes.relay-interval=PT0.05S",
+        "employee.changes.send-timeout=PT0.5S",
+        "spring.r2dbc.url=r2dbc:h2:mem:///changes;DB_CLOSE_DELAY=-1",
+        "spring.r2dbc.username=sa",
+        "spring.r2dbc.password="})
+public class EmployeeChangeFeedTest {
+
+    @Autowired
+    private EmployeeService employeeService;
+    @Autowired
+    private ReactiveEmployeeService reactiveEmployeeService;
+    @Autowired
+    private EmployeeChangeFeed employeeChangeFeed;
+
+    @Test
+    @DisplayName("Subscriber receives every committed write once and in order, starting with earlier ones")
+    public void givenWritesBeforeAndAfterSubscribing_whenSubscribe_thenReceiveAllChangesInOrder() throws Exception {
+        //given - precondition or setup
+        Employee alex = employeeService.saveEmployee(Employee.builder()
+                .firstName("Alex").lastName("Carey").email("alex@gmail.com").build());
+        BlockingQueue<EmployeeChange> received = new LinkedBlockingQueue<>();
+
+        //when - action or the behaviour that we're going to test
+        try (EmployeeChangeFeed.Subscription subscription = employeeChangeFeed.subscribe(0, received::add)) {
+            employeeService.updateEmployee(Employee.builder().id(alex.getId())
+                    .firstName("Alex").lastName("Carey").email("alex.carey@gmail.com").build());
+            employeeService.saveEmployees(List.of(
+                    Employee.builder().firstName("Steve").lastName("Smith").email("smith@gmail.com").build(),
+                    Employee.builder().firstName("David").lastName("Warner").email("dwarner@gmail.com").build()));
+            Employee travis = reactiveEmployeeService.saveEmployee(Employee.builder()
+                    .firstName("Travis").lastName("Head").email("thead@gmail.com").build()).block();
+            employeeService.deleteById(travis.getId());
+            //rolled back, so never relayed
+            try {
+                employeeService.saveEmployee(Employee.builder()
+                        .firstName("Alex").lastName("Other").email("alex.carey@gmail.com").build());
+            } catch (RuntimeException expected) {
+            }
+
+            List<EmployeeChange> changes = new ArrayList<>();
+            while (changes.size() < 6) {
+                EmployeeChange change = received.poll(10, TimeUnit.SECONDS);
+                assertThat(change).as("change %d", changes.size() + 1).isNotNull();
+                changes.add(change);
+            }
+
+            //then - verify the output
+            assertThat(changes).extracting(EmployeeChange::getSeq, EmployeeChange::getType, EmployeeChange::getEmail,
+                            EmployeeChange::getVersion)
+                    .containsExactly(
+                            tuple(1L, EmployeeChange.Type.UPSERT, "alex@gmail.com", 0),
+                            tuple(2L, EmployeeChange.Type.UPSERT, "alex.carey@gmail.com", null),
+                            tuple(3L, EmployeeChange.Type.UPSERT, "smith@gmail.com", 0),
+                            tuple(4L, EmployeeChange.Type.UPSERT, "dwarner@gmail.com", 0),
+                            tuple(5L, EmployeeChange.Type.UPSERT, "thead@gmail.com", 0),
+                            tuple(6L, EmployeeChange.Type.DELETE, null, null));
+            assertThat(changes.get(5).getEmployeeId()).isEqualTo(travis.getId());
+            assertThat(received.poll(500, TimeUnit.MILLISECONDS)).isNull();
+            assertThat(subscription.getLastSeq()).isEqualTo(6);
+        }
+        assertThat(employeeChangeFeed.getSubscriberCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("Subscriber that stops reading is dropped after the send timeout without holding up the others")
+    public void givenStalledSubscriber_whenPublish_thenDroppedAndOthersReceive() throws Exception {
+        //given - precondition or setup
+        //far past the outbox, so the published change is delivered without reading it back
+        long seq = 1_000_000;
+        CountDownLatch never = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        BlockingQueue<EmployeeChange> received = new LinkedBlockingQueue<>();
+        EmployeeChange change = EmployeeChange.builder().seq(seq + 1).employeeId(1)
+                .type(EmployeeChange.Type.DELETE).build();
+
+        try (EmployeeChangeFeed.Subscription stalled = employeeChangeFeed.subscribe(seq, c -> {
+                 try {
+                     never.await();
+                 } catch (InterruptedException e) {
+                     interrupted.countDown();
+                     throw e;
+                 }
+             });
+             EmployeeChangeFeed.Subscription healthy = employeeChangeFeed.subscribe(seq, received::add)) {
+
+            //when - action or the behaviour that we're going to test
+            employeeChangeFeed.publish(List.of(change));
+
+            //then - verify the output
+            assertThat(received.poll(10, TimeUnit.SECONDS)).isSameAs(change);
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (employeeChangeFeed.getSubscriberCount() > 1 && System.nanoTime() < deadline)
+                Thread.sleep(50);
+            assertThat(employeeChangeFeed.getSubscriberCount()).isEqualTo(1);
+            assertThat(stalled.getLastSeq()).isEqualTo(seq);
+            assertThat(interrupted.await(10, TimeUnit.SECONDS)).isTrue();
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.junit.basics.integration;
+
+import com.junit.basics.model.Employee;
+import com.junit.basics.service.EmployeeService;
+import com.junit.basics.service.ReactiveEmployeeService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+//JPA and R2DBC share one embedded H2 database, so both id allocators work on the same employee_ids row
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:ids;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "employee.export.fetch-size=100",
+        "spring.r2dbc.url=r2dbc:h2:mem:///ids;DB_CLOSE_DELAY=-1",
+        "spring.r2dbc.username=sa",
+        "spring.r2dbc.password="})
+public class EmployeeIdAllocationTest {
+
+    @Autowired
+    private EmployeeService employeeService;
+    @Autowired
+    private ReactiveEmployeeService reactiveEmployeeService;
+
+    @Test
+    @DisplayName("Blocking and reactive creates never hand out the same id")
+    public void givenInterleavedCreates_whenSaveEmployee_thenIdsAreUnique(){
+        //when - action or the behaviour that we're going to test
+        Set<Integer> ids = new HashSet<>();
+        for (int i = 0; i < 120; i++) {
+            Employee employee = Employee.builder()
+                    .firstName("First" + i).lastName("Last")
+                    .email("employee" + i + "@gmail.com").build();
+            Employee saved = i % 3 == 0
+                    ? reactiveEmployeeService.saveEmployee(employee).block()
+                    : employeeService.saveEmployee(employee);
+            ids.add(saved.getId());
+        }
+
+        //then - verify the output
+        assertThat(ids).hasSize(120);
+        assertThat(reactiveEmployeeService.getAllEmployee().count().block()).isEqualTo(120);
+    }
+}
@@ -0,0 +1,79 @@
+package com.junit.basics.integration;
+
+import com.junit.basics.datasource.ReadYourWrites;
+import com.junit.basics.model.Employee;
+import com.junit.basics.model.EmployeeView;
+import com.junit.basics.service.EmployeeService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+//a primary and a replica as two embedded H2 databases. Hibernate creates the schema on the primary only, the replica
+//gets the same row by hand with version 42, so the version of a result tells which database answered. Lookups by id
+//go through the batcher, whose query runs on a thread of its own
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:routing-primary;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "employee.export.fetch-size=100",
+        "employee.datasource.replicas[0].url=" + EmployeeReplicaReadTest.REPLICA_URL,
+        "employee.lookup.batch.enabled=true",
+        "spring.r2dbc.url=r2dbc:h2:mem:///routing-primary;DB_CLOSE_DELAY=-1",
+        "spring.r2dbc.username=sa",
+        "spring.r2dbc.password="})
+public class EmployeeReplicaReadTest {
+    static final String REPLICA_URL = "jdbc:h2:mem:routing-replica;DB_CLOSE_DELAY=-1";
+    private static final int REPLICA_VERSION = 42;
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @BeforeAll
+    public static void createReplicaSchema(){
+        new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", "")).execute(
+                "create table employees (id int primary key, first_name varchar(255), last_name varchar(255),"
+                        + " email varchar(255), version int, deleted boolean)");
+    }
+
+    @AfterEach
+    public void cleanup(){
+        ReadYourWrites.unpin();
+    }
+
+    @Test
+    @DisplayName("Lookups through the service read from the replica unless pinned to the primary")
+    public void givenEmployeeOnBothDatabases_whenLookup_thenReadFromReplica(){
+        //given - precondition or setup
+        Employee saved = employeeService.saveEmployee(Employee.builder()
+                .firstName("Alex").lastName("Carey").email("alex@gmail.com").build());
+        new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", "")).update(
+                "insert into employees values (?, 'Alex', 'Carey', 'alex@gmail.com', ?, false)",
+                saved.getId(), REPLICA_VERSION);
+
+        //when - action or the behaviour that we're going to test
+        EmployeeView byId = employeeService.getEmployeeById(saved.getId()).get();
+        EmployeeView byIds = employeeService.getEmployeesByIds(List.of(saved.getId())).get(0);
+        EmployeeView byEmail = employeeService.getEmployeeByEmail("alex@gmail.com").get();
+        EmployeeView byName = employeeService.getEmployeesByName("Alex", "Carey").get(0);
+        ReadYourWrites.pinToPrimary();
+        EmployeeView pinnedByName = employeeService.getEmployeesByName("Alex", "Carey").get(0);
+
+        //then - verify the output
+        assertThat(byId.getVersion()).isEqualTo(REPLICA_VERSION);
+        assertThat(byIds.getVersion()).isEqualTo(REPLICA_VERSION);
+        assertThat(byEmail.getVersion()).isEqualTo(REPLICA_VERSION);
+        assertThat(byName.getVersion()).isEqualTo(REPLICA_VERSION);
+        assertThat(pinnedByName.getVersion()).isZero();
+    }
+}
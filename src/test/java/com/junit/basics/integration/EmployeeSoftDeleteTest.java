@@ -0,0 +1,52 @@
+package com.junit.basics.integration;
+
+import com.junit.basics.model.Employee;
+import com.junit.basics.model.EmployeeCreateResult;
+import com.junit.basics.service.EmployeeService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+//soft deleted rows stay in the table until the purge job removes them, email included
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:soft-delete;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "employee.export.fetch-size=100",
+        "employee.delete.soft=true",
+        "employee.purge.interval=PT1H",
+        "spring.r2dbc.url=r2dbc:h2:mem:///soft-delete;DB_CLOSE_DELAY=-1",
+        "spring.r2dbc.username=sa",
+        "spring.r2dbc.password="})
+public class EmployeeSoftDeleteTest {
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Test
+    @DisplayName("Batch create reports the email of a soft deleted employee as a duplicate")
+    public void givenSoftDeletedEmployee_whenSaveEmployeesWithItsEmail_thenDuplicateEmail(){
+        //given - precondition or setup
+        Employee deleted = employeeService.saveEmployee(Employee.builder()
+                .firstName("Alex").lastName("Carey").email("alex@gmail.com").build());
+        assertThat(employeeService.deleteById(deleted.getId())).isTrue();
+
+        //when - action or the behaviour that we're going to test
+        List<EmployeeCreateResult> results = employeeService.saveEmployees(List.of(
+                Employee.builder().firstName("Alex").lastName("Other").email("alex@gmail.com").build(),
+                Employee.builder().firstName("Steve").lastName("Smith").email("smith@gmail.com").build()));
+
+        //then - verify the output
+        assertThat(results).extracting(EmployeeCreateResult::getStatus).containsExactly(
+                EmployeeCreateResult.Status.DUPLICATE_EMAIL, EmployeeCreateResult.Status.CREATED);
+        assertThat(employeeService.getEmployeeById(deleted.getId())).isEmpty();
+        assertThat(employeeService.getEmployeeByEmail("smith@gmail.com")).isPresent();
+    }
+}
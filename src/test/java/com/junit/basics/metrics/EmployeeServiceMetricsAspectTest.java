@@ -0,0 +1,62 @@
+package com.junit.basics.metrics;
+
+import com.junit.basics.exceptions.ResourceNotFoundException;
+import com.junit.basics.model.Employee;
+import com.junit.basics.service.EmployeeService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+
+@ExtendWith(MockitoExtension.class)
+public class EmployeeServiceMetricsAspectTest {
+    @Mock
+    private EmployeeService target;
+
+    private SimpleMeterRegistry meterRegistry;
+    private EmployeeService employeeService;
+
+    @BeforeEach
+    public void setup(){
+        meterRegistry = new SimpleMeterRegistry();
+        AspectJProxyFactory factory = new AspectJProxyFactory(target);
+        factory.addAspect(new EmployeeServiceMetricsAspect(meterRegistry));
+        employeeService = factory.getProxy();
+    }
+
+    @Test
+    @DisplayName("Service calls are timed by operation and outcome")
+    public void givenServiceCalls_whenInvoked_thenTimedByOperationAndOutcome(){
+        //given - precondition or setup
+        given(target.getEmployeeById(1)).willReturn(Optional.empty());
+        given(target.saveEmployee(any(Employee.class))).willThrow(new ResourceNotFoundException("duplicate"));
+
+        //when - action or the behaviour that we're going to test
+        employeeService.getEmployeeById(1);
+        employeeService.getEmployeeById(1);
+        employeeService.deleteEmployees(List.of(1));
+        org.junit.jupiter.api.Assertions.assertThrows(ResourceNotFoundException.class, () -> {
+            employeeService.saveEmployee(new Employee());
+        });
+
+        //then - verify the output
+        Assertions.assertThat(meterRegistry.get(EmployeeServiceMetricsAspect.TIMER)
+                .tags("operation", "getEmployeeById", "outcome", "not_found").timer().count()).isEqualTo(2);
+        Assertions.assertThat(meterRegistry.get(EmployeeServiceMetricsAspect.TIMER)
+                .tags("operation", "deleteEmployees", "outcome", "success").timer().count()).isEqualTo(1);
+        Assertions.assertThat(meterRegistry.get(EmployeeServiceMetricsAspect.TIMER)
+                .tags("operation", "saveEmployee", "outcome", "error", "exception", "ResourceNotFoundException")
+                .timer().count()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,38 @@
+package com.junit.basics.metrics;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.core.spi.FilterReply;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class SlowQueryLogLimiterTest {
+
+    @Test
+    @DisplayName("Slow query lines past the burst are dropped and counted, other loggers are left alone")
+    public void givenBurstOfSlowQueries_whenLogged_thenExcessSuppressed(){
+        //given - precondition or setup
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        //one line a minute, so no token comes back while the test runs
+        SlowQueryLogLimiter limiter = new SlowQueryLogLimiter(meterRegistry, 1.0 / 60, 2);
+        LoggerContext context = new LoggerContext();
+
+        //when - action or the behaviour that we're going to test
+        FilterReply levelCheck = limiter.decide(null, context.getLogger(SlowQueryLogLimiter.LOGGER), Level.INFO,
+                null, null, null);
+        FilterReply[] replies = new FilterReply[3];
+        for (int i = 0; i < replies.length; i++)
+            replies[i] = limiter.decide(null, context.getLogger(SlowQueryLogLimiter.LOGGER), Level.INFO,
+                    "Slow query took {} milliseconds [{}]", new Object[]{250, "select"}, null);
+        FilterReply other = limiter.decide(null, context.getLogger("org.hibernate.SQL"), Level.INFO,
+                "select", null, null);
+
+        //then - verify the output
+        Assertions.assertThat(levelCheck).isEqualTo(FilterReply.NEUTRAL);
+        Assertions.assertThat(replies).containsExactly(FilterReply.NEUTRAL, FilterReply.NEUTRAL, FilterReply.DENY);
+        Assertions.assertThat(other).isEqualTo(FilterReply.NEUTRAL);
+        Assertions.assertThat(meterRegistry.counter(SlowQueryLogLimiter.SUPPRESSED).count()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,55 @@
+package com.junit.basics.repository;
+
+import com.junit.basics.model.EmployeeChange;
+import com.junit.basics.service.EmployeeChangeService;
+import com.junit.basics.service.Impl.EmployeeChangeServiceImpl;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+//H2 rejects the negative fetch size application.properties configures for MySQL streaming
+@Import(EmployeeChangeServiceImpl.class)
+@DataJpaTest(properties = "employee.export.fetch-size=100")
+public class EmployeeChangeRepositoryTest {
+    @Autowired
+    private EmployeeChangeRepository employeeChangeRepository;
+    @Autowired
+    private EmployeeChangeService employeeChangeService;
+    @Autowired
+    private EntityManager entityManager;
+
+    private EmployeeChange change(int employeeId) {
+        return EmployeeChange.builder().employeeId(employeeId).type(EmployeeChange.Type.DELETE)
+                .changedAt(Instant.now()).build();
+    }
+
+    @Test
+    @DisplayName("Purging every relayed change keeps the latest seq, the next relay numbers on from it")
+    public void givenAllChangesPastRetention_whenPurgeAndRelay_thenSeqContinues(){
+        //given - precondition or setup
+        employeeChangeRepository.saveAll(List.of(change(1), change(2), change(3)));
+        assertThat(employeeChangeService.relay(10)).hasSize(3);
+        entityManager.flush();
+
+        //when - action or the behaviour that we're going to test
+        int purged = employeeChangeService.purgeChangesBefore(Instant.now().plus(1, ChronoUnit.DAYS), 10);
+        entityManager.clear();
+        employeeChangeRepository.save(change(4));
+        List<EmployeeChange> relayed = employeeChangeService.relay(10);
+
+        //then - verify the output
+        assertThat(purged).isEqualTo(2);
+        assertThat(relayed).extracting(EmployeeChange::getSeq).containsExactly(4L);
+        assertThat(employeeChangeService.getChangesAfter(3, 10)).extracting(EmployeeChange::getEmployeeId)
+                .containsExactly(4);
+    }
+}
@@ -1,6 +1,9 @@
 package com.junit.basics.repository;
 
+import com.junit.basics.config.AuditingConfig;
 import com.junit.basics.model.Employee;
+import com.junit.basics.model.EmployeeDeltaEntry;
+import com.junit.basics.model.EmployeeView;
 import org.assertj.core.api.Assertions;
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -12,11 +15,18 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
-@DataJpaTest
+//H2 rejects the negative fetch size application.properties configures for MySQL streaming
+@Import(AuditingConfig.class)
+@DataJpaTest(properties = "employee.export.fetch-size=100")
 public class EmployeeRepositoryTest {
     @Autowired
     private EmployeeRepository employeeRepository;
@@ -46,6 +56,21 @@ public class EmployeeRepositoryTest {
         assertThat(savedEmployee.getId()).isGreaterThan(0);
     }
 
+    @Test
+    @DisplayName("Save Employee with duplicate email")
+    public void givenExistingEmail_whenSaveAndFlush_thenThrowException(){
+        //given - precondition or setup
+        employeeRepository.saveAndFlush(employee);
+        Employee duplicate = Employee.builder()
+                .firstName("Ankit").lastName("Kumar")
+                .email("aalekh@gmail.com").build();
+
+        //when - action or the behaviour that we're going to test
+        org.junit.jupiter.api.Assertions.assertThrows(DataIntegrityViolationException.class, () -> {
+            employeeRepository.saveAndFlush(duplicate);
+        });
+    }
+
     @Test
     @DisplayName("Employees List")
     public void givenEmployeesList_whenFindAll_thenEmployeesList() {
@@ -127,6 +152,44 @@ public class EmployeeRepositoryTest {
         assertThat(updatedEmp.getEmail()).isEqualTo("aalekh.jaiswal@gmail.com");
     }
 
+    @Test
+    @DisplayName("Update Employee in a single statement")
+    public void givenEmployeeObject_whenUpdateById_thenReturnUpdatedRowCount(){
+        //given - precondition or setup
+        employeeRepository.save(employee);
+
+        //when - action or the behaviour that we're going to test
+        int updated = employeeRepository.updateById(employee.getId(), "Aalekh", "Jaiswal", "aalekh.jaiswal@gmail.com",
+                Instant.now());
+        int missing = employeeRepository.updateById(employee.getId() + 1, "Aalekh", "Jaiswal", "aalekh.jaiswal@gmail.com",
+                Instant.now());
+
+        //then - verify the output
+        assertThat(updated).isEqualTo(1);
+        assertThat(missing).isEqualTo(0);
+        assertThat(employeeRepository.findById(employee.getId()).get().getEmail()).isEqualTo("aalekh.jaiswal@gmail.com");
+    }
+
+    @Test
+    @DisplayName("Update Employee only when the version still matches")
+    public void givenVersion_whenUpdateByIdAndVersion_thenOnlyCurrentVersionWins(){
+        //given - precondition or setup
+        employeeRepository.saveAndFlush(employee);
+        int version = employee.getVersion();
+
+        //when - action or the behaviour that we're going to test
+        int first = employeeRepository.updateByIdAndVersion(employee.getId(), "Aalekh", "Jaiswal",
+                "aalekh.jaiswal@gmail.com", version, Instant.now());
+        int second = employeeRepository.updateByIdAndVersion(employee.getId(), "Aalekh", "Kumar",
+                "aalekh@gmail.com", version, Instant.now());
+
+        //then - verify the output
+        assertThat(first).isEqualTo(1);
+        assertThat(second).isZero();
+        assertThat(employeeRepository.findVersionById(employee.getId())).contains(version + 1);
+        assertThat(employeeRepository.findById(employee.getId()).get().getLastName()).isEqualTo("Jaiswal");
+    }
+
     @Test
     @DisplayName("Employee Delete")
     public void givenEmployeeObject_whenDelete_thenReturnEmployeeObject(){
@@ -211,4 +274,172 @@ public class EmployeeRepositoryTest {
         assertThat(savedEmp).isNotNull();
         assertThat(savedEmp.getEmail()).isEqualTo("aalekh@gmail.com");
     }
+
+    @Test
+    @DisplayName("Keyset page after last seen id")
+    public void givenEmployeesList_whenFindNextPage_thenReturnEmployeesAfterId(){
+        //given - precondition or setup
+        Employee employee1 = employeeRepository.save(Employee.builder()
+                .firstName("Aalekh").lastName("Kumar").email("aalekh@gmail.com").build());
+        Employee employee2 = employeeRepository.save(Employee.builder()
+                .firstName("Ankit").lastName("Kumar").email("ankit@gmail.com").build());
+        Employee employee3 = employeeRepository.save(Employee.builder()
+                .firstName("Aditya").lastName("Kumar").email("aditya@gmail.com").build());
+
+        //when - action or the behaviour that we're going to test
+        List<EmployeeView> page = employeeRepository.findNextPage(employee1.getId(), PageRequest.ofSize(1));
+
+        //then - verify the output
+        assertThat(page).hasSize(1);
+        assertThat(page.get(0).getId()).isEqualTo(employee2.getId());
+        assertThat(employeeRepository.findNextPage(employee3.getId(), PageRequest.ofSize(1))).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Delta keyset over audited update times")
+    public void givenAuditedEmployees_whenFindChangedAfter_thenReturnRowsAfterPosition(){
+        //given - precondition or setup
+        Instant before = Instant.now().minusSeconds(1);
+        Employee employee1 = employeeRepository.saveAndFlush(Employee.builder()
+                .firstName("Aalekh").lastName("Kumar").email("aalekh@gmail.com").build());
+        Employee employee2 = employeeRepository.saveAndFlush(Employee.builder()
+                .firstName("Ankit").lastName("Kumar").email("ankit@gmail.com").build());
+        Instant upTo = Instant.now().plusSeconds(1);
+
+        //when - action or the behaviour that we're going to test
+        List<EmployeeDeltaEntry> all = employeeRepository.findChangedAfter(before, Integer.MAX_VALUE, upTo,
+                PageRequest.ofSize(10));
+        List<EmployeeDeltaEntry> rest = employeeRepository.findChangedAfter(all.get(0).getUpdatedAt(),
+                all.get(0).getId(), upTo, PageRequest.ofSize(10));
+
+        //then - verify the output
+        assertThat(employee1.getCreatedAt()).isNotNull().isEqualTo(employee1.getUpdatedAt());
+        assertThat(all).extracting(EmployeeDeltaEntry::getId).containsExactly(employee1.getId(), employee2.getId());
+        assertThat(rest).extracting(EmployeeDeltaEntry::getId).containsExactly(employee2.getId());
+        assertThat(employeeRepository.findChangedAfter(before, Integer.MAX_VALUE, before, PageRequest.ofSize(10)))
+                .isEmpty();
+    }
+
+    @Test
+    @DisplayName("Custom Query using JPQL returning every match")
+    public void givenDuplicateNames_whenFindAllByJPQLNamed_thenReturnEmployeeList(){
+        //given - precondition or setup
+        employeeRepository.save(Employee.builder()
+                .firstName("John").lastName("Cena").email("john.cena@gmail.com").build());
+        employeeRepository.save(Employee.builder()
+                .firstName("John").lastName("Cena").email("cena.john@gmail.com").build());
+
+        //when - action or the behaviour that we're going to test
+        List<EmployeeView> employees = employeeRepository.findAllByJPQLNamedParams("John", "Cena");
+
+        //then - verify the output
+        assertThat(employees).hasSize(2);
+    }
+
+    @Test
+    @DisplayName("Projection lookups by id and email")
+    public void givenEmployeeObject_whenFindViewByIdAndEmail_thenReturnEmployeeView(){
+        //given - precondition or setup
+        Employee employee = employeeRepository.save(Employee.builder()
+                .firstName("Aalekh").lastName("Kumar").email("aalekh@gmail.com").build());
+
+        //when - action or the behaviour that we're going to test
+        EmployeeView byId = employeeRepository.findViewById(employee.getId()).get();
+        EmployeeView byEmail = employeeRepository.findViewByEmail("aalekh@gmail.com").get();
+
+        //then - verify the output
+        assertThat(byId).isEqualTo(EmployeeView.from(employee));
+        assertThat(byEmail).isEqualTo(byId);
+        assertThat(employeeRepository.findViewById(employee.getId() + 1)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Locking lookup of the ids a delete will remove")
+    public void givenEmployeeList_whenLockExistingIds_thenReturnOnlyExistingIds(){
+        //given - precondition or setup
+        Employee employee = employeeRepository.save(Employee.builder()
+                .firstName("Aalekh").lastName("Kumar").email("aalekh@gmail.com").build());
+
+        //when - action or the behaviour that we're going to test
+        List<Integer> ids = employeeRepository.lockExistingIds(List.of(employee.getId(), employee.getId() + 1));
+
+        //then - verify the output
+        assertThat(ids).containsExactly(employee.getId());
+    }
+
+    @Test
+    @DisplayName("Projection lookup of several ids in one query")
+    public void givenEmployeeList_whenFindViewsByIdIn_thenReturnFoundViews(){
+        //given - precondition or setup
+        Employee first = employeeRepository.save(Employee.builder()
+                .firstName("Aalekh").lastName("Kumar").email("aalekh@gmail.com").build());
+        Employee second = employeeRepository.save(Employee.builder()
+                .firstName("John").lastName("Cena").email("cena@gmail.com").build());
+
+        //when - action or the behaviour that we're going to test
+        List<EmployeeView> views = employeeRepository.findViewsByIdIn(
+                List.of(first.getId(), second.getId(), second.getId() + 1));
+
+        //then - verify the output
+        assertThat(views).containsExactlyInAnyOrder(EmployeeView.from(first), EmployeeView.from(second));
+    }
+
+    @Test
+    @DisplayName("Bulk delete by ids")
+    public void givenEmployeesList_whenDeleteAllByIdIn_thenReturnDeletedCount(){
+        //given - precondition or setup
+        Employee employee1 = employeeRepository.save(Employee.builder()
+                .firstName("Aalekh").lastName("Kumar").email("aalekh@gmail.com").build());
+        Employee employee2 = employeeRepository.save(Employee.builder()
+                .firstName("Ankit").lastName("Kumar").email("ankit@gmail.com").build());
+
+        //when - action or the behaviour that we're going to test
+        int deleted = employeeRepository.deleteAllByIdIn(List.of(employee1.getId(), employee2.getId() + 1));
+
+        //then - verify the output
+        assertThat(deleted).isEqualTo(1);
+        assertThat(employeeRepository.findAll()).extracting(Employee::getId).containsExactly(employee2.getId());
+    }
+
+    @Test
+    @DisplayName("Soft deleted employees are hidden and purged")
+    public void givenSoftDeletedEmployee_whenQueried_thenHiddenUntilPurged(){
+        //given - precondition or setup
+        Employee employee = employeeRepository.save(Employee.builder()
+                .firstName("Aalekh").lastName("Kumar").email("aalekh@gmail.com").build());
+
+        //when - action or the behaviour that we're going to test
+        int deleted = employeeRepository.softDeleteAllByIdIn(List.of(employee.getId()), Instant.now());
+
+        //then - verify the output
+        assertThat(deleted).isEqualTo(1);
+        assertThat(employeeRepository.findById(employee.getId())).isEmpty();
+        assertThat(employeeRepository.findViewById(employee.getId())).isEmpty();
+        assertThat(employeeRepository.findAllViews()).isEmpty();
+        assertThat(employeeRepository.findByNativeSQL("Aalekh", "Kumar")).isNull();
+        assertThat(employeeRepository.updateById(employee.getId(), "Aalekh", "Kumar", "aalekh@gmail.com",
+                Instant.now())).isZero();
+        assertThat(employeeRepository.findSoftDeletedIds(10)).containsExactly(employee.getId());
+        assertThat(employeeRepository.purgeByIdIn(List.of(employee.getId()))).isEqualTo(1);
+        assertThat(employeeRepository.findSoftDeletedIds(10)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Stream every employee ordered by id")
+    public void givenEmployeesList_whenStreamAllViews_thenReturnEmployeesInIdOrder(){
+        //given - precondition or setup
+        Employee employee1 = employeeRepository.save(Employee.builder()
+                .firstName("Aalekh").lastName("Kumar").email("aalekh@gmail.com").build());
+        Employee employee2 = employeeRepository.save(Employee.builder()
+                .firstName("Ankit").lastName("Kumar").email("ankit@gmail.com").build());
+
+        //when - action or the behaviour that we're going to test
+        List<Integer> ids;
+        try (Stream<EmployeeView> employees = employeeRepository.streamAllViews()) {
+            ids = employees.map(EmployeeView::getId).toList();
+        }
+
+        //then - verify the output
+        assertThat(ids).containsExactly(employee1.getId(), employee2.getId());
+    }
 }
@@ -0,0 +1,68 @@
+package com.junit.basics.search;
+
+import com.junit.basics.model.EmployeeSearchHit;
+import com.junit.basics.model.EmployeeView;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+public class EmployeeSearchIndexTest {
+
+    private EmployeeSearchIndex index;
+
+    @BeforeEach
+    public void setup(){
+        index = new EmployeeSearchIndex();
+        index.index(new EmployeeView(1, "John", "Cena", "john@gmail.com", 0));
+        index.index(new EmployeeView(2, "Johnny", "Depp", "depp@gmail.com", 0));
+        index.index(new EmployeeView(3, "Steve", "Johnson", "steve@yahoo.com", 0));
+    }
+
+    @Test
+    @DisplayName("Junit for prefix search ranking exact and name matches first")
+    public void givenPrefix_whenSearch_thenReturnRankedHits(){
+        //when - action or the behaviour that we're going to test
+        List<EmployeeSearchHit> hits = index.search("John", 10);
+
+        //then - verify the output
+        Assertions.assertThat(hits).extracting(hit -> hit.getEmployee().getId()).containsExactly(1, 2, 3);
+    }
+
+    @Test
+    @DisplayName("Junit for search requiring every query token to match")
+    public void givenSeveralTokens_whenSearch_thenOnlyEmployeesMatchingAll(){
+        //when - action or the behaviour that we're going to test
+        List<EmployeeSearchHit> hits = index.search("jo gmail", 10);
+
+        //then - verify the output
+        Assertions.assertThat(hits).extracting(hit -> hit.getEmployee().getId()).containsExactlyInAnyOrder(1, 2);
+        Assertions.assertThat(index.search("steve gmail", 10)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Junit for re-indexing and removing employees")
+    public void givenUpdatedAndRemovedEmployee_whenSearch_thenOldTermsGone(){
+        //given - precondition or setup
+        index.index(new EmployeeView(1, "Mark", "Cena", "mark@gmail.com", 0));
+        index.remove(2);
+
+        //when - action or the behaviour that we're going to test
+        List<EmployeeSearchHit> hits = index.search("john", 10);
+
+        //then - verify the output
+        Assertions.assertThat(hits).extracting(hit -> hit.getEmployee().getId()).containsExactly(3);
+        Assertions.assertThat(index.search("mark", 10)).hasSize(1);
+        Assertions.assertThat(index.size()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Junit for search limit and blank query")
+    public void givenLimitAndBlankQuery_whenSearch_thenBounded(){
+        //then - verify the output
+        Assertions.assertThat(index.search("j", 1)).hasSize(1);
+        Assertions.assertThat(index.search("  ", 10)).isEmpty();
+    }
+}
@@ -0,0 +1,49 @@
+package com.junit.basics.serialization;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.junit.basics.model.EmployeeView;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+public class EmployeeViewSerializerTest {
+
+    private final List<EmployeeView> employees = List.of(
+            new EmployeeView(1, "John", "Cena", "john@gmail.com", 3),
+            new EmployeeView(2, "Smith, \"Jr\"", null, "smith@gmail.com", null));
+
+    @Test
+    @DisplayName("Junit for hand-written serializer matching Jackson's default JSON")
+    public void givenEmployees_whenSerialize_thenSameJsonAsReflection() throws Exception {
+        //given - precondition or setup
+        ObjectMapper lean = new ObjectMapper().registerModule(module());
+
+        //when - action or the behaviour that we're going to test
+        String json = lean.writeValueAsString(employees);
+
+        //then - verify the output
+        Assertions.assertThat(json).isEqualTo(new ObjectMapper().writeValueAsString(employees));
+    }
+
+    @Test
+    @DisplayName("Junit for hand-written serializer writing CBOR")
+    public void givenEmployees_whenSerializeCbor_thenRoundTrip() throws Exception {
+        //given - precondition or setup
+        CBORMapper cbor = CBORMapper.builder().addModule(module()).build();
+
+        //when - action or the behaviour that we're going to test
+        byte[] bytes = cbor.writeValueAsBytes(employees);
+
+        //then - verify the output
+        Assertions.assertThat(new CBORMapper().readTree(bytes))
+                .isEqualTo(new ObjectMapper().readTree(new ObjectMapper().writeValueAsString(employees)));
+    }
+
+    private static SimpleModule module() {
+        return new SimpleModule().addSerializer(new EmployeeViewSerializer());
+    }
+}
@@ -0,0 +1,121 @@
+package com.junit.basics.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.junit.basics.model.EmployeeExportFormat;
+import com.junit.basics.model.EmployeeView;
+import com.junit.basics.repository.EmployeeRepository;
+import com.junit.basics.service.Impl.EmployeeExportServiceImpl;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+import static org.mockito.BDDMockito.given;
+
+@ExtendWith(MockitoExtension.class)
+public class EmployeeExportServiceTest {
+    @Mock
+    private EmployeeRepository employeeRepository;
+
+    private EmployeeExportServiceImpl employeeExportService;
+    private AtomicBoolean streamClosed;
+
+    @BeforeEach
+    public void setup(){
+        employeeExportService = new EmployeeExportServiceImpl(employeeRepository, new ObjectMapper());
+        streamClosed = new AtomicBoolean();
+        given(employeeRepository.streamAllViews()).willReturn(Stream.of(
+                new EmployeeView(110, "Alex", "Carey", "alex@gmail.com", 0),
+                new EmployeeView(111, "Smith, Jr", null, "smith@gmail.com", 0))
+                .onClose(() -> streamClosed.set(true)));
+    }
+
+    @Test
+    @DisplayName("Junit for CSV export")
+    public void givenEmployees_whenExportCsv_thenWriteCsvRows() throws IOException {
+        //given - precondition or setup
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        //when - action or the behaviour that we're going to test
+        employeeExportService.export(EmployeeExportFormat.CSV, false, out);
+
+        //then - verify the output
+        Assertions.assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo("id,firstName,lastName,email\n"
+                + "110,Alex,Carey,alex@gmail.com\n"
+                + "111,\"Smith, Jr\",,smith@gmail.com\n");
+        Assertions.assertThat(streamClosed).isTrue();
+    }
+
+    @Test
+    @DisplayName("Junit for gzip NDJSON export")
+    public void givenEmployees_whenExportGzipNdjson_thenWriteOneObjectPerLine() throws IOException {
+        //given - precondition or setup
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        //when - action or the behaviour that we're going to test
+        employeeExportService.export(EmployeeExportFormat.NDJSON, true, out);
+
+        //then - verify the output
+        String ndjson = new String(new GZIPInputStream(new ByteArrayInputStream(out.toByteArray())).readAllBytes(),
+                StandardCharsets.UTF_8);
+        Assertions.assertThat(ndjson.split("\n")).containsExactly(
+                "{\"id\":110,\"firstName\":\"Alex\",\"lastName\":\"Carey\",\"email\":\"alex@gmail.com\",\"version\":0}",
+                "{\"id\":111,\"firstName\":\"Smith, Jr\",\"lastName\":null,\"email\":\"smith@gmail.com\",\"version\":0}");
+    }
+
+    @Test
+    @DisplayName("Junit for columnar export")
+    public void givenEmployees_whenExportColumnar_thenWriteColumnBlocks() throws IOException {
+        //given - precondition or setup
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        //when - action or the behaviour that we're going to test
+        employeeExportService.export(EmployeeExportFormat.COLUMNAR, false, out);
+
+        //then - verify the output
+        InputStream in = new ByteArrayInputStream(out.toByteArray());
+        Assertions.assertThat(new String(in.readNBytes(4), StandardCharsets.US_ASCII)).isEqualTo("EMPC");
+        Assertions.assertThat(in.read()).isEqualTo(1);
+        Assertions.assertThat(readVarint(in)).isEqualTo(2);
+        //ids as deltas
+        Assertions.assertThat(readVarint(in)).isEqualTo(110);
+        Assertions.assertThat(readVarint(in)).isEqualTo(1);
+        Assertions.assertThat(readStrings(in, 2)).containsExactly("Alex", "Smith, Jr");
+        Assertions.assertThat(readStrings(in, 2)).containsExactly("Carey", null);
+        Assertions.assertThat(readStrings(in, 2)).containsExactly("alex@gmail.com", "smith@gmail.com");
+        Assertions.assertThat(readVarint(in)).isZero();
+        Assertions.assertThat(in.read()).isEqualTo(-1);
+    }
+
+    private static String[] readStrings(InputStream in, int rows) throws IOException {
+        int[] lengths = new int[rows];
+        for (int i = 0; i < rows; i++)
+            lengths[i] = readVarint(in);
+        String[] values = new String[rows];
+        for (int i = 0; i < rows; i++)
+            values[i] = lengths[i] == 0 ? null : new String(in.readNBytes(lengths[i] - 1), StandardCharsets.UTF_8);
+        return values;
+    }
+
+    private static int readVarint(InputStream in) throws IOException {
+        int value = 0;
+        for (int shift = 0; ; shift += 7) {
+            int b = in.read();
+            value |= (b & 0x7F) << shift;
+            if((b & 0x80) == 0)
+                return value;
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package com.junit.basics.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.junit.basics.exceptions.BadRequestException;
+import com.junit.basics.model.Employee;
+import com.junit.basics.model.EmployeeCreateResult;
+import com.junit.basics.model.EmployeeExportFormat;
+import com.junit.basics.model.EmployeeImportReport;
+import com.junit.basics.model.EmployeeView;
+import com.junit.basics.repository.EmployeeRepository;
+import com.junit.basics.service.Impl.EmployeeExportServiceImpl;
+import com.junit.basics.service.Impl.EmployeeImportServiceImpl;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class EmployeeImportServiceTest {
+    @Mock
+    private EmployeeService employeeService;
+
+    private EmployeeImportServiceImpl employeeImportService;
+
+    @BeforeEach
+    public void setup(){
+        employeeImportService = new EmployeeImportServiceImpl(employeeService, new ObjectMapper());
+        ReflectionTestUtils.setField(employeeImportService, "chunkSize", 2);
+    }
+
+    //reports every row as created except those whose email starts with "taken"
+    private void givenSaveEmployeesMarksTakenEmails(){
+        given(employeeService.saveEmployees(anyList())).willAnswer(invocation -> {
+            List<Employee> chunk = invocation.getArgument(0);
+            List<EmployeeCreateResult> results = new ArrayList<>();
+            for (int i = 0; i < chunk.size(); i++) {
+                boolean taken = chunk.get(i).getEmail().startsWith("taken");
+                results.add(new EmployeeCreateResult(i, taken ? EmployeeCreateResult.Status.DUPLICATE_EMAIL
+                        : EmployeeCreateResult.Status.CREATED, chunk.get(i), taken ? "duplicate" : null));
+            }
+            return results;
+        });
+    }
+
+    @Test
+    @DisplayName("Junit for CSV import in chunks")
+    public void givenCsvRows_whenImportCsv_thenWriteChunksAndReport() throws IOException {
+        //given - precondition or setup
+        givenSaveEmployeesMarksTakenEmails();
+        String csv = "email,first_name,last_name\n"
+                + "alex@gmail.com,Alex,Carey\n"
+                + "\"taken@gmail.com\",\"Smith, Jr\",Steve\n"
+                + "\n"
+                + "dwarner@gmail.com,David,Warner\n";
+
+        //when - action or the behaviour that we're going to test
+        EmployeeImportReport report = employeeImportService.importCsv(new StringReader(csv));
+
+        //then - verify the output
+        ArgumentCaptor<List<Employee>> chunks = ArgumentCaptor.forClass(List.class);
+        verify(employeeService, times(2)).saveEmployees(chunks.capture());
+        Assertions.assertThat(chunks.getAllValues().get(0).get(1).getFirstName()).isEqualTo("Smith, Jr");
+        Assertions.assertThat(report.getRows()).isEqualTo(3);
+        Assertions.assertThat(report.getCreated()).isEqualTo(2);
+        Assertions.assertThat(report.getDuplicates()).isEqualTo(1);
+        Assertions.assertThat(report.getChunks()).isEqualTo(2);
+        Assertions.assertThat(report.getErrors()).extracting(EmployeeImportReport.EmployeeImportError::getLine)
+                .containsExactly(3L);
+    }
+
+    @Test
+    @DisplayName("Junit for NDJSON import with an unreadable row")
+    public void givenNdjsonWithBadRow_whenImportNdjson_thenReportRowError() throws IOException {
+        //given - precondition or setup
+        givenSaveEmployeesMarksTakenEmails();
+        String ndjson = "{\"id\":5,\"firstName\":\"Alex\",\"lastName\":\"Carey\",\"email\":\"alex@gmail.com\"}\n"
+                + "{\"firstName\":\n"
+                + "{\"firstName\":\"Steve\",\"lastName\":\"Smith\",\"email\":\"smith@gmail.com\"}\n";
+
+        //when - action or the behaviour that we're going to test
+        EmployeeImportReport report = employeeImportService.importNdjson(new StringReader(ndjson));
+
+        //then - verify the output
+        ArgumentCaptor<List<Employee>> chunks = ArgumentCaptor.forClass(List.class);
+        verify(employeeService, times(1)).saveEmployees(chunks.capture());
+        Assertions.assertThat(chunks.getValue()).extracting(Employee::getId).containsExactly(0, 0);
+        Assertions.assertThat(report.getCreated()).isEqualTo(2);
+        Assertions.assertThat(report.getFailed()).isEqualTo(1);
+        Assertions.assertThat(report.getErrors()).extracting(EmployeeImportReport.EmployeeImportError::getLine)
+                .containsExactly(2L);
+    }
+
+    @Test
+    @DisplayName("Junit for NDJSON export imported again as new rows")
+    public void givenNdjsonExport_whenImportNdjson_thenRowsAreUnsaved() throws IOException {
+        //given - precondition or setup
+        givenSaveEmployeesMarksTakenEmails();
+        EmployeeRepository employeeRepository = mock(EmployeeRepository.class);
+        given(employeeRepository.streamAllViews()).willReturn(Stream.of(
+                new EmployeeView(110, "Alex", "Carey", "alex@gmail.com", 3),
+                new EmployeeView(111, "Steve", "Smith", "smith@gmail.com", 0)));
+        ByteArrayOutputStream exported = new ByteArrayOutputStream();
+        new EmployeeExportServiceImpl(employeeRepository, new ObjectMapper())
+                .export(EmployeeExportFormat.NDJSON, false, exported);
+
+        //when - action or the behaviour that we're going to test
+        EmployeeImportReport report = employeeImportService.importNdjson(
+                new StringReader(exported.toString(StandardCharsets.UTF_8)));
+
+        //then - verify the output
+        ArgumentCaptor<List<Employee>> chunks = ArgumentCaptor.forClass(List.class);
+        verify(employeeService, times(1)).saveEmployees(chunks.capture());
+        Assertions.assertThat(chunks.getValue())
+                .extracting(Employee::getId, Employee::getVersion, Employee::getCreatedAt, Employee::getUpdatedAt,
+                        Employee::getEmail)
+                .containsExactly(Assertions.tuple(0, null, null, null, "alex@gmail.com"),
+                        Assertions.tuple(0, null, null, null, "smith@gmail.com"));
+        Assertions.assertThat(report.getCreated()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Junit for failed chunk not stopping the import")
+    public void givenFailingChunk_whenImportCsv_thenLaterChunksStillWritten() throws IOException {
+        //given - precondition or setup
+        given(employeeService.saveEmployees(anyList()))
+                .willThrow(new IllegalStateException("connection lost"))
+                .willReturn(List.of(new EmployeeCreateResult(0, EmployeeCreateResult.Status.CREATED, null, null)));
+        String csv = "firstName,lastName,email\nA,B,a@gmail.com\nC,D,c@gmail.com\nE,F,e@gmail.com\n";
+
+        //when - action or the behaviour that we're going to test
+        EmployeeImportReport report = employeeImportService.importCsv(new StringReader(csv));
+
+        //then - verify the output
+        Assertions.assertThat(report.getFailed()).isEqualTo(2);
+        Assertions.assertThat(report.getCreated()).isEqualTo(1);
+        Assertions.assertThat(report.getErrors()).hasSize(2);
+    }
+
+    @Test
+    @DisplayName("Junit for chunk with one failing row reported on that row only")
+    public void givenChunkWithFailedRow_whenImportCsv_thenOnlyThatRowFailed() throws IOException {
+        //given - precondition or setup
+        given(employeeService.saveEmployees(anyList())).willAnswer(invocation -> {
+            List<Employee> chunk = invocation.getArgument(0);
+            return List.of(new EmployeeCreateResult(0, EmployeeCreateResult.Status.FAILED, chunk.get(0),
+                            "Value too long for column first_name\nSQL statement"),
+                    new EmployeeCreateResult(1, EmployeeCreateResult.Status.CREATED, chunk.get(1), null));
+        });
+        String csv = "firstName,lastName,email\nA,B,a@gmail.com\nC,D,c@gmail.com\n";
+
+        //when - action or the behaviour that we're going to test
+        EmployeeImportReport report = employeeImportService.importCsv(new StringReader(csv));
+
+        //then - verify the output
+        Assertions.assertThat(report.getFailed()).isEqualTo(1);
+        Assertions.assertThat(report.getCreated()).isEqualTo(1);
+        Assertions.assertThat(report.getDuplicates()).isZero();
+        Assertions.assertThat(report.getErrors()).extracting(EmployeeImportReport.EmployeeImportError::getMessage)
+                .containsExactly("Value too long for column first_name");
+    }
+
+    @Test
+    @DisplayName("Junit for CSV without email column")
+    public void givenCsvWithoutEmailColumn_whenImportCsv_thenThrowException(){
+        //when - action or the behaviour that we're going to test
+        org.junit.jupiter.api.Assertions.assertThrows(BadRequestException.class, () -> {
+            employeeImportService.importCsv(new StringReader("firstName,lastName\nA,B\n"));
+        });
+
+        //then - verify the output
+        verifyNoInteractions(employeeService);
+    }
+}
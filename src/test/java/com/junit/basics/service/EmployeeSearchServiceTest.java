@@ -0,0 +1,56 @@
+package com.junit.basics.service;
+
+import com.junit.basics.event.EmployeeChangedEvent;
+import com.junit.basics.model.EmployeeSearchHit;
+import com.junit.basics.model.EmployeeView;
+import com.junit.basics.repository.EmployeeRepository;
+import com.junit.basics.service.Impl.EmployeeSearchServiceImpl;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.mockito.BDDMockito.given;
+
+@ExtendWith(MockitoExtension.class)
+public class EmployeeSearchServiceTest {
+    @Mock
+    private EmployeeRepository employeeRepository;
+
+    private EmployeeSearchServiceImpl employeeSearchService;
+
+    @BeforeEach
+    public void setup(){
+        employeeSearchService = new EmployeeSearchServiceImpl(employeeRepository);
+    }
+
+    @Test
+    @DisplayName("Junit for changes committed during a rebuild surviving its older snapshot")
+    public void givenChangesDuringRebuild_whenRebuild_thenChangesKept(){
+        //given - precondition or setup
+        EmployeeView john = new EmployeeView(1, "John", "Cena", "john@gmail.com", 0);
+        EmployeeView johnny = new EmployeeView(2, "Johnny", "Depp", "depp@gmail.com", 0);
+        EmployeeView johnson = new EmployeeView(3, "Steve", "Johnson", "steve@yahoo.com", 0);
+        //1 is deleted and 3 created while the scan is running, after it took its snapshot
+        given(employeeRepository.streamAllViews()).willAnswer(invocation -> Stream.of(johnny, john)
+                .peek(employee -> {
+                    if(employee == johnny) {
+                        employeeSearchService.onEmployeeChanged(EmployeeChangedEvent.deleted(List.of(1)));
+                        employeeSearchService.onEmployeeChanged(EmployeeChangedEvent.upserted(List.of(johnson)));
+                    }
+                }));
+
+        //when - action or the behaviour that we're going to test
+        employeeSearchService.rebuild();
+        List<EmployeeSearchHit> hits = employeeSearchService.search("john", 10);
+
+        //then - verify the output
+        Assertions.assertThat(hits).extracting(hit -> hit.getEmployee().getId()).containsExactlyInAnyOrder(2, 3);
+    }
+}
@@ -0,0 +1,213 @@
+package com.junit.basics.service;
+
+import com.junit.basics.config.CacheConfig;
+import com.junit.basics.model.Employee;
+import com.junit.basics.model.EmployeeView;
+import com.junit.basics.repository.EmployeeChangeRepository;
+import com.junit.basics.repository.EmployeeRepository;
+import com.junit.basics.datasource.ReadYourWrites;
+import com.junit.basics.service.Impl.EmployeeLookupBatcher;
+import com.junit.basics.service.Impl.EmployeeRecentWrites;
+import com.junit.basics.service.Impl.EmployeeServiceImpl;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.convert.ApplicationConversionService;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+//lookups go straight to the repository instead of through the id batcher
+@SpringJUnitConfig
+@TestPropertySource(properties = "employee.lookup.batch.enabled=false")
+public class EmployeeServiceCacheTest {
+
+    @Configuration
+    @Import({CacheConfig.class, EmployeeServiceImpl.class, EmployeeLookupBatcher.class, EmployeeRecentWrites.class})
+    static class TestConfig {
+        //Boot's converters, for the Duration properties of the service
+        @Bean
+        public static ConversionService conversionService() {
+            return ApplicationConversionService.getSharedInstance();
+        }
+
+        @Bean
+        public CacheManager cacheManager() {
+            return new CaffeineCacheManager(CacheConfig.EMPLOYEES_BY_ID, CacheConfig.EMPLOYEES_BY_EMAIL);
+        }
+    }
+
+    @MockBean
+    private EmployeeRepository employeeRepository;
+    @MockBean
+    private EmployeeChangeRepository employeeChangeRepository;
+    @MockBean
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private EmployeeService employeeService;
+    @Autowired
+    private CacheManager cacheManager;
+    @Autowired
+    private EmployeeRecentWrites recentWrites;
+
+    private EmployeeView employee;
+
+    @BeforeEach
+    public void setup(){
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+        employee = EmployeeView.builder()
+                .id(110).firstName("Alex").lastName("Carey").email("alex@gmail.com").build();
+    }
+
+    @Test
+    @DisplayName("Junit for cached find employee by Id")
+    public void givenCachedEmployee_whenGetEmployeeById_thenRepositoryCalledOnce(){
+        //given - precondition or setup
+        given(employeeRepository.findViewById(110)).willReturn(Optional.of(employee));
+
+        //when - action or the behaviour that we're going to test
+        employeeService.getEmployeeById(110);
+        Optional<EmployeeView> emp = employeeService.getEmployeeById(110);
+
+        //then - verify the output
+        Assertions.assertThat(emp).contains(employee);
+        verify(employeeRepository, times(1)).findViewById(110);
+    }
+
+    @Test
+    @DisplayName("Junit for missing employee not being cached")
+    public void givenMissingEmployee_whenGetEmployeeById_thenMissNotCached(){
+        //given - precondition or setup
+        given(employeeRepository.findViewById(110)).willReturn(Optional.empty());
+
+        //when - action or the behaviour that we're going to test
+        employeeService.getEmployeeById(110);
+        employeeService.getEmployeeById(110);
+
+        //then - verify the output
+        verify(employeeRepository, times(2)).findViewById(110);
+    }
+
+    @Test
+    @DisplayName("Junit for cache eviction on update")
+    public void givenCachedEmployee_whenUpdateEmployee_thenCacheEvicted(){
+        //given - precondition or setup
+        given(employeeRepository.findViewById(110)).willReturn(Optional.of(employee));
+        given(employeeRepository.findViewByEmail("alex@gmail.com")).willReturn(Optional.of(employee));
+        given(employeeRepository.updateById(eq(110), eq("Alex"), eq("Carey"), eq("alex.carey@gmail.com"),
+                any(Instant.class))).willReturn(1);
+        employeeService.getEmployeeById(110);
+        employeeService.getEmployeeByEmail("alex@gmail.com");
+
+        //when - action or the behaviour that we're going to test
+        employeeService.updateEmployee(Employee.builder()
+                .id(110).firstName("Alex").lastName("Carey").email("alex.carey@gmail.com").build());
+        employeeService.getEmployeeById(110);
+        employeeService.getEmployeeByEmail("alex@gmail.com");
+
+        //then - verify the output
+        verify(employeeRepository, times(2)).findViewById(110);
+        verify(employeeRepository, times(2)).findViewByEmail("alex@gmail.com");
+    }
+
+    @Test
+    @DisplayName("Junit for lookup overlapping a write not being cached")
+    public void givenWriteWhileLoading_whenGetEmployeeById_thenLoadedRowNotCached(){
+        //given - precondition or setup
+        //the write commits and evicts while the lookup is still reading the old row
+        given(employeeRepository.findViewById(110)).willAnswer(invocation -> {
+            recentWrites.markWritten(List.of(110));
+            return Optional.of(employee);
+        });
+
+        //when - action or the behaviour that we're going to test
+        Optional<EmployeeView> emp = employeeService.getEmployeeById(110);
+
+        //then - verify the output
+        Assertions.assertThat(emp).contains(employee);
+        Assertions.assertThat(cacheManager.getCache(CacheConfig.EMPLOYEES_BY_ID).get(110)).isNull();
+    }
+
+    @Test
+    @DisplayName("Junit for cache eviction on delete")
+    public void givenCachedEmployee_whenDeleteById_thenCacheEvicted(){
+        //given - precondition or setup
+        given(employeeRepository.findViewById(110)).willReturn(Optional.of(employee));
+        employeeService.getEmployeeById(110);
+
+        //when - action or the behaviour that we're going to test
+        employeeService.deleteById(110);
+        employeeService.getEmployeeById(110);
+
+        //then - verify the output
+        verify(employeeRepository, times(2)).findViewById(110);
+    }
+
+    @Test
+    @DisplayName("Junit for cache eviction waiting for the commit")
+    public void givenCachedEmployee_whenUpdateInTransaction_thenCacheEvictedAfterCommit(){
+        //given - precondition or setup
+        given(employeeRepository.findViewById(110)).willReturn(Optional.of(employee));
+        given(employeeRepository.updateById(eq(110), eq("Alex"), eq("Carey"), eq("alex.carey@gmail.com"),
+                any(Instant.class))).willReturn(1);
+        employeeService.getEmployeeById(110);
+
+        //when - action or the behaviour that we're going to test
+        TransactionSynchronizationManager.initSynchronization();
+        boolean cachedBeforeCommit;
+        try {
+            employeeService.updateEmployee(Employee.builder()
+                    .id(110).firstName("Alex").lastName("Carey").email("alex.carey@gmail.com").build());
+            cachedBeforeCommit = cacheManager.getCache(CacheConfig.EMPLOYEES_BY_ID).get(110) != null;
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        //then - verify the output
+        Assertions.assertThat(cachedBeforeCommit).isTrue();
+        Assertions.assertThat(cacheManager.getCache(CacheConfig.EMPLOYEES_BY_ID).get(110)).isNull();
+    }
+
+    @Test
+    @DisplayName("Junit for lookups after a write reading the primary")
+    public void givenUpdatedEmployee_whenGetEmployeeById_thenReadFromPrimary(){
+        //given - precondition or setup
+        List<Boolean> pinned = new ArrayList<>();
+        given(employeeRepository.findViewById(anyInt())).willAnswer(invocation -> {
+            pinned.add(ReadYourWrites.isPinnedToPrimary());
+            return Optional.of(employee);
+        });
+        given(employeeRepository.updateById(eq(110), eq("Alex"), eq("Carey"), eq("alex.carey@gmail.com"),
+                any(Instant.class))).willReturn(1);
+
+        //when - action or the behaviour that we're going to test
+        employeeService.getEmployeeById(111);
+        employeeService.updateEmployee(Employee.builder()
+                .id(110).firstName("Alex").lastName("Carey").email("alex.carey@gmail.com").build());
+        employeeService.getEmployeeById(110);
+
+        //then - verify the output
+        Assertions.assertThat(pinned).containsExactly(false, true);
+        Assertions.assertThat(ReadYourWrites.isPinnedToPrimary()).isFalse();
+    }
+}
@@ -1,8 +1,21 @@
 package com.junit.basics.service;
 
+import com.junit.basics.exceptions.BadRequestException;
+import com.junit.basics.exceptions.GoneException;
+import com.junit.basics.exceptions.PreconditionFailedException;
 import com.junit.basics.exceptions.ResourceNotFoundException;
+import com.junit.basics.event.EmployeeChangedEvent;
 import com.junit.basics.model.Employee;
+import com.junit.basics.model.EmployeeChange;
+import com.junit.basics.model.EmployeeCreateResult;
+import com.junit.basics.model.EmployeeDelta;
+import com.junit.basics.model.EmployeeDeltaEntry;
+import com.junit.basics.model.EmployeePage;
+import com.junit.basics.model.EmployeeView;
+import com.junit.basics.repository.EmployeeChangeRepository;
 import com.junit.basics.repository.EmployeeRepository;
+import com.junit.basics.service.Impl.EmployeeLookupBatcher;
+import com.junit.basics.service.Impl.EmployeeRecentWrites;
 import com.junit.basics.service.Impl.EmployeeServiceImpl;
 import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
@@ -11,6 +24,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.*;
 
@@ -18,15 +32,44 @@ import org.mockito.BDDMockito;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @ExtendWith(MockitoExtension.class)
 public class EmployeeServiceTest {
     @Mock
     private EmployeeRepository employeeRepository;
+    @Mock
+    private EmployeeChangeRepository employeeChangeRepository;
+    @Mock
+    private EmployeeLookupBatcher employeeLookupBatcher;
+    @Mock
+    private EmployeeRecentWrites recentWrites;
+    //returns no caches, every lookup goes to the repository
+    @Mock
+    private CacheManager cacheManager;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    //runs every callback without a real transaction
+    @Mock
+    private PlatformTransactionManager transactionManager;
     @InjectMocks
     private EmployeeServiceImpl employeeService;
 
@@ -46,26 +89,29 @@ public class EmployeeServiceTest {
     @DisplayName("Junit for save employee method")
     public void givenEmployeeObject_whenSaveEmployee_thenReturnEmployee(){
         //given - precondition or setup
-        given(employeeRepository.findByEmail(employee.getEmail()))
-                .willReturn(Optional.empty());
-
-        given(employeeRepository.save(employee)).willReturn(employee);
+        employee.setVersion(3);
+        Employee stored = Employee.builder()
+                .id(120).firstName("Alex").lastName("Carey").email("alex@gmail.com").version(0).build();
+        given(employeeRepository.saveAndFlush(employee)).willReturn(stored);
 
         //when - action or the behaviour that we're going to test
         Employee savedEmp = employeeService.saveEmployee(employee);
 
         //then - verify the output
-        Assertions.assertThat(savedEmp).isNotNull();
+        Assertions.assertThat(savedEmp).isSameAs(stored);
+        //persisted as a new row, never merged into the employee the body named
+        Assertions.assertThat(employee.getId()).isZero();
+        Assertions.assertThat(employee.getVersion()).isNull();
+        verify(employeeChangeRepository).saveAll(argThat(changes -> changes.iterator().next().getEmployeeId() == 120));
+        verify(eventPublisher).publishEvent(any(EmployeeChangedEvent.class));
     }
 
     @Test
     @DisplayName("Junit for save employee method which throw exception")
     public void givenEmployeeObject_whenSaveEmployee_thenThrowException(){
         //given - precondition or setup
-        given(employeeRepository.findByEmail(employee.getEmail()))
-                .willReturn(Optional.of(employee));
-
-        //given(employeeRepository.save(employee)).willReturn(employee);
+        given(employeeRepository.saveAndFlush(employee))
+                .willThrow(new DataIntegrityViolationException("uk_employees_email"));
 
         //when - action or the behaviour that we're going to test
         org.junit.jupiter.api.Assertions.assertThrows(ResourceNotFoundException.class, () -> {
@@ -73,17 +119,160 @@ public class EmployeeServiceTest {
         });
 
         //then - verify the output
-        verify(employeeRepository, never()).save(any(Employee.class));
+        verify(employeeRepository, never()).findByEmail(any(String.class));
+    }
+
+    @Test
+    @DisplayName("Junit for save employee method with other constraint violation")
+    public void givenOtherConstraintViolation_whenSaveEmployee_thenRethrowException(){
+        //given - precondition or setup
+        given(employeeRepository.saveAndFlush(employee))
+                .willThrow(new DataIntegrityViolationException("primary key violation"));
+
+        //when - action or the behaviour that we're going to test
+        org.junit.jupiter.api.Assertions.assertThrows(DataIntegrityViolationException.class, () -> {
+            employeeService.saveEmployee(employee);
+        });
+    }
+
+    @Test
+    @DisplayName("Junit for batch save with duplicate emails")
+    public void givenEmployeeBatch_whenSaveEmployees_thenSkipDuplicateEmails(){
+        //given - precondition or setup
+        Employee sameEmailAsEmp2 = Employee.builder()
+                .firstName("Dave").lastName("Warner").email("dwarner@gmail.com").build();
+        given(employeeRepository.findExistingEmails(any())).willReturn(List.of("alex@gmail.com"));
+        //stored as copies under their generated ids, as a merge would
+        Employee savedEmp1 = Employee.builder().id(1).firstName("Steve").lastName("Smith").email("smith@gmail.com")
+                .build();
+        Employee savedEmp2 = Employee.builder().id(2).firstName("David").lastName("Warner").email("dwarner@gmail.com")
+                .build();
+        given(employeeRepository.saveAllAndFlush(List.of(emp1, emp2))).willReturn(List.of(savedEmp1, savedEmp2));
+
+        //when - action or the behaviour that we're going to test
+        List<EmployeeCreateResult> results = employeeService.saveEmployees(
+                List.of(employee, emp1, emp2, sameEmailAsEmp2));
+
+        //then - verify the output
+        Assertions.assertThat(results).extracting(EmployeeCreateResult::getStatus).containsExactly(
+                EmployeeCreateResult.Status.DUPLICATE_EMAIL, EmployeeCreateResult.Status.CREATED,
+                EmployeeCreateResult.Status.CREATED, EmployeeCreateResult.Status.DUPLICATE_EMAIL);
+        verify(employeeRepository, times(1)).findExistingEmails(any());
+        verify(employeeRepository, times(1)).saveAllAndFlush(List.of(emp1, emp2));
+        //ids carried in the body are dropped, the results and outbox rows report the stored ones
+        Assertions.assertThat(emp1.getId()).isZero();
+        Assertions.assertThat(results).extracting(EmployeeCreateResult::getEmployee)
+                .containsExactly(employee, savedEmp1, savedEmp2, sameEmailAsEmp2);
+        verify(employeeChangeRepository).saveAll(argThat(changes -> {
+            List<Integer> ids = new ArrayList<>();
+            changes.forEach(change -> ids.add(change.getEmployeeId()));
+            return ids.equals(List.of(1, 2));
+        }));
+    }
+
+    @Test
+    @DisplayName("Junit for batch save with emails differing only in case")
+    public void givenEmailsDifferingInCase_whenSaveEmployees_thenDuplicateEmail(){
+        //given - precondition or setup
+        Employee upperCase = Employee.builder().firstName("Alex").lastName("Other").email("ALEX@gmail.com").build();
+        Employee sameAsEmp1 = Employee.builder().firstName("Steve").lastName("Other").email("Smith@Gmail.com").build();
+        given(employeeRepository.findExistingEmails(any())).willReturn(List.of("alex@gmail.com"));
+        given(employeeRepository.saveAllAndFlush(List.of(emp1))).willReturn(List.of(emp1));
+
+        //when - action or the behaviour that we're going to test
+        List<EmployeeCreateResult> results = employeeService.saveEmployees(List.of(upperCase, emp1, sameAsEmp1));
+
+        //then - verify the output
+        Assertions.assertThat(results).extracting(EmployeeCreateResult::getStatus).containsExactly(
+                EmployeeCreateResult.Status.DUPLICATE_EMAIL, EmployeeCreateResult.Status.CREATED,
+                EmployeeCreateResult.Status.DUPLICATE_EMAIL);
+    }
+
+    @Test
+    @DisplayName("Junit for batch save falling back to single rows after a unique violation")
+    public void givenConcurrentInsertOfSameEmail_whenSaveEmployees_thenOnlyThatRowDuplicate(){
+        //given - precondition or setup
+        given(employeeRepository.saveAllAndFlush(List.of(emp1, emp2)))
+                .willThrow(new DataIntegrityViolationException("uk_employees_email"));
+        given(employeeRepository.saveAndFlush(emp1)).willReturn(emp1);
+        given(employeeRepository.saveAndFlush(emp2))
+                .willThrow(new DataIntegrityViolationException("uk_employees_email"));
+
+        //when - action or the behaviour that we're going to test
+        List<EmployeeCreateResult> results = employeeService.saveEmployees(List.of(emp1, emp2));
+
+        //then - verify the output
+        Assertions.assertThat(results).extracting(EmployeeCreateResult::getStatus).containsExactly(
+                EmployeeCreateResult.Status.CREATED, EmployeeCreateResult.Status.DUPLICATE_EMAIL);
+        //the batch and the duplicate row each roll back their own transaction
+        verify(transactionManager, times(2)).rollback(any());
+    }
+
+    @Test
+    @DisplayName("Junit for row by row retry reporting a row failing for another reason")
+    public void givenOtherViolationAfterRetry_whenSaveEmployees_thenRowFailedAndLaterRowsWritten(){
+        //given - precondition or setup
+        given(employeeRepository.saveAllAndFlush(List.of(employee, emp1, emp2)))
+                .willThrow(new DataIntegrityViolationException("uk_employees_email"));
+        given(employeeRepository.saveAndFlush(employee))
+                .willThrow(new DataIntegrityViolationException("uk_employees_email"));
+        given(employeeRepository.saveAndFlush(emp1))
+                .willThrow(new DataIntegrityViolationException("Value too long for column first_name"));
+        given(employeeRepository.saveAndFlush(emp2)).willReturn(emp2);
+
+        //when - action or the behaviour that we're going to test
+        List<EmployeeCreateResult> results = employeeService.saveEmployees(List.of(employee, emp1, emp2));
+
+        //then - verify the output
+        Assertions.assertThat(results).extracting(EmployeeCreateResult::getStatus).containsExactly(
+                EmployeeCreateResult.Status.DUPLICATE_EMAIL, EmployeeCreateResult.Status.FAILED,
+                EmployeeCreateResult.Status.CREATED);
+        verify(employeeRepository).saveAndFlush(emp2);
+    }
+
+    @Test
+    @DisplayName("Junit for batch save retrying row by row after a row failing for another reason")
+    public void givenBatchFailingOnOneRow_whenSaveEmployees_thenOnlyThatRowFailed(){
+        //given - precondition or setup
+        given(employeeRepository.saveAllAndFlush(List.of(emp1, emp2)))
+                .willThrow(new DataIntegrityViolationException("Value too long for column first_name"));
+        given(employeeRepository.saveAndFlush(emp1))
+                .willThrow(new DataIntegrityViolationException("Value too long for column first_name"));
+        given(employeeRepository.saveAndFlush(emp2)).willReturn(emp2);
+
+        //when - action or the behaviour that we're going to test
+        List<EmployeeCreateResult> results = employeeService.saveEmployees(List.of(emp1, emp2));
+
+        //then - verify the output
+        Assertions.assertThat(results).extracting(EmployeeCreateResult::getStatus).containsExactly(
+                EmployeeCreateResult.Status.FAILED, EmployeeCreateResult.Status.CREATED);
+    }
+
+    @Test
+    @DisplayName("Junit for batch save with the database unavailable")
+    public void givenDatabaseUnavailable_whenSaveEmployees_thenThrowWithoutRetry(){
+        //given - precondition or setup
+        given(employeeRepository.saveAllAndFlush(List.of(emp1, emp2)))
+                .willThrow(new DataAccessResourceFailureException("Connection refused"));
+
+        //when - action or the behaviour that we're going to test
+        org.junit.jupiter.api.Assertions.assertThrows(DataAccessResourceFailureException.class, () -> {
+            employeeService.saveEmployees(List.of(emp1, emp2));
+        });
+
+        //then - verify the output
+        verify(employeeRepository, never()).saveAndFlush(any(Employee.class));
     }
 
     @Test
     @DisplayName("Junit to get all employee")
     public void givenEmployeeList_whenGetAllEmployee_thenReturnEmployeeList(){
         //given - precondition or setup
-        given(employeeRepository.findAll()).willReturn(List.of(employee, emp1, emp2));
+        given(employeeRepository.findAllViews()).willReturn(List.of(
+                EmployeeView.from(employee), EmployeeView.from(emp1), EmployeeView.from(emp2)));
 
         //when - action or the behaviour that we're going to test
-        List<Employee> list = employeeService.getAllEmployee();
+        List<EmployeeView> list = employeeService.getAllEmployee();
 
         //then - verify the output
         Assertions.assertThat(list).isNotNull();
@@ -94,24 +283,162 @@ public class EmployeeServiceTest {
     @DisplayName("Junit to get all employee - negative scenario")
     public void givenEmptyEmployeeList_whenGetAllEmployee_thenReturnEmptyEmployeeList(){
         //given - precondition or setup
-        given(employeeRepository.findAll()).willReturn(Collections.emptyList());
+        given(employeeRepository.findAllViews()).willReturn(Collections.emptyList());
 
         //when - action or the behaviour that we're going to test
-        List<Employee> list = employeeService.getAllEmployee();
+        List<EmployeeView> list = employeeService.getAllEmployee();
 
         //then - verify the output
         Assertions.assertThat(list).isEmpty();
         Assertions.assertThat(list.size()).isEqualTo(0);
     }
 
+    @Test
+    @DisplayName("Junit to get employee page with next cursor")
+    public void givenMoreRowsThanPageSize_whenGetEmployeePage_thenReturnPageWithCursor(){
+        //given - precondition or setup
+        EmployeeView view = EmployeeView.from(employee);
+        EmployeeView view1 = EmployeeView.from(emp1);
+        EmployeeView view2 = EmployeeView.from(emp2);
+        given(employeeRepository.findNextPage(eq(0), any(Pageable.class))).willReturn(List.of(view, view1, view2));
+        given(employeeRepository.findNextPage(eq(111), any(Pageable.class))).willReturn(List.of(view2));
+
+        //when - action or the behaviour that we're going to test
+        EmployeePage firstPage = employeeService.getEmployeePage(null, 2);
+        EmployeePage lastPage = employeeService.getEmployeePage(firstPage.getNextCursor(), 2);
+
+        //then - verify the output
+        Assertions.assertThat(firstPage.getEmployees()).containsExactly(view, view1);
+        Assertions.assertThat(firstPage.getNextCursor()).isNotNull();
+        Assertions.assertThat(lastPage.getEmployees()).containsExactly(view2);
+        Assertions.assertThat(lastPage.getNextCursor()).isNull();
+    }
+
+    @Test
+    @DisplayName("Junit to get employee page with invalid cursor")
+    public void givenInvalidCursor_whenGetEmployeePage_thenThrowException(){
+        //when - action or the behaviour that we're going to test
+        org.junit.jupiter.api.Assertions.assertThrows(BadRequestException.class, () -> {
+            employeeService.getEmployeePage("not-a-cursor", 2);
+        });
+
+        //then - verify the output
+        verify(employeeRepository, never()).findNextPage(any(Integer.class), any(Pageable.class));
+    }
+
+    @Test
+    @DisplayName("Junit to get employee delta with tombstones and next cursor")
+    public void givenChangedAndDeletedEmployees_whenGetEmployeeDelta_thenReturnMergedPages(){
+        //given - precondition or setup
+        ReflectionTestUtils.setField(employeeService, "changeRetention", Duration.ofDays(7));
+        ReflectionTestUtils.setField(employeeService, "deltaSettleTime", Duration.ofSeconds(5));
+        Instant since = Instant.now().minus(Duration.ofHours(1));
+        EmployeeDeltaEntry changed = new EmployeeDeltaEntry(110, "Alex", "Carey", "alex@gmail.com", 1,
+                since.plusSeconds(10), false);
+        EmployeeDeltaEntry changedLater = new EmployeeDeltaEntry(111, "Steve", "Smith", "smith@gmail.com", 0,
+                since.plusSeconds(30), false);
+        EmployeeChange deleted = EmployeeChange.builder().employeeId(112).type(EmployeeChange.Type.DELETE)
+                .changedAt(since.plusSeconds(20)).build();
+        given(employeeRepository.findChangedAfter(eq(since), eq(Integer.MAX_VALUE), any(Instant.class),
+                any(Pageable.class))).willReturn(List.of(changed, changedLater));
+        given(employeeChangeRepository.findDeletedAfter(eq(since), eq(Integer.MAX_VALUE), any(Instant.class),
+                any(Pageable.class))).willReturn(List.of(deleted));
+        given(employeeRepository.findChangedAfter(eq(since.plusSeconds(20)), eq(112), any(Instant.class),
+                any(Pageable.class))).willReturn(List.of(changedLater));
+
+        //when - action or the behaviour that we're going to test
+        EmployeeDelta firstPage = employeeService.getEmployeeDelta(since, null, 2);
+        EmployeeDelta lastPage = employeeService.getEmployeeDelta(null, firstPage.getNextCursor(), 2);
+
+        //then - verify the output
+        Assertions.assertThat(firstPage.getChanges()).extracting(EmployeeDeltaEntry::getId, EmployeeDeltaEntry::isDeleted)
+                .containsExactly(Assertions.tuple(110, false), Assertions.tuple(112, true));
+        Assertions.assertThat(firstPage.getNextCursor()).isNotNull();
+        Assertions.assertThat(lastPage.getChanges()).containsExactly(changedLater);
+        Assertions.assertThat(lastPage.getNextCursor()).isNull();
+        Assertions.assertThat(lastPage.getWatermark()).isEqualTo(firstPage.getWatermark())
+                .isBefore(Instant.now().minusSeconds(4));
+    }
+
+    @Test
+    @DisplayName("Junit to get employee delta older than the change retention")
+    public void givenSinceBeforeRetention_whenGetEmployeeDelta_thenThrowGone(){
+        //given - precondition or setup
+        ReflectionTestUtils.setField(employeeService, "changeRetention", Duration.ofDays(7));
+        ReflectionTestUtils.setField(employeeService, "deltaSettleTime", Duration.ofSeconds(5));
+
+        //when - action or the behaviour that we're going to test
+        org.junit.jupiter.api.Assertions.assertThrows(GoneException.class, () -> {
+            employeeService.getEmployeeDelta(Instant.now().minus(Duration.ofDays(8)), null, 100);
+        });
+
+        //then - verify the output
+        verifyNoInteractions(employeeChangeRepository);
+    }
+
+    @Test
+    @DisplayName("Junit for concurrent find employee by Id sharing one query")
+    public void givenConcurrentLookupsForOneId_whenGetEmployeeById_thenQueryOnce() throws Exception {
+        //given - precondition or setup
+        int callers = 20;
+        List<Thread> threads = new ArrayList<>();
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger arrived = new AtomicInteger();
+        given(employeeLookupBatcher.findById(110)).willAnswer(invocation -> {
+            //keep the query in flight until every other caller waits on it
+            long deadline = System.currentTimeMillis() + 10_000;
+            while (System.currentTimeMillis() < deadline && (arrived.get() < callers || threads.stream()
+                    .filter(thread -> thread != Thread.currentThread())
+                    .anyMatch(thread -> thread.getState() != Thread.State.WAITING)))
+                Thread.sleep(1);
+            return Optional.of(EmployeeView.from(employee));
+        });
+        ConcurrentLinkedQueue<Optional<EmployeeView>> results = new ConcurrentLinkedQueue<>();
+        for (int i = 0; i < callers; i++)
+            threads.add(new Thread(() -> {
+                try {
+                    start.await();
+                    arrived.incrementAndGet();
+                    results.add(employeeService.getEmployeeById(110));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }));
+
+        //when - action or the behaviour that we're going to test
+        threads.forEach(Thread::start);
+        start.countDown();
+        for (Thread thread : threads)
+            thread.join(10_000);
+
+        //then - verify the output
+        Assertions.assertThat(results).hasSize(callers).allMatch(result -> result.get().getId() == 110);
+        verify(employeeLookupBatcher, times(1)).findById(110);
+    }
+
+    @Test
+    @DisplayName("Junit to get employees by a list of ids in one query")
+    public void givenIdList_whenGetEmployeesByIds_thenReturnFoundInRequestOrder(){
+        //given - precondition or setup
+        given(employeeRepository.findViewsByIdIn(Set.of(112, 110, 999)))
+                .willReturn(List.of(EmployeeView.from(employee), EmployeeView.from(emp2)));
+
+        //when - action or the behaviour that we're going to test
+        List<EmployeeView> employees = employeeService.getEmployeesByIds(List.of(112, 999, 110, 112));
+
+        //then - verify the output
+        Assertions.assertThat(employees).extracting(EmployeeView::getId).containsExactly(112, 110);
+        verify(employeeRepository, never()).findViewById(anyInt());
+    }
+
     @Test
     @DisplayName("Junit find employee by Id")
     public void givenEmployeeId_whenFindById_thenReturnEmployeeObject(){
         //given - precondition or setup
-        given(employeeRepository.findById(111)).willReturn(Optional.of(emp1));
+        given(employeeLookupBatcher.findById(111)).willReturn(Optional.of(EmployeeView.from(emp1)));
 
         //when - action or the behaviour that we're going to test
-        Employee emp = employeeService.getEmployeeById(emp1.getId()).get();
+        EmployeeView emp = employeeService.getEmployeeById(emp1.getId()).get();
 
         //then - verify the output
         Assertions.assertThat(emp).isNotNull();
@@ -122,7 +449,7 @@ public class EmployeeServiceTest {
     @DisplayName("Junit for update employee")
     public void givenEmployeeObject_whenUpdateEmployee_thenReturnUpdatedEmployee(){
         //given - precondition or setup
-        given(employeeRepository.save(employee)).willReturn(employee);
+        given(employeeRepository.saveAndFlush(employee)).willReturn(employee);
         employee.setLastName("Ferguson");
 
         //when - action or the behaviour that we're going to test
@@ -133,16 +460,142 @@ public class EmployeeServiceTest {
         Assertions.assertThat(updatedEmp.getLastName()).isEqualTo("Ferguson");
     }
 
+    @Test
+    @DisplayName("Junit for single statement update of employee")
+    public void givenExistingEmployee_whenUpdateEmployee_thenReturnUpdatedEmployee(){
+        //given - precondition or setup
+        given(employeeRepository.updateById(eq(110), eq("Alex"), eq("Ferguson"), eq("alex@gmail.com"),
+                any(Instant.class))).willReturn(1);
+        employee.setLastName("Ferguson");
+
+        //when - action or the behaviour that we're going to test
+        Optional<Employee> updatedEmp = employeeService.updateEmployee(employee);
+
+        //then - verify the output
+        Assertions.assertThat(updatedEmp).contains(employee);
+        Assertions.assertThat(updatedEmp.get().getVersion()).isNull();
+        verify(employeeRepository, never()).findById(any(Integer.class));
+        verify(employeeRepository, never()).findVersionById(anyInt());
+        verify(employeeRepository, never()).save(any(Employee.class));
+    }
+
+    @Test
+    @DisplayName("Junit for update of missing employee")
+    public void givenMissingEmployee_whenUpdateEmployee_thenReturnEmpty(){
+        //given - precondition or setup
+        given(employeeRepository.updateById(eq(110), eq("Alex"), eq("Carey"), eq("alex@gmail.com"),
+                any(Instant.class))).willReturn(0);
+
+        //when - action or the behaviour that we're going to test
+        Optional<Employee> updatedEmp = employeeService.updateEmployee(employee);
+
+        //then - verify the output
+        Assertions.assertThat(updatedEmp).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Junit for update of employee with a stale version")
+    public void givenStaleVersion_whenUpdateEmployee_thenThrowPreconditionFailed(){
+        //given - precondition or setup
+        employee.setVersion(2);
+        given(employeeRepository.updateByIdAndVersion(eq(110), eq("Alex"), eq("Carey"), eq("alex@gmail.com"), eq(2),
+                any(Instant.class))).willReturn(0);
+        given(employeeRepository.findVersionById(110)).willReturn(Optional.of(3));
+
+        //when - action or the behaviour that we're going to test
+        org.junit.jupiter.api.Assertions.assertThrows(PreconditionFailedException.class, () -> {
+            employeeService.updateEmployee(employee);
+        });
+
+        //then - verify the output
+        verify(employeeRepository, never()).updateById(anyInt(), any(), any(), any(), any());
+        verifyNoInteractions(eventPublisher);
+    }
+
     @Test
     @DisplayName("Junit to delete employee")
-    public void givenEmployeeId_whenDeleteById_thenReturnNothing(){
+    public void givenEmployeeId_whenDeleteById_thenReturnTrue(){
+        //given - precondition or setup
+        given(employeeRepository.deleteAllByIdIn(List.of(112))).willReturn(1);
+
+        //when - action or the behaviour that we're going to test
+        boolean deleted = employeeService.deleteById(112);
+
+        //then - verify the output
+        Assertions.assertThat(deleted).isTrue();
+        verify(employeeRepository, never()).deleteById(any(Integer.class));
+        //a single id needs no lookup of what the statement removed
+        verify(employeeRepository, never()).lockExistingIds(any());
+        verify(employeeChangeRepository).saveAll(argThat(changes ->
+                changes.iterator().next().getType() == EmployeeChange.Type.DELETE));
+    }
+
+    @Test
+    @DisplayName("Junit to delete missing employee")
+    public void givenMissingEmployeeId_whenDeleteById_thenReturnFalse(){
+        //given - precondition or setup
+        given(employeeRepository.deleteAllByIdIn(List.of(112))).willReturn(0);
+
+        //when - action or the behaviour that we're going to test
+        boolean deleted = employeeService.deleteById(112);
+
+        //then - verify the output
+        Assertions.assertThat(deleted).isFalse();
+        verify(employeeRepository, never()).lockExistingIds(any());
+        verifyNoInteractions(employeeChangeRepository);
+    }
+
+    @Test
+    @DisplayName("Junit to soft delete a batch of employees")
+    public void givenSoftDelete_whenDeleteEmployees_thenFlagRows(){
+        //given - precondition or setup
+        ReflectionTestUtils.setField(employeeService, "softDelete", true);
+        given(employeeRepository.softDeleteAllByIdIn(eq(Set.of(110, 111)), any(Instant.class))).willReturn(2);
+
+        //when - action or the behaviour that we're going to test
+        int deleted = employeeService.deleteEmployees(List.of(110, 111, 110));
+
+        //then - verify the output
+        Assertions.assertThat(deleted).isEqualTo(2);
+        verify(employeeRepository, never()).deleteAllByIdIn(any());
+        verify(employeeRepository, never()).lockExistingIds(any());
+    }
+
+    @Test
+    @DisplayName("Junit to delete a batch with missing ids reporting only the deleted ones")
+    public void givenMissingIds_whenDeleteEmployees_thenPublishOnlyDeletedIds(){
+        //given - precondition or setup
+        SimpleTransactionStatus partial = new SimpleTransactionStatus();
+        given(transactionManager.getTransaction(any())).willReturn(partial, new SimpleTransactionStatus());
+        given(employeeRepository.deleteAllByIdIn(Set.of(110, 999))).willReturn(1);
+        given(employeeRepository.lockExistingIds(Set.of(110, 999))).willReturn(List.of(110));
+        given(employeeRepository.deleteAllByIdIn(List.of(110))).willReturn(1);
+
+        //when - action or the behaviour that we're going to test
+        int deleted = employeeService.deleteEmployees(List.of(110, 999));
+
+        //then - verify the output
+        Assertions.assertThat(deleted).isEqualTo(1);
+        //the statement matched only part of the batch, so it is rolled back and redone for the ids that exist
+        Assertions.assertThat(partial.isRollbackOnly()).isTrue();
+        verify(employeeChangeRepository).saveAll(argThat(changes -> {
+            List<EmployeeChange> list = new ArrayList<>();
+            changes.forEach(list::add);
+            return list.size() == 1 && list.get(0).getEmployeeId() == 110;
+        }));
+    }
+
+    @Test
+    @DisplayName("Junit to purge soft deleted employees")
+    public void givenSoftDeletedEmployees_whenPurgeDeletedEmployees_thenDeleteBatch(){
         //given - precondition or setup
-        BDDMockito.willDoNothing().given(employeeRepository).deleteById(112);
+        given(employeeRepository.findSoftDeletedIds(2)).willReturn(List.of(110, 111));
+        given(employeeRepository.purgeByIdIn(List.of(110, 111))).willReturn(2);
 
         //when - action or the behaviour that we're going to test
-        employeeService.deleteById(112);
+        int purged = employeeService.purgeDeletedEmployees(2);
 
         //then - verify the output
-        verify(employeeRepository, times(1)).deleteById(112);
+        Assertions.assertThat(purged).isEqualTo(2);
     }
 }
@@ -0,0 +1,153 @@
+package com.junit.basics.service;
+
+import com.junit.basics.exceptions.ResourceNotFoundException;
+import com.junit.basics.exceptions.ServiceUnavailableException;
+import com.junit.basics.model.Employee;
+import com.junit.basics.model.EmployeeCreateResult;
+import com.junit.basics.model.EmployeeCreateTicket;
+import com.junit.basics.service.Impl.EmployeeWriteBehindServiceImpl;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class EmployeeWriteBehindServiceTest {
+    @Mock
+    private EmployeeService employeeService;
+
+    private EmployeeWriteBehindServiceImpl writeBehindService;
+    private Employee employee, emp1;
+
+    @BeforeEach
+    public void setup(){
+        writeBehindService = new EmployeeWriteBehindServiceImpl(employeeService, 2, 10);
+        employee = Employee.builder().firstName("Alex").lastName("Carey").email("alex@gmail.com").build();
+        emp1 = Employee.builder().firstName("Steve").lastName("Smith").email("smith@gmail.com").build();
+    }
+
+    @Test
+    @DisplayName("Junit for queued create reserving its email")
+    public void givenQueuedEmail_whenSubmitSameEmail_thenThrowException(){
+        //given - precondition or setup
+        writeBehindService.submit(employee);
+
+        //when - action or the behaviour that we're going to test
+        org.junit.jupiter.api.Assertions.assertThrows(ResourceNotFoundException.class, () -> {
+            writeBehindService.submit(Employee.builder().firstName("A").lastName("C").email("alex@gmail.com").build());
+        });
+
+        //then - verify the output
+        verifyNoInteractions(employeeService);
+    }
+
+    @Test
+    @DisplayName("Junit for queued create reserving its email in any case")
+    public void givenQueuedEmail_whenSubmitSameEmailOtherCase_thenThrowException(){
+        //given - precondition or setup
+        EmployeeCreateTicket ticket = writeBehindService.submit(employee);
+        employee.setId(7);
+
+        //when - action or the behaviour that we're going to test
+        org.junit.jupiter.api.Assertions.assertThrows(ResourceNotFoundException.class, () -> {
+            writeBehindService.submit(Employee.builder().firstName("A").lastName("C").email("Alex@Gmail.com").build());
+        });
+
+        //then - verify the output
+        Assertions.assertThat(ticket.getEmployee().getId()).isZero();
+        verifyNoInteractions(employeeService);
+    }
+
+    @Test
+    @DisplayName("Junit for full write-behind queue")
+    public void givenFullQueue_whenSubmit_thenThrowServiceUnavailable(){
+        //given - precondition or setup
+        writeBehindService.submit(employee);
+        writeBehindService.submit(emp1);
+        Employee third = Employee.builder().firstName("David").lastName("Warner").email("dwarner@gmail.com").build();
+
+        //when - action or the behaviour that we're going to test
+        org.junit.jupiter.api.Assertions.assertThrows(ServiceUnavailableException.class, () -> {
+            writeBehindService.submit(third);
+        });
+
+        //then - verify the output
+        verifyNoInteractions(employeeService);
+    }
+
+    @Test
+    @DisplayName("Junit for writer draining the queue in one batch")
+    public void givenQueuedEmployees_whenWriterRuns_thenTicketsCompleted() throws InterruptedException {
+        //given - precondition or setup
+        given(employeeService.saveEmployees(anyList())).willAnswer(invocation -> {
+            List<Employee> batch = invocation.getArgument(0);
+            return List.of(
+                    new EmployeeCreateResult(0, EmployeeCreateResult.Status.CREATED, batch.get(0), null),
+                    new EmployeeCreateResult(1, EmployeeCreateResult.Status.DUPLICATE_EMAIL, batch.get(1), "taken"));
+        });
+        String created = writeBehindService.submit(employee).getTrackingId();
+        String duplicate = writeBehindService.submit(emp1).getTrackingId();
+        Assertions.assertThat(writeBehindService.getTicket(created).get().getStatus())
+                .isEqualTo(EmployeeCreateTicket.Status.PENDING);
+
+        //when - action or the behaviour that we're going to test
+        writeBehindService.start();
+        verify(employeeService, timeout(5000)).saveEmployees(List.of(employee, emp1));
+        writeBehindService.stop();
+
+        //then - verify the output
+        Assertions.assertThat(writeBehindService.getTicket(created).get().getStatus())
+                .isEqualTo(EmployeeCreateTicket.Status.CREATED);
+        Assertions.assertThat(writeBehindService.getTicket(duplicate).get().getStatus())
+                .isEqualTo(EmployeeCreateTicket.Status.DUPLICATE_EMAIL);
+        //written rows release their reservation
+        writeBehindService.submit(Employee.builder().email("alex@gmail.com").build());
+    }
+
+    @Test
+    @DisplayName("Junit for failed batch retried row by row")
+    public void givenFailingBatch_whenWriterRuns_thenOnlyBadRowFailed() throws InterruptedException {
+        //given - precondition or setup
+        //the rolled back batch leaves its generated ids and versions behind
+        given(employeeService.saveEmployees(anyList())).willAnswer(invocation -> {
+            List<Employee> batch = invocation.getArgument(0);
+            batch.forEach(e -> {
+                e.setId(99);
+                e.setVersion(0);
+            });
+            throw new IllegalStateException("batch failed");
+        });
+        Employee saved = Employee.builder().id(7).version(0)
+                .firstName("Alex").lastName("Carey").email("alex@gmail.com").build();
+        given(employeeService.saveEmployee(argThat(e -> e != null && "alex@gmail.com".equals(e.getEmail()))))
+                .willReturn(saved);
+        given(employeeService.saveEmployee(argThat(e -> e != null && "smith@gmail.com".equals(e.getEmail()))))
+                .willThrow(new IllegalStateException("bad row"));
+        String created = writeBehindService.submit(employee).getTrackingId();
+        String failed = writeBehindService.submit(emp1).getTrackingId();
+
+        //when - action or the behaviour that we're going to test
+        writeBehindService.start();
+        writeBehindService.stop();
+
+        //then - verify the output
+        Assertions.assertThat(writeBehindService.getTicket(created).get().getStatus())
+                .isEqualTo(EmployeeCreateTicket.Status.CREATED);
+        Assertions.assertThat(writeBehindService.getTicket(failed).get().getStatus())
+                .isEqualTo(EmployeeCreateTicket.Status.FAILED);
+        //retried as unsaved copies, the ticket reports the stored row
+        verify(employeeService, times(2))
+                .saveEmployee(argThat(e -> e != null && e.getId() == 0 && e.getVersion() == null));
+        Assertions.assertThat(writeBehindService.getTicket(created).get().getEmployee()).isSameAs(saved);
+    }
+}
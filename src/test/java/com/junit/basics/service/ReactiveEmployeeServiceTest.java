@@ -0,0 +1,165 @@
+package com.junit.basics.service;
+
+import com.junit.basics.exceptions.ResourceNotFoundException;
+import com.junit.basics.model.Employee;
+import com.junit.basics.service.Impl.EmployeeRecentWrites;
+import com.junit.basics.service.Impl.ReactiveEmployeeServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.r2dbc.DataR2dbcTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Import;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.ReactiveTransactionManager;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+//runs against an embedded R2DBC H2 database instead of MySQL
+@DataR2dbcTest(properties = "spring.r2dbc.url=r2dbc:h2:mem:///reactive;DB_CLOSE_DELAY=-1")
+@Import({ReactiveEmployeeServiceImpl.class, EmployeeRecentWrites.class})
+public class ReactiveEmployeeServiceTest {
+
+    @TestConfiguration
+    static class TestConfig {
+        @Bean
+        public TransactionalOperator reactiveTransactionalOperator(ReactiveTransactionManager transactionManager) {
+            return TransactionalOperator.create(transactionManager);
+        }
+
+        @Bean
+        public CacheManager cacheManager() {
+            return new ConcurrentMapCacheManager();
+        }
+    }
+
+    @Autowired
+    private ReactiveEmployeeService reactiveEmployeeService;
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    private Employee employee;
+
+    @BeforeEach
+    public void setup(){
+        Flux.just("create table if not exists employees (id int primary key, first_name varchar(255),"
+                                + " last_name varchar(255), email varchar(255), deleted boolean default false not null,"
+                                + " version int default 0 not null, created_at timestamp(6) with time zone,"
+                                + " updated_at timestamp(6) with time zone,"
+                                + " constraint uk_employees_email unique (email))",
+                        "create table if not exists employee_ids (sequence_name varchar(255) primary key, next_val bigint)",
+                        "create table if not exists employee_changes (id bigint primary key, seq bigint, employee_id int not null,"
+                                + " type varchar(10) not null, first_name varchar(255), last_name varchar(255),"
+                                + " email varchar(255), version int, changed_at timestamp(6) with time zone not null)",
+                        "delete from employees",
+                        "delete from employee_changes",
+                        "delete from employee_ids")
+                .concatMap(sql -> databaseClient.sql(sql).fetch().rowsUpdated())
+                .blockLast();
+        //id blocks reserved by earlier tests point into the rows deleted above
+        ((Map<?, ?>) ReflectionTestUtils.getField(reactiveEmployeeService, "idBlocks")).clear();
+        employee = Employee.builder()
+                .firstName("Aalekh").lastName("Kumar")
+                .email("aalekh@gmail.com").build();
+    }
+
+    @Test
+    @DisplayName("Reactive save and find employee by id")
+    public void givenEmployeeObject_whenSaveEmployee_thenFindById(){
+        //when - action or the behaviour that we're going to test
+        Employee savedEmp = reactiveEmployeeService.saveEmployee(employee).block();
+
+        //then - verify the output
+        StepVerifier.create(reactiveEmployeeService.getEmployeeById(savedEmp.getId()))
+                .expectNextMatches(emp -> emp.getEmail().equals("aalekh@gmail.com"))
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("Reactive saves take their ids from one reserved block")
+    public void givenTwoSaves_whenSaveEmployee_thenIdRowUpdatedOncePerBlock(){
+        //when - action or the behaviour that we're going to test
+        Employee first = reactiveEmployeeService.saveEmployee(employee).block();
+        Employee second = reactiveEmployeeService.saveEmployee(Employee.builder()
+                .firstName("Ankit").lastName("Kumar").email("ankit@gmail.com").build()).block();
+
+        //then - verify the output
+        assertThat(second.getId()).isEqualTo(first.getId() + 1);
+        StepVerifier.create(databaseClient
+                        .sql("select sequence_name, next_val from employee_ids order by sequence_name")
+                        .map(row -> row.get("sequence_name", String.class) + "=" + row.get("next_val", Long.class))
+                        .all())
+                .expectNext("employee_changes=50", "employees=50")
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("Reactive save employee with duplicate email")
+    public void givenExistingEmail_whenSaveEmployee_thenError(){
+        //given - precondition or setup
+        reactiveEmployeeService.saveEmployee(employee).block();
+        Employee duplicate = Employee.builder()
+                .firstName("Ankit").lastName("Kumar")
+                .email("aalekh@gmail.com").build();
+
+        //when - action or the behaviour that we're going to test
+        StepVerifier.create(reactiveEmployeeService.saveEmployee(duplicate))
+                .expectError(ResourceNotFoundException.class)
+                .verify();
+    }
+
+    @Test
+    @DisplayName("Reactive employees stream")
+    public void givenEmployeesList_whenGetAllEmployee_thenStreamEmployees(){
+        //given - precondition or setup
+        reactiveEmployeeService.saveEmployee(employee).block();
+        reactiveEmployeeService.saveEmployee(Employee.builder()
+                .firstName("Ankit").lastName("Kumar").email("ankit@gmail.com").build()).block();
+        reactiveEmployeeService.saveEmployee(Employee.builder()
+                .firstName("Aditya").lastName("Kumar").email("aditya@gmail.com").build()).block();
+
+        //when - action or the behaviour that we're going to test
+        //then - verify the output, requesting one row at a time
+        StepVerifier.create(reactiveEmployeeService.getAllEmployee(), 1)
+                .expectNextMatches(emp -> emp.getFirstName().equals("Aalekh"))
+                .thenRequest(2)
+                .expectNextCount(2)
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("Reactive update and delete employee")
+    public void givenEmployeeObject_whenUpdateAndDelete_thenEmployeeChangedThenGone(){
+        //given - precondition or setup
+        Employee savedEmp = reactiveEmployeeService.saveEmployee(employee).block();
+
+        //when - action or the behaviour that we're going to test
+        Employee changes = Employee.builder().id(savedEmp.getId())
+                .firstName("Aalekh").lastName("Jaiswal").email("aalekh.jaiswal@gmail.com").build();
+        StepVerifier.create(reactiveEmployeeService.updateEmployee(changes))
+                .expectNextCount(1)
+                .verifyComplete();
+        StepVerifier.create(reactiveEmployeeService.updateEmployee(Employee.builder().id(savedEmp.getId() + 1).build()))
+                .verifyComplete();
+        StepVerifier.create(reactiveEmployeeService.deleteById(savedEmp.getId()))
+                .expectNext(true)
+                .verifyComplete();
+
+        //then - verify the output
+        StepVerifier.create(reactiveEmployeeService.getEmployeeById(savedEmp.getId()))
+                .verifyComplete();
+        StepVerifier.create(reactiveEmployeeService.deleteById(savedEmp.getId()))
+                .expectNext(false)
+                .verifyComplete();
+    }
+}